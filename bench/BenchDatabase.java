@@ -0,0 +1,188 @@
+package bench;
+
+import controller.AccountController;
+import controller.AppConfig;
+import controller.DBConnection;
+import controller.ShardRouter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Creates the schema (db/schema.sql) on the configured database and seeds it with a realistic
+ * catalog and order history. Intended for a throwaway local database, such as the embedded one
+ * set up by useEmbedded.
+ */
+public final class BenchDatabase {
+    private static final String[][] CATALOG = {
+            {"Starters", "Paneer Tikka", "Veg Spring Roll", "Chicken 65", "Hara Bhara Kebab", "Fish Fingers", "Gobi Manchurian", "Chilli Paneer", "Tandoori Mushroom"},
+            {"Soups", "Tomato Soup", "Sweet Corn Soup", "Manchow Soup", "Hot and Sour Soup", "Lemon Coriander Soup"},
+            {"Main Course", "Paneer Butter Masala", "Butter Chicken", "Dal Makhani", "Kadai Paneer", "Chicken Biryani", "Veg Biryani", "Palak Paneer", "Mutton Rogan Josh", "Chole Masala", "Malai Kofta"},
+            {"Breads", "Butter Naan", "Garlic Naan", "Tandoori Roti", "Lachha Paratha", "Kulcha"},
+            {"Rice", "Jeera Rice", "Steamed Rice", "Veg Pulao", "Curd Rice"},
+            {"Chinese", "Veg Hakka Noodles", "Schezwan Fried Rice", "Chicken Fried Rice", "Chilli Chicken", "Veg Manchurian"},
+            {"Desserts", "Gulab Jamun", "Rasmalai", "Kulfi", "Brownie with Ice Cream", "Gajar Halwa"},
+            {"Beverages", "Masala Chai", "Filter Coffee", "Sweet Lassi", "Fresh Lime Soda", "Mango Shake", "Cold Coffee"},
+    };
+
+    private BenchDatabase() {}
+
+    /**
+     * Points DBConnection at an embedded in-memory H2 database (or prefix.db.url/user/password/driver)
+     * before anything loads it, so a benchmark never runs against the configured db.url. Replicas
+     * are turned off so every read and write hits the same node.
+     */
+    public static void useEmbedded(String prefix) {
+        String url = AppConfig.get(prefix + ".db.url",
+                "jdbc:h2:mem:" + prefix + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000");
+        String user = AppConfig.get(prefix + ".db.user", "sa");
+        String password = AppConfig.get(prefix + ".db.password", "sa");
+        System.setProperty("db.driver", AppConfig.get(prefix + ".db.driver", "org.h2.Driver"));
+        System.setProperty("db.url", url);
+        System.setProperty("db.user", user);
+        System.setProperty("db.password", password);
+        String branch = "db.branch." + ShardRouter.BRANCH_ID + ".";
+        System.setProperty(branch + "url", url);
+        System.setProperty(branch + "user", user);
+        System.setProperty(branch + "password", password);
+        System.setProperty("db.replica.urls", "");
+    }
+
+    public static void createSchema() throws IOException, SQLException {
+        String script = new String(Files.readAllBytes(Paths.get(AppConfig.get("bench.schema", "db/schema.sql"))), StandardCharsets.UTF_8);
+        try (Connection c = DBConnection.getConnection(); Statement st = c.createStatement()) {
+            for (String sql : statements(script)) st.execute(sql);
+        }
+    }
+
+    /** Seeds the catalog and orderCount historical orders spread over the last historyDays days. */
+    public static void seed(int stockPerItem, int orderCount, int historyDays) throws SQLException {
+        try (Connection c = DBConnection.getConnection()) {
+            try (Statement st = c.createStatement(); ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM menu_items")) {
+                if (rs.next() && rs.getInt(1) > 0) return; // already seeded
+            }
+            c.setAutoCommit(false);
+            SplittableRandom rnd = new SplittableRandom(7);
+            List<Integer> itemIds = new ArrayList<>();
+            List<BigDecimal> prices = new ArrayList<>();
+            try (PreparedStatement cat = c.prepareStatement("INSERT INTO categories (category_name) VALUES (?)", Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement item = c.prepareStatement("INSERT INTO menu_items (name, category_id, price, available_qty, description) VALUES (?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS)) {
+                for (String[] group : CATALOG) {
+                    cat.setString(1, group[0]);
+                    cat.executeUpdate();
+                    int catId;
+                    try (ResultSet keys = cat.getGeneratedKeys()) {
+                        keys.next();
+                        catId = keys.getInt(1);
+                    }
+                    for (int i = 1; i < group.length; i++) {
+                        BigDecimal price = BigDecimal.valueOf(40 + rnd.nextInt(40) * 10L);
+                        item.setString(1, group[i]);
+                        item.setInt(2, catId);
+                        item.setBigDecimal(3, price);
+                        item.setInt(4, stockPerItem);
+                        item.setString(5, group[i] + " (" + group[0].toLowerCase() + ")");
+                        item.executeUpdate();
+                        try (ResultSet keys = item.getGeneratedKeys()) {
+                            keys.next();
+                            itemIds.add(keys.getInt(1));
+                            prices.add(price);
+                        }
+                    }
+                }
+            }
+            c.commit();
+
+            try (PreparedStatement order = c.prepareStatement("INSERT INTO orders (order_date, total_amount, discount, net_amount) VALUES (?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+                 PreparedStatement line = c.prepareStatement("INSERT INTO order_items (order_id, item_id, quantity, price) VALUES (?, ?, ?, ?)")) {
+                LocalDateTime now = LocalDateTime.now();
+                for (int n = 0; n < orderCount; n++) {
+                    int lines = 1 + rnd.nextInt(5);
+                    int[] picks = new int[lines];
+                    int[] qtys = new int[lines];
+                    BigDecimal total = BigDecimal.ZERO;
+                    for (int l = 0; l < lines; l++) {
+                        picks[l] = skewedIndex(rnd, itemIds.size());
+                        qtys[l] = 1 + rnd.nextInt(3);
+                        total = total.add(prices.get(picks[l]).multiply(BigDecimal.valueOf(qtys[l])));
+                    }
+                    BigDecimal discount = rnd.nextInt(10) == 0 ? BigDecimal.valueOf(20) : BigDecimal.ZERO;
+                    LocalDateTime when = now.minusDays(rnd.nextInt(Math.max(1, historyDays)))
+                            .withHour(11 + rnd.nextInt(12)).withMinute(rnd.nextInt(60)).withSecond(rnd.nextInt(60));
+                    if (when.isAfter(now)) when = now.minusMinutes(rnd.nextInt(600));
+                    order.setTimestamp(1, Timestamp.valueOf(when));
+                    order.setBigDecimal(2, total);
+                    order.setBigDecimal(3, discount);
+                    order.setBigDecimal(4, total.subtract(discount).max(BigDecimal.ZERO));
+                    order.executeUpdate();
+                    int orderId;
+                    try (ResultSet keys = order.getGeneratedKeys()) {
+                        keys.next();
+                        orderId = keys.getInt(1);
+                    }
+                    for (int l = 0; l < lines; l++) {
+                        line.setInt(1, orderId);
+                        line.setInt(2, itemIds.get(picks[l]));
+                        line.setInt(3, qtys[l]);
+                        line.setBigDecimal(4, prices.get(picks[l]));
+                        line.addBatch();
+                    }
+                    if (n % 500 == 499) {
+                        line.executeBatch();
+                        c.commit();
+                    }
+                }
+                line.executeBatch();
+                c.commit();
+            }
+        }
+        new AccountController().rebuildRollups();
+    }
+
+    /** Item ids in seeding order, for benchmarks that pick items. */
+    public static int[] itemIds() throws SQLException {
+        List<Integer> ids = new ArrayList<>();
+        try (Connection c = DBConnection.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery("SELECT item_id FROM menu_items ORDER BY item_id")) {
+            while (rs.next()) ids.add(rs.getInt(1));
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Popularity skew (power law): low indexes are picked far more often than high ones. */
+    public static int skewedIndex(SplittableRandom rnd, int n) {
+        double u = rnd.nextDouble();
+        return Math.min(n - 1, (int) (n * u * u * u));
+    }
+
+    private static List<String> statements(String script) {
+        List<String> out = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (String line : script.split("\n")) {
+            String t = line.trim();
+            if (t.startsWith("--") || t.isEmpty()) continue;
+            sb.append(line).append('\n');
+            if (t.endsWith(";")) {
+                String sql = sb.toString().trim();
+                out.add(sql.substring(0, sql.length() - 1));
+                sb.setLength(0);
+            }
+        }
+        if (sb.toString().trim().length() > 0) out.add(sb.toString().trim());
+        return out;
+    }
+}
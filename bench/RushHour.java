@@ -0,0 +1,252 @@
+package bench;
+
+import controller.AccountController;
+import controller.AppConfig;
+import controller.InventoryController;
+import controller.LatencyHistogram;
+import controller.MenuController;
+import controller.OrderController;
+import model.MenuItem;
+import model.Money;
+import model.Order;
+import repository.MenuRepository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Rush-hour load simulator. Customers arrive at random (a Poisson process at
+ * rush.arrivalsPerMin) and queue for rush.terminals terminals; each customer browses a few
+ * categories, adds popular items more often than the rest (BenchDatabase.skewedIndex), sometimes
+ * gets a discount and checks out through OrderController. An admin thread refreshes the
+ * inventory, restocks what is running low and reads today's summary, as the back office does
+ * during service. Arrivals do not wait for the terminals, so an overloaded setup shows up as a
+ * growing queue and arrival-to-bill times rather than as a lower offered rate.
+ *
+ * Runs against an embedded in-memory H2 database (rush.db.*), never against db.url, and reports
+ * orders/s, checkout latency percentiles, oversell rejections and deadlocks for the measurement
+ * phase. See README ("Rush-hour simulation").
+ */
+public class RushHour {
+    private final MenuController menu = new MenuController();
+    private final OrderController orders = new OrderController();
+    private final InventoryController inventory = new InventoryController();
+    private final AccountController accounts = new AccountController();
+
+    private final int[] ids;
+    private final int discountPercent = AppConfig.getInt("rush.discountPercent", 15);
+    private final int restockBelow = AppConfig.getInt("rush.restockBelow", 50);
+    private final int restockQty = AppConfig.getInt("rush.restockQty", 300);
+    private final long adminEveryMs = AppConfig.getLong("rush.adminEveryMs", 10_000);
+
+    private final BlockingQueue<Long> arrivals = new LinkedBlockingQueue<>();
+    private volatile Stats stats = new Stats(); // replaced when the measurement phase starts
+    private volatile boolean stop;
+
+    private RushHour(int[] ids) {
+        this.ids = ids;
+    }
+
+    public static void main(String[] args) throws Exception {
+        BenchDatabase.useEmbedded("rush");
+        int terminals = Math.max(1, AppConfig.getInt("rush.terminals", 8));
+        int perMin = Math.max(1, AppConfig.getInt("rush.arrivalsPerMin", 1200));
+        long warmupMs = AppConfig.getLong("rush.warmupSec", 10) * 1000;
+        long measureMs = AppConfig.getLong("rush.durationSec", 60) * 1000;
+
+        BenchDatabase.createSchema();
+        BenchDatabase.seed(AppConfig.getInt("rush.stockPerItem", 500),
+                AppConfig.getInt("rush.orders", 20_000), AppConfig.getInt("bench.historyDays", 365));
+        RushHour sim = new RushHour(BenchDatabase.itemIds());
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < terminals; t++) {
+            int id = t;
+            threads.add(new Thread(() -> sim.terminal("rush-" + id, new SplittableRandom(42 + id)), "rush-terminal-" + id));
+        }
+        threads.add(new Thread(sim::admin, "rush-admin"));
+        for (Thread th : threads) {
+            th.setDaemon(true);
+            th.start();
+        }
+
+        SplittableRandom rnd = new SplittableRandom(7);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.MILLISECONDS.toNanos(warmupMs);
+        long end = measureFrom + TimeUnit.MILLISECONDS.toNanos(measureMs);
+        double meanGapNanos = 60e9 / perMin;
+        boolean measuring = false;
+        for (long next = start; next < end; next += (long) (-Math.log(1 - rnd.nextDouble()) * meanGapNanos)) {
+            long wait = next - System.nanoTime();
+            if (wait > 0) LockSupport.parkNanos(wait); // when behind, the missed arrivals come at once
+            if (!measuring && next >= measureFrom) {
+                sim.stats = new Stats();
+                measuring = true;
+            }
+            sim.stats.arrived.increment();
+            sim.arrivals.add(next);
+        }
+        long elapsed = System.nanoTime() - measureFrom;
+        sim.stop = true;
+        for (Thread th : threads) th.join(30_000);
+
+        boolean ok = sim.report(terminals, perMin, elapsed);
+        System.exit(ok ? 0 : 1);
+    }
+
+    private void terminal(String session, SplittableRandom rnd) {
+        while (!stop) {
+            Long arrivedAt;
+            try {
+                arrivedAt = arrivals.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (arrivedAt != null && !stop) serve(session, arrivedAt, rnd, stats);
+        }
+    }
+
+    private void serve(String session, long arrivedAt, SplittableRandom rnd, Stats s) {
+        List<String> categories = menu.getCategories();
+        for (int i = 1 + rnd.nextInt(3); i > 0 && !categories.isEmpty(); i--) {
+            menu.getMenuByCategory(categories.get(BenchDatabase.skewedIndex(rnd, categories.size())));
+        }
+        for (int lines = 1 + rnd.nextInt(5); lines > 0; lines--) {
+            int qty = rnd.nextInt(4) == 0 ? 2 + rnd.nextInt(3) : 1;
+            try {
+                orders.addToCart(session, ids[BenchDatabase.skewedIndex(rnd, ids.length)], qty);
+            } catch (Exception ex) {
+                if (String.valueOf(ex.getMessage()).startsWith("Insufficient stock")) s.cartRejections.increment();
+                else s.errors.increment();
+            }
+        }
+        long subtotal = orders.getSubtotalPaise(session);
+        if (subtotal == 0) {
+            s.abandoned.increment(); // everything they wanted was sold out
+            return;
+        }
+        // 10% off, in whole rupees
+        long discount = rnd.nextInt(100) < discountPercent ? subtotal / 1000 * 100 : 0;
+        long t0 = System.nanoTime();
+        try {
+            Order o = orders.placeOrder(session, discount);
+            long t1 = System.nanoTime();
+            s.checkout.record(t1 - t0);
+            s.arrivalToBill.record(t1 - arrivedAt);
+            s.orders.increment();
+            if (o.getDiscountPaise() > 0) s.discounted.increment();
+            s.netPaise.add(o.getNetPaise());
+        } catch (Exception ex) {
+            s.checkout.recordError();
+            SQLException cause = sqlCause(ex);
+            if (cause != null && OrderController.INSUFFICIENT_STOCK.equals(cause.getSQLState())) s.checkoutRejections.increment();
+            else if (cause != null && isDeadlock(cause)) s.deadlocks.increment();
+            else s.errors.increment();
+            orders.clearCart(session);
+        }
+    }
+
+    private void admin() {
+        while (!stop) {
+            try {
+                Thread.sleep(adminEveryMs);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            Stats s = stats;
+            long t0 = System.nanoTime();
+            Map<Integer, Integer> low = new LinkedHashMap<>();
+            for (MenuItem m : inventory.getInventory()) {
+                if (m.getAvailableQty() < restockBelow) low.put(m.getItemId(), restockQty);
+            }
+            if (!low.isEmpty()) {
+                if (inventory.restockAll(low).isEmpty()) s.restockFailures.increment();
+                else s.restocked.add(low.size());
+            }
+            accounts.getTodaySummary();
+            s.admin.record(System.nanoTime() - t0);
+        }
+    }
+
+    private static SQLException sqlCause(Throwable t) {
+        for (; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) return (SQLException) t;
+        }
+        return null;
+    }
+
+    /** SQLState 40001 (MySQL and H2 deadlocks, serialization failures) or MySQL error 1213. */
+    private static boolean isDeadlock(SQLException ex) {
+        for (SQLException e = ex; e != null; e = e.getNextException()) {
+            if ("40001".equals(e.getSQLState()) || e.getErrorCode() == 1213) return true;
+        }
+        return false;
+    }
+
+    /** Prints the results; false if an item was oversold or checkout p99 is over rush.maxP99Ms. */
+    private boolean report(int terminals, int perMin, long elapsedNanos) throws SQLException {
+        Stats s = stats;
+        double secs = elapsedNanos / 1e9;
+        int oversold = 0;
+        for (int qty : MenuRepository.findStock().values()) if (qty < 0) oversold++;
+
+        System.out.printf("Rush hour: %d terminals, %d customers/min offered, %.0f s measured%n", terminals, perMin, secs);
+        System.out.printf("  customers   %d arrived, %d served, %d left with nothing in stock, %d still queued%n",
+                s.arrived.sum(), s.orders.sum(), s.abandoned.sum(), arrivals.size());
+        System.out.printf("  orders/s    %.1f (%d with a discount, net %s)%n",
+                s.orders.sum() / secs, s.discounted.sum(), Money.format(s.netPaise.sum()));
+        System.out.printf("  checkout    p50 %.2f ms  p99 %.2f ms  p99.9 %.2f ms  max %.2f ms%n",
+                ms(s.checkout.percentile(50)), ms(s.checkout.percentile(99)), ms(s.checkout.percentile(99.9)), ms(s.checkout.getMax()));
+        System.out.printf("  arrival-to-bill p50 %.2f ms  p99 %.2f ms  max %.2f ms%n",
+                ms(s.arrivalToBill.percentile(50)), ms(s.arrivalToBill.percentile(99)), ms(s.arrivalToBill.getMax()));
+        System.out.printf("  oversell    %d rejected at the cart, %d rejected at checkout, %d items below zero%n",
+                s.cartRejections.sum(), s.checkoutRejections.sum(), oversold);
+        System.out.printf("  deadlocks   %d (other errors %d)%n", s.deadlocks.sum(), s.errors.sum());
+        System.out.printf("  admin       %d refreshes, p99 %.2f ms, %d items restocked, %d failed restocks%n",
+                s.admin.getCount(), ms(s.admin.percentile(99)), s.restocked.sum(), s.restockFailures.sum());
+
+        boolean ok = true;
+        // journaled orders are allowed to take stock below zero (see OrderJournal)
+        if (oversold > 0 && !AppConfig.getBoolean("order.journal.enabled", false)) {
+            System.out.println("FAIL: " + oversold + " item(s) sold below zero stock");
+            ok = false;
+        }
+        long maxP99Ms = AppConfig.getLong("rush.maxP99Ms", 0);
+        if (maxP99Ms > 0 && ms(s.checkout.percentile(99)) > maxP99Ms) {
+            System.out.println("FAIL: checkout p99 is over rush.maxP99Ms=" + maxP99Ms);
+            ok = false;
+        }
+        return ok;
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1e6;
+    }
+
+    /** Counters for one phase. */
+    private static final class Stats {
+        final LatencyHistogram checkout = new LatencyHistogram();
+        final LatencyHistogram arrivalToBill = new LatencyHistogram();
+        final LatencyHistogram admin = new LatencyHistogram();
+        final LongAdder arrived = new LongAdder();
+        final LongAdder orders = new LongAdder();
+        final LongAdder discounted = new LongAdder();
+        final LongAdder netPaise = new LongAdder();
+        final LongAdder abandoned = new LongAdder();
+        final LongAdder cartRejections = new LongAdder();
+        final LongAdder checkoutRejections = new LongAdder();
+        final LongAdder deadlocks = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder restocked = new LongAdder();
+        final LongAdder restockFailures = new LongAdder();
+    }
+}
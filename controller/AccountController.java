@@ -1,32 +1,128 @@
-package controller;
-
-import java.sql.*;
-import java.util.HashMap;
-import java.util.Map;
-
-/**
- * Account / Financial summaries.
- */
-public class AccountController {
-
-    /**
-     * Quick summary: revenue today and total orders today.
-     * Returns map with keys "revenue" (Double) and "orders" (Integer).
-     */
-    public Map<String, Object> getTodaySummary() {
-        Map<String, Object> out = new HashMap<>();
-        String sql = "SELECT IFNULL(SUM(net_amount),0) as revenue, COUNT(*) as orders FROM orders WHERE DATE(order_date) = CURDATE()";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            if (rs.next()) {
-                out.put("revenue", rs.getDouble("revenue"));
-                out.put("orders", rs.getInt("orders"));
-            } else {
-                out.put("revenue", 0.0);
-                out.put("orders", 0);
-            }
-        } catch (SQLException ex) { ex.printStackTrace(); out.put("revenue", 0.0); out.put("orders", 0); }
-        return out;
-    }
-}
+package controller;
+
+import model.ConsolidatedSales;
+import model.SalesReport;
+import repository.AccountRepository;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Account / Financial summaries.
+ * Totals come from the daily_sales / hourly_sales rollups that placeOrder maintains, with today's
+ * figures held in memory by RevenueCounter. Reports over other date ranges are computed from the
+ * orders themselves by SalesAnalytics. With several branches configured, getConsolidatedSales
+ * queries every branch's database in parallel and adds them up.
+ */
+public class AccountController {
+    private final RevenueCounter counter = RevenueCounter.shared();
+    private final Metrics metrics = Metrics.shared();
+    private final SalesAnalytics analytics = SalesAnalytics.shared();
+    private final ShardRouter shards = ShardRouter.shared();
+    private final long branchTimeoutMs = AppConfig.getLong("branches.timeoutMs", 5000);
+
+    /**
+     * Quick summary: revenue today and total orders today.
+     * Returns map with keys "revenue" (Long, paise), "orders" (Integer) and "discount" (Long, paise).
+     * If daily_sales cannot be read, the counter's last totals for today are returned (zeros only
+     * if it has none yet).
+     */
+    public Map<String, Object> getTodaySummary() {
+        return metrics.time("AccountController.getTodaySummary", this::todaySummary);
+    }
+
+    private Map<String, Object> todaySummary() {
+        Map<String, Object> out = new HashMap<>();
+        if (!counter.isFresh()) {
+            long version = counter.version();
+            LocalDate today = LocalDate.now();
+            try {
+                long[] day = AccountRepository.findDailySales(today);
+                if (day != null) counter.seed(today, (int) day[0], day[1], day[2], version);
+                else counter.seed(today, 0, 0, 0, version);
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+                metrics.error("AccountController.getTodaySummary");
+                if (!counter.isSeededFor(today)) {
+                    out.put("revenue", 0L);
+                    out.put("orders", 0);
+                    out.put("discount", 0L);
+                    return out;
+                }
+            }
+        }
+        synchronized (counter) {
+            out.put("revenue", counter.getRevenue());
+            out.put("orders", counter.getOrders());
+            out.put("discount", counter.getDiscount());
+        }
+        return out;
+    }
+
+    /** Sales by item, category and hour of day, average ticket and discounts for orders between from and to (inclusive). */
+    public SalesReport getSalesReport(LocalDate from, LocalDate to) throws SQLException {
+        return metrics.time("AccountController.getSalesReport", () -> analytics.report(from, to));
+    }
+
+    /**
+     * Revenue of every branch between from and to (inclusive), from each branch's rollups, queried
+     * on all branch databases at once. A branch that fails or takes longer than
+     * branches.timeoutMs is listed as unavailable and left out of the totals, so one outlet being
+     * down does not hide the others.
+     */
+    public ConsolidatedSales getConsolidatedSales(LocalDate from, LocalDate to) {
+        return metrics.time("AccountController.getConsolidatedSales", () -> {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(branchTimeoutMs);
+            // whole seconds, at least one: the statement ends no sooner than the wait for it
+            int timeoutSec = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(branchTimeoutMs + 999));
+            Map<String, Future<long[]>> parts = shards.scatter(b -> AccountRepository.findBranchSales(b, from, to, timeoutSec));
+            ConsolidatedSales out = new ConsolidatedSales(from, to);
+            for (Map.Entry<String, Future<long[]>> e : parts.entrySet()) {
+                String branch = e.getKey();
+                try {
+                    long[] s = e.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    out.add(new ConsolidatedSales.BranchSales(branch, s[0], s[1], s[2], s[3]));
+                    continue;
+                } catch (TimeoutException ex) {
+                    e.getValue().cancel(true); // the query itself is ended by its query timeout
+                    out.add(ConsolidatedSales.BranchSales.unavailable(branch, "timed out"));
+                } catch (ExecutionException ex) {
+                    ex.getCause().printStackTrace();
+                    out.add(ConsolidatedSales.BranchSales.unavailable(branch, ex.getCause().getMessage()));
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    e.getValue().cancel(true);
+                    out.add(ConsolidatedSales.BranchSales.unavailable(branch, "interrupted"));
+                }
+                metrics.error("AccountController.getConsolidatedSales");
+            }
+            return out;
+        });
+    }
+
+    /**
+     * Recomputes daily_sales and hourly_sales from the orders table, e.g. after the rollups drifted.
+     * Returns the number of days rebuilt, or -1 on failure.
+     */
+    public int rebuildRollups() {
+        return metrics.time("AccountController.rebuildRollups", this::rebuild);
+    }
+
+    private int rebuild() {
+        try {
+            int days = AccountRepository.rebuildRollups();
+            counter.invalidate();
+            return days;
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            metrics.error("AccountController.rebuildRollups");
+            return -1;
+        }
+    }
+}
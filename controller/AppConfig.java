@@ -0,0 +1,55 @@
+package controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Application settings.
+ * Values are read from restaurant.properties (working directory first, then classpath;
+ * use -Dconfig.file=path to point elsewhere) and can be overridden with -Dkey=value.
+ */
+public final class AppConfig {
+    private static final String DEFAULT_FILE = "restaurant.properties";
+    private static final Properties PROPS = load();
+
+    private AppConfig() {}
+
+    private static Properties load() {
+        Properties p = new Properties();
+        Path file = Paths.get(System.getProperty("config.file", DEFAULT_FILE));
+        try {
+            if (Files.isRegularFile(file)) {
+                try (InputStream in = Files.newInputStream(file)) { p.load(in); }
+            } else {
+                try (InputStream in = AppConfig.class.getClassLoader().getResourceAsStream(DEFAULT_FILE)) {
+                    if (in != null) p.load(in);
+                }
+            }
+        } catch (IOException ex) { ex.printStackTrace(); }
+        return p;
+    }
+
+    public static String get(String key, String def) {
+        String v = System.getProperty(key);
+        if (v == null) v = PROPS.getProperty(key);
+        return v == null || v.trim().isEmpty() ? def : v.trim();
+    }
+
+    public static int getInt(String key, int def) {
+        try { return Integer.parseInt(get(key, String.valueOf(def))); }
+        catch (NumberFormatException ex) { return def; }
+    }
+
+    public static long getLong(String key, long def) {
+        try { return Long.parseLong(get(key, String.valueOf(def))); }
+        catch (NumberFormatException ex) { return def; }
+    }
+
+    public static boolean getBoolean(String key, boolean def) {
+        return Boolean.parseBoolean(get(key, String.valueOf(def)));
+    }
+}
@@ -0,0 +1,67 @@
+package controller;
+
+import model.Cart;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Open carts keyed by session / terminal id.
+ * Carts idle for longer than the TTL are expired by a background sweeper.
+ */
+public class CartSessions {
+    private final Map<String, Cart> carts = new ConcurrentHashMap<>();
+    private final long ttlMs;
+    private volatile Consumer<Cart> onExpire = c -> {};
+
+    public CartSessions(long ttlMs) {
+        this.ttlMs = ttlMs;
+        long period = Math.max(1000, Math.min(60_000, ttlMs / 4));
+        ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "cart-session-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /** Returns the session's cart, opening a new one if needed. */
+    public Cart get(String sessionId) {
+        while (true) {
+            Cart cart = carts.computeIfAbsent(sessionId, Cart::new);
+            cart.touch();
+            if (!cart.isExpired()) return cart;
+            carts.remove(sessionId, cart); // lost a race with the sweeper
+        }
+    }
+
+    /** Returns the session's cart, or null if there is none. */
+    public Cart find(String sessionId) {
+        Cart cart = carts.get(sessionId);
+        if (cart == null || cart.isExpired()) return null;
+        cart.touch();
+        return cart;
+    }
+
+    public int size() { return carts.size(); }
+
+    /** Called with each cart the sweeper expires. */
+    public void setOnExpire(Consumer<Cart> onExpire) { this.onExpire = onExpire; }
+
+    void sweep() {
+        long now = System.currentTimeMillis();
+        Iterator<Cart> it = carts.values().iterator();
+        while (it.hasNext()) {
+            Cart cart = it.next();
+            if (cart.expireIfIdle(now, ttlMs)) {
+                it.remove();
+                try { onExpire.accept(cart); } catch (RuntimeException ex) { ex.printStackTrace(); }
+            }
+        }
+    }
+}
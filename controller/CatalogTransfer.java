@@ -0,0 +1,478 @@
+package controller;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bulk import and export of categories, menu items, stock levels and order history, as CSV
+ * (with a header row) or JSON lines (one flat object per line).
+ * Imports stream the input row by row and upsert through JDBC batches of import.batchSize,
+ * committing per batch; invalid rows are rejected individually. Exports stream the result set
+ * with export.fetchSize, so neither side holds the whole file or table in memory.
+ */
+public class CatalogTransfer {
+
+    public enum Format {
+        CSV, JSON;
+
+        /** JSON for .json / .jsonl / .ndjson files, CSV otherwise. */
+        public static Format forFile(String name) {
+            String n = name.toLowerCase();
+            return n.endsWith(".json") || n.endsWith(".jsonl") || n.endsWith(".ndjson") ? JSON : CSV;
+        }
+    }
+
+    private static final String[] MENU_COLUMNS = {"item_id", "name", "category", "price", "available_qty", "description"};
+    private static final String[] STOCK_COLUMNS = {"item_id", "available_qty"};
+    private static final String[] CATEGORY_COLUMNS = {"category_name"};
+    private static final String[] ORDER_COLUMNS = {"order_id", "order_date", "item_id", "quantity", "price", "total_amount", "discount", "net_amount"};
+    private static final int MAX_ERRORS = 100;
+
+    private final int batchSize = AppConfig.getInt("import.batchSize", 500);
+    private final int fetchSize = AppConfig.getInt("export.fetchSize", 1000);
+
+    /* ----------------- Import ----------------- */
+
+    /** Columns: category_name. Existing categories are left as they are. */
+    public ImportResult importCategories(Reader in, Format format) throws IOException, SQLException {
+        ImportResult result = new ImportResult();
+        RowSource rows = rows(in, format);
+        try (Connection c = DBConnection.getConnection()) {
+            Map<String, Integer> categories = loadCategories(c);
+            c.setAutoCommit(false);
+            Map<String, String> row;
+            while ((row = nextRow(rows, result)) != null) {
+                String name = trim(row.get("category_name"));
+                if (name == null) { result.reject(rows.line(), "category_name is required"); continue; }
+                if (categories.containsKey(name)) continue;
+                categories.put(name, insertCategory(c, name));
+                result.imported++;
+                if (result.imported % batchSize == 0) c.commit();
+            }
+            c.commit();
+        }
+        DBConnection.pinPrimary(); // the next catalog reads must see the import
+        MenuCatalogCache.shared().invalidateAll();
+        ChangeEvents.shared().emit(new ChangeEvents.CatalogChanged());
+        return result;
+    }
+
+    /**
+     * Columns: item_id (optional), name, category, price, available_qty, description.
+     * Rows with an item_id are upserted; rows without one are inserted as new items.
+     * Unknown categories are created.
+     */
+    public ImportResult importMenu(Reader in, Format format) throws IOException, SQLException {
+        String upsert = "INSERT INTO menu_items (item_id, name, category_id, price, available_qty, description) VALUES (?, ?, ?, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE name = VALUES(name), category_id = VALUES(category_id), price = VALUES(price), "
+                + "available_qty = VALUES(available_qty), description = VALUES(description)";
+        String insert = "INSERT INTO menu_items (name, category_id, price, available_qty, description) VALUES (?, ?, ?, ?, ?)";
+        ImportResult result = new ImportResult();
+        RowSource rows = rows(in, format);
+        try (Connection c = DBConnection.getConnection()) {
+            Map<String, Integer> categories = loadCategories(c);
+            c.setAutoCommit(false);
+            try (PreparedStatement psUpsert = c.prepareStatement(upsert);
+                 PreparedStatement psInsert = c.prepareStatement(insert)) {
+                int pending = 0;
+                Map<String, String> row;
+                while ((row = nextRow(rows, result)) != null) {
+                    try {
+                        String idS = trim(row.get("item_id"));
+                        String name = trim(row.get("name"));
+                        String category = trim(row.get("category"));
+                        if (name == null) throw new IllegalArgumentException("name is required");
+                        if (category == null) throw new IllegalArgumentException("category is required");
+                        BigDecimal price = decimal(row.get("price"), "price");
+                        int qty = nonNegativeInt(row.get("available_qty"), "available_qty");
+                        String description = row.get("description");
+
+                        Integer catId = categories.get(category);
+                        if (catId == null) {
+                            catId = insertCategory(c, category);
+                            categories.put(category, catId);
+                        }
+                        if (idS != null) {
+                            psUpsert.setInt(1, nonNegativeInt(idS, "item_id"));
+                            psUpsert.setString(2, name);
+                            psUpsert.setInt(3, catId);
+                            psUpsert.setBigDecimal(4, price);
+                            psUpsert.setInt(5, qty);
+                            psUpsert.setString(6, description);
+                            psUpsert.addBatch();
+                        } else {
+                            psInsert.setString(1, name);
+                            psInsert.setInt(2, catId);
+                            psInsert.setBigDecimal(3, price);
+                            psInsert.setInt(4, qty);
+                            psInsert.setString(5, description);
+                            psInsert.addBatch();
+                        }
+                        result.imported++;
+                    } catch (IllegalArgumentException ex) {
+                        result.reject(rows.line(), ex.getMessage());
+                        continue;
+                    }
+                    if (++pending == batchSize) {
+                        psUpsert.executeBatch();
+                        psInsert.executeBatch();
+                        c.commit();
+                        pending = 0;
+                    }
+                }
+                psUpsert.executeBatch();
+                psInsert.executeBatch();
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        } finally {
+            DBConnection.pinPrimary(); // the next catalog reads must see the import
+            MenuCatalogCache.shared().invalidateAll();
+            StockLedger.shared().reconcileAll();
+            ChangeEvents.shared().emit(new ChangeEvents.CatalogChanged());
+        }
+        return result;
+    }
+
+    /**
+     * Columns: item_id, available_qty. Sets absolute stock levels, e.g. after a stock take.
+     * Rows for an item_id that does not exist are rejected.
+     */
+    public ImportResult importStock(Reader in, Format format) throws IOException, SQLException {
+        String sql = "UPDATE menu_items SET available_qty = ? WHERE item_id = ?";
+        ImportResult result = new ImportResult();
+        RowSource rows = rows(in, format);
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement ps = c.prepareStatement(sql)) {
+                // line and item id of each batched row, to match against its update count
+                List<long[]> pending = new ArrayList<>(batchSize);
+                Map<String, String> row;
+                while ((row = nextRow(rows, result)) != null) {
+                    try {
+                        int itemId = nonNegativeInt(row.get("item_id"), "item_id");
+                        ps.setInt(1, nonNegativeInt(row.get("available_qty"), "available_qty"));
+                        ps.setInt(2, itemId);
+                        ps.addBatch();
+                        pending.add(new long[]{rows.line(), itemId});
+                    } catch (IllegalArgumentException ex) {
+                        result.reject(rows.line(), ex.getMessage());
+                        continue;
+                    }
+                    if (pending.size() == batchSize) {
+                        executeStockBatch(ps, pending, result);
+                        c.commit();
+                    }
+                }
+                executeStockBatch(ps, pending, result);
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        } finally {
+            DBConnection.pinPrimary(); // the next catalog reads must see the import
+            MenuCatalogCache.shared().invalidateAll();
+            StockLedger.shared().reconcileAll();
+            ChangeEvents.shared().emit(new ChangeEvents.CatalogChanged());
+        }
+        return result;
+    }
+
+    private static void executeStockBatch(PreparedStatement ps, List<long[]> pending, ImportResult result) throws SQLException {
+        if (pending.isEmpty()) return;
+        int[] counts = ps.executeBatch();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) result.reject(pending.get(i)[0], "no item with item_id " + pending.get(i)[1]);
+            else result.imported++; // a count, or SUCCESS_NO_INFO
+        }
+        pending.clear();
+    }
+
+    /* ----------------- Export ----------------- */
+
+    public long exportCategories(Writer out, Format format) throws IOException, SQLException {
+        return export(out, format, CATEGORY_COLUMNS, "SELECT category_name FROM categories ORDER BY category_name", null);
+    }
+
+    public long exportMenu(Writer out, Format format) throws IOException, SQLException {
+        return export(out, format, MENU_COLUMNS,
+                "SELECT mi.item_id, mi.name, c.category_name AS category, mi.price, mi.available_qty, mi.description "
+                        + "FROM menu_items mi JOIN categories c ON mi.category_id = c.category_id ORDER BY mi.item_id", null);
+    }
+
+    public long exportStock(Writer out, Format format) throws IOException, SQLException {
+        return export(out, format, STOCK_COLUMNS, "SELECT item_id, available_qty FROM menu_items ORDER BY item_id", null);
+    }
+
+    /** One row per order line for orders placed between from and to (inclusive). */
+    public long exportOrders(Writer out, Format format, LocalDate from, LocalDate to) throws IOException, SQLException {
+        return export(out, format, ORDER_COLUMNS,
+                "SELECT o.order_id, o.order_date, oi.item_id, oi.quantity, oi.price, o.total_amount, o.discount, o.net_amount "
+                        + "FROM orders o JOIN order_items oi ON oi.order_id = o.order_id "
+                        + "WHERE o.order_date >= ? AND o.order_date < ? ORDER BY o.order_date, o.order_id",
+                new Timestamp[]{Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay())});
+    }
+
+    /** Returns the number of rows written. */
+    private long export(Writer out, Format format, String[] columns, String sql, Object[] params) throws IOException, SQLException {
+        long n = 0;
+        StringBuilder sb = new StringBuilder(256);
+        if (format == Format.CSV) {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) sb.append(',');
+                sb.append(columns[i]);
+            }
+            out.append(sb).append('\n');
+        }
+        try (Connection c = DBConnection.getReadConnection();
+             PreparedStatement ps = c.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            ps.setFetchSize(fetchSize);
+            if (params != null) for (int i = 0; i < params.length; i++) ps.setObject(i + 1, params[i]);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    sb.setLength(0);
+                    if (format == Format.CSV) {
+                        for (int i = 0; i < columns.length; i++) {
+                            if (i > 0) sb.append(',');
+                            appendCsv(sb, rs.getString(i + 1));
+                        }
+                    } else {
+                        sb.append('{');
+                        for (int i = 0; i < columns.length; i++) {
+                            if (i > 0) sb.append(',');
+                            sb.append('"').append(columns[i]).append("\":");
+                            Json.appendQuoted(sb, rs.getString(i + 1));
+                        }
+                        sb.append('}');
+                    }
+                    out.append(sb).append('\n');
+                    n++;
+                }
+            }
+        }
+        out.flush();
+        return n;
+    }
+
+    private static void appendCsv(StringBuilder sb, String v) {
+        if (v == null) return;
+        if (v.indexOf(',') < 0 && v.indexOf('"') < 0 && v.indexOf('\n') < 0 && v.indexOf('\r') < 0) {
+            sb.append(v);
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < v.length(); i++) {
+            char ch = v.charAt(i);
+            if (ch == '"') sb.append('"');
+            sb.append(ch);
+        }
+        sb.append('"');
+    }
+
+    /* ----------------- Helpers ----------------- */
+
+    private static Map<String, Integer> loadCategories(Connection c) throws SQLException {
+        Map<String, Integer> out = new HashMap<>();
+        try (PreparedStatement ps = c.prepareStatement("SELECT category_id, category_name FROM categories");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.put(rs.getString("category_name"), rs.getInt("category_id"));
+        }
+        return out;
+    }
+
+    private static int insertCategory(Connection c, String name) throws SQLException {
+        try (PreparedStatement ps = c.prepareStatement("INSERT INTO categories (category_name) VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, name);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                if (keys.next()) return keys.getInt(1);
+                throw new SQLException("Failed to create category " + name);
+            }
+        }
+    }
+
+    private static String trim(String v) {
+        if (v == null) return null;
+        v = v.trim();
+        return v.isEmpty() ? null : v;
+    }
+
+    private static BigDecimal decimal(String v, String column) {
+        try {
+            BigDecimal d = new BigDecimal(v.trim());
+            if (d.signum() < 0) throw new IllegalArgumentException(column + " must not be negative");
+            return d;
+        } catch (NumberFormatException | NullPointerException ex) {
+            throw new IllegalArgumentException(column + " must be a number");
+        }
+    }
+
+    private static int nonNegativeInt(String v, String column) {
+        int n;
+        try {
+            n = Integer.parseInt(v.trim());
+        } catch (NumberFormatException | NullPointerException ex) {
+            throw new IllegalArgumentException(column + " must be an integer");
+        }
+        if (n < 0) throw new IllegalArgumentException(column + " must not be negative");
+        return n;
+    }
+
+    /** Next well-formed row; malformed ones (bad JSON) are counted and rejected on the way. */
+    private static Map<String, String> nextRow(RowSource rows, ImportResult result) throws IOException {
+        while (true) {
+            result.read++;
+            try {
+                Map<String, String> row = rows.next();
+                if (row == null) result.read--;
+                return row;
+            } catch (IllegalArgumentException ex) {
+                result.reject(rows.line(), ex.getMessage());
+            }
+        }
+    }
+
+    private static RowSource rows(Reader in, Format format) throws IOException {
+        BufferedReader r = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+        return format == Format.JSON ? new JsonLines(r) : new CsvRows(r);
+    }
+
+    /** Streams rows as column name -> raw value. */
+    private interface RowSource {
+        /** Next row, or null at end of input; throws IllegalArgumentException for a malformed row. */
+        Map<String, String> next() throws IOException;
+
+        /** Line number of the row last returned, for error messages. */
+        long line();
+    }
+
+    private static final class JsonLines implements RowSource {
+        private final BufferedReader in;
+        private long line;
+        private long rowLine;
+
+        JsonLines(BufferedReader in) { this.in = in; }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            String s;
+            while ((s = in.readLine()) != null) {
+                line++;
+                if (s.trim().isEmpty()) continue;
+                rowLine = line;
+                return Json.parseObject(s);
+            }
+            return null;
+        }
+
+        @Override public long line() { return rowLine; }
+    }
+
+    /** RFC 4180 CSV: header row, quoted fields may contain commas, quotes ("") and newlines. */
+    private static final class CsvRows implements RowSource {
+        private final BufferedReader in;
+        private final List<String> header;
+        private long line;
+        private long rowLine;
+
+        CsvRows(BufferedReader in) throws IOException {
+            this.in = in;
+            List<String> h = record();
+            header = new ArrayList<>();
+            if (h != null) for (String col : h) header.add(col.trim().toLowerCase());
+        }
+
+        @Override
+        public Map<String, String> next() throws IOException {
+            List<String> fields;
+            do {
+                fields = record();
+                if (fields == null) return null;
+            } while (fields.size() == 1 && fields.get(0).isEmpty()); // blank line
+            Map<String, String> row = new LinkedHashMap<>();
+            for (int i = 0; i < header.size() && i < fields.size(); i++) row.put(header.get(i), fields.get(i));
+            return row;
+        }
+
+        @Override public long line() { return rowLine; }
+
+        private List<String> record() throws IOException {
+            int ch = in.read();
+            if (ch < 0) return null;
+            rowLine = ++line;
+            List<String> fields = new ArrayList<>();
+            StringBuilder sb = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (ch < 0) break;
+                    if (ch == '"') {
+                        in.mark(1);
+                        int nx = in.read();
+                        if (nx == '"') sb.append('"');
+                        else {
+                            quoted = false;
+                            if (nx >= 0) in.reset();
+                        }
+                    } else {
+                        if (ch == '\n') line++;
+                        sb.append((char) ch);
+                    }
+                } else if (ch == '"' && sb.length() == 0) {
+                    quoted = true;
+                } else if (ch == ',') {
+                    fields.add(sb.toString());
+                    sb.setLength(0);
+                } else if (ch == '\n' || ch < 0) {
+                    break;
+                } else if (ch != '\r') {
+                    sb.append((char) ch);
+                }
+                ch = in.read();
+            }
+            fields.add(sb.toString());
+            return fields;
+        }
+    }
+
+    /** Outcome of an import: counts and the first rejected rows with reasons. */
+    public static class ImportResult {
+        private long read;
+        private long imported;
+        private long rejected;
+        private final List<String> errors = new ArrayList<>();
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (errors.size() < MAX_ERRORS) errors.add("line " + line + ": " + reason);
+        }
+
+        public long getRead() { return read; }
+        public long getImported() { return imported; }
+        public long getRejected() { return rejected; }
+        public List<String> getErrors() { return errors; }
+
+        @Override
+        public String toString() {
+            return "read=" + read + " imported=" + imported + " rejected=" + rejected;
+        }
+    }
+}
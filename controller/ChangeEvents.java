@@ -0,0 +1,87 @@
+package controller;
+
+import model.Order;
+import model.OrderItem;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Typed change notifications emitted by the controllers after a change has been committed,
+ * so screens can update the affected rows instead of reloading.
+ * Listeners run synchronously on the emitting thread (often not the EDT) and must be quick;
+ * Swing listeners hand off with SwingUtilities.invokeLater. A failing listener is logged and
+ * does not affect the others or the emitter.
+ */
+public class ChangeEvents {
+    private static final ChangeEvents SHARED = new ChangeEvents();
+
+    public static ChangeEvents shared() { return SHARED; }
+
+    private final Map<Class<?>, List<Consumer<Object>>> listeners = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> void addListener(Class<T> type, Consumer<? super T> listener) {
+        listeners.computeIfAbsent(type, k -> new CopyOnWriteArrayList<>()).add((Consumer<Object>) listener);
+    }
+
+    public void removeListener(Class<?> type, Consumer<?> listener) {
+        List<Consumer<Object>> list = listeners.get(type);
+        if (list != null) list.remove(listener);
+    }
+
+    public void emit(Object event) {
+        List<Consumer<Object>> list = listeners.get(event.getClass());
+        if (list == null) return;
+        for (Consumer<Object> l : list) {
+            try {
+                l.accept(event);
+            } catch (RuntimeException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    /** New database stock for some items (item id -> available_qty). */
+    public static final class StockChanged {
+        private final Map<Integer, Integer> stock;
+
+        public StockChanged(Map<Integer, Integer> stock) { this.stock = Collections.unmodifiableMap(stock); }
+
+        public Map<Integer, Integer> getStock() { return stock; }
+    }
+
+    /** Items, prices or categories changed in bulk (e.g. an import); listeners should reload. */
+    public static final class CatalogChanged {
+    }
+
+    /** An order was committed. */
+    public static final class OrderPlaced {
+        private final Order order;
+
+        public OrderPlaced(Order order) { this.order = order; }
+
+        public Order getOrder() { return order; }
+    }
+
+    /** A cart line was added or changed (line set), or the cart was emptied (line null). */
+    public static final class CartChanged {
+        private final String sessionId;
+        private final OrderItem line;
+        private final long subtotalPaise;
+
+        public CartChanged(String sessionId, OrderItem line, long subtotalPaise) {
+            this.sessionId = sessionId;
+            this.line = line;
+            this.subtotalPaise = subtotalPaise;
+        }
+
+        public String getSessionId() { return sessionId; }
+        public OrderItem getLine() { return line; }
+        public long getSubtotalPaise() { return subtotalPaise; }
+    }
+}
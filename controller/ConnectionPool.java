@@ -0,0 +1,612 @@
+package controller;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bounded JDBC connection pool.
+ * Connections handed out are proxies: close() returns the physical connection to the pool,
+ * rolled back and reset to auto-commit and, if the borrower changed them, to the read-only flag,
+ * transaction isolation and catalog it was opened with. A background housekeeper evicts idle
+ * connections, keeps minIdle warm and logs connections held longer than the leak threshold, with
+ * the stack that acquired them when leakTrace is set. Borrowed plus idle connections never exceed
+ * maxSize: a borrower that finds none idle and the pool at maxSize waits for the one in flight.
+ * Each physical connection keeps up to statementCacheSize prepared statements: prepareStatement(sql)
+ * and prepareStatement(sql, autoGeneratedKeys) hand out a cached statement for the same SQL when
+ * one is idle, and closing the statement returns it to the cache with its parameters cleared and
+ * its fetch size, max rows and query timeout back to the driver's defaults.
+ * Other prepareStatement forms (result set type, fetch size tuning) are never cached.
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(ConnectionPool.class.getName());
+
+    private final String url;
+    private final String user;
+    private final String pass;
+    private final int maxSize;
+    private final int minIdle;
+    private final long acquireTimeoutMs;
+    private final long idleTimeoutMs;
+    private final long validateAfterMs;
+    private final int validationTimeoutSec;
+    private final long leakThresholdMs;
+    private final boolean leakTrace;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    // most recently returned first, so eviction takes from the tail
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final Set<PooledConnection> active = ConcurrentHashMap.newKeySet();
+    /** Physical connections open or being opened; reserved before opening, so it never exceeds maxSize. */
+    private final AtomicInteger opened = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+
+    public ConnectionPool(String url, String user, String pass, int maxSize, int minIdle,
+                          long acquireTimeoutMs, long idleTimeoutMs, long validateAfterMs,
+                          int validationTimeoutSec, long leakThresholdMs, boolean leakTrace,
+                          int statementCacheSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize must be > 0");
+        this.url = url;
+        this.user = user;
+        this.pass = pass;
+        this.maxSize = maxSize;
+        this.minIdle = Math.min(Math.max(minIdle, 0), maxSize);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.validateAfterMs = validateAfterMs;
+        this.validationTimeoutSec = validationTimeoutSec;
+        this.leakThresholdMs = leakThresholdMs;
+        this.leakTrace = leakTrace;
+        this.statementCacheSize = Math.max(0, statementCacheSize);
+        this.permits = new Semaphore(maxSize, true);
+
+        housekeeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-pool-housekeeper");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, Math.min(30_000, leakThresholdMs > 0 ? leakThresholdMs / 2 : 30_000));
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed.");
+        long t0 = System.nanoTime();
+        waiting.incrementAndGet();
+        boolean got;
+        try {
+            got = permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection.", "08001", ex);
+        } finally {
+            waiting.decrementAndGet();
+        }
+        long waited = System.nanoTime() - t0;
+        if (!got) {
+            timeouts.increment();
+            throw new SQLException("Timed out after " + acquireTimeoutMs + "ms waiting for a connection (active="
+                    + active.size() + ", max=" + maxSize + ").", "08001");
+        }
+
+        PooledConnection pc;
+        try {
+            pc = take(t0 + TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs));
+        } catch (SQLException | RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+        pc.borrowedAt = System.currentTimeMillis();
+        pc.borrower = Thread.currentThread().getName();
+        // filling in a stack trace on every checkout is too slow to leave on
+        pc.borrowTrace = leakTrace && leakThresholdMs > 0 ? new Throwable("Connection acquired here") : null;
+        pc.leakReported = false;
+        active.add(pc);
+
+        acquired.increment();
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        return pc.checkout();
+    }
+
+    private PooledConnection take(long deadline) throws SQLException {
+        while (true) {
+            PooledConnection pc;
+            while ((pc = idle.pollFirst()) != null) {
+                if (System.currentTimeMillis() - pc.lastUsed < validateAfterMs || isValid(pc)) return pc;
+                discard(pc);
+            }
+            if (reserve()) return open();
+            // the housekeeper is opening the last connection, or a borrower is returning one
+            try {
+                pc = idle.pollFirst(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a connection.", "08001", ex);
+            }
+            if (pc == null) {
+                timeouts.increment();
+                throw new SQLException("Timed out after " + acquireTimeoutMs + "ms waiting for a connection (open="
+                        + opened.get() + ", max=" + maxSize + ").", "08001");
+            }
+            idle.offerFirst(pc); // validated on the next pass
+        }
+    }
+
+    /** Claims room for one more physical connection; false at maxSize. */
+    private boolean reserve() {
+        int n;
+        do {
+            n = opened.get();
+            if (n >= maxSize) return false;
+        } while (!opened.compareAndSet(n, n + 1));
+        return true;
+    }
+
+    private boolean isValid(PooledConnection pc) {
+        try { return pc.raw.isValid(validationTimeoutSec); }
+        catch (SQLException ex) { return false; }
+    }
+
+    /** Opens the connection a successful reserve() made room for, giving the room back on failure. */
+    private PooledConnection open() throws SQLException {
+        Connection raw;
+        try {
+            raw = DriverManager.getConnection(url, user, pass);
+        } catch (SQLException | RuntimeException ex) {
+            opened.decrementAndGet();
+            throw ex;
+        }
+        try {
+            PooledConnection pc = new PooledConnection(raw);
+            created.increment();
+            return pc;
+        } catch (SQLException ex) {
+            opened.decrementAndGet();
+            try { raw.close(); } catch (SQLException ignored) {}
+            throw ex;
+        }
+    }
+
+    private void release(PooledConnection pc) {
+        active.remove(pc);
+        boolean reusable = !closed && !pc.broken;
+        if (reusable) {
+            try {
+                if (!pc.raw.getAutoCommit()) {
+                    pc.raw.rollback();
+                    pc.raw.setAutoCommit(true);
+                }
+                if (pc.sessionChanged) pc.restoreSession();
+            } catch (SQLException ex) {
+                reusable = false;
+            }
+        }
+        if (reusable) {
+            pc.lastUsed = System.currentTimeMillis();
+            idle.offerFirst(pc);
+        } else {
+            discard(pc);
+        }
+        permits.release();
+    }
+
+    private void discard(PooledConnection pc) {
+        opened.decrementAndGet();
+        try { pc.raw.close(); } catch (SQLException ignored) {}
+    }
+
+    private void housekeep() {
+        try {
+            long now = System.currentTimeMillis();
+            // evict from the least recently used end while above minIdle
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && idle.size() > minIdle) {
+                PooledConnection pc = it.next();
+                if (now - pc.lastUsed > idleTimeoutMs && idle.removeLastOccurrence(pc)) {
+                    discard(pc);
+                    evicted.increment();
+                }
+            }
+            if (leakThresholdMs > 0) {
+                for (PooledConnection pc : active) {
+                    if (!pc.leakReported && now - pc.borrowedAt > leakThresholdMs) {
+                        pc.leakReported = true;
+                        leaks.increment();
+                        LOG.log(Level.WARNING, "Possible connection leak: held for " + (now - pc.borrowedAt) + "ms by thread "
+                                + pc.borrower + (pc.borrowTrace == null ? " (set db.pool.leakTrace=true for the acquiring stack)" : ""),
+                                pc.borrowTrace);
+                    }
+                }
+            }
+            while (!closed && idle.size() < minIdle && reserve()) {
+                try {
+                    PooledConnection pc = open();
+                    pc.lastUsed = System.currentTimeMillis();
+                    idle.offerLast(pc);
+                } catch (SQLException ex) {
+                    break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            LOG.log(Level.WARNING, "Connection pool housekeeping failed", ex);
+        }
+    }
+
+    public Stats getStats() {
+        long n = acquired.sum();
+        return new Stats(active.size(), idle.size(), waiting.get(), maxSize, n,
+                n == 0 ? 0 : waitNanos.sum() / n / 1000, maxWaitNanos.get() / 1000,
+                timeouts.sum(), created.sum(), evicted.sum(), leaks.sum(), statementHits.sum(), statementMisses.sum());
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) discard(pc);
+    }
+
+    /* ----------------- DataSource boilerplate ----------------- */
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pool credentials are fixed by configuration.");
+    }
+
+    @Override public PrintWriter getLogWriter() { return null; }
+    @Override public void setLogWriter(PrintWriter out) {}
+    @Override public void setLoginTimeout(int seconds) {}
+    @Override public int getLoginTimeout() { return (int) (acquireTimeoutMs / 1000); }
+    @Override public Logger getParentLogger() throws SQLFeatureNotSupportedException { throw new SQLFeatureNotSupportedException(); }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) { return iface.isInstance(this); }
+
+    /* ----------------- Pooled connection ----------------- */
+
+    private final class PooledConnection {
+        final Connection raw;
+        volatile long lastUsed;
+        volatile long borrowedAt;
+        volatile String borrower;
+        volatile Throwable borrowTrace;
+        volatile boolean leakReported;
+        volatile boolean broken;
+
+        // session state as opened; restored on release once a borrower has changed any of it
+        final boolean readOnly;
+        final int isolation;
+        final String catalog;
+        volatile boolean sessionChanged;
+
+        /** Idle cached statements, least recently used first; only touched by the current borrower. */
+        final Map<StatementKey, CachedStatement> statements = new LinkedHashMap<StatementKey, CachedStatement>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, CachedStatement> eldest) {
+                if (size() <= statementCacheSize) return false;
+                closeQuietly(eldest.getValue().ps);
+                return true;
+            }
+        };
+
+        PooledConnection(Connection raw) throws SQLException {
+            this.raw = raw;
+            this.readOnly = raw.isReadOnly();
+            this.isolation = raw.getTransactionIsolation();
+            this.catalog = raw.getCatalog();
+        }
+
+        void restoreSession() throws SQLException {
+            if (raw.isReadOnly() != readOnly) raw.setReadOnly(readOnly);
+            if (raw.getTransactionIsolation() != isolation) raw.setTransactionIsolation(isolation);
+            if (catalog != null && !catalog.equals(raw.getCatalog())) raw.setCatalog(catalog);
+            sessionChanged = false;
+        }
+
+        /** A fresh handle per checkout, so a stale handle cannot touch the next borrower's session. */
+        Connection checkout() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, new Handle(this));
+        }
+
+        PreparedStatement prepare(Connection handle, String sql, int autoGeneratedKeys) throws SQLException {
+            StatementKey key = new StatementKey(sql, autoGeneratedKeys);
+            CachedStatement cs = statements.remove(key);
+            if (cs != null) {
+                statementHits.increment();
+            } else {
+                statementMisses.increment();
+                cs = new CachedStatement(autoGeneratedKeys == NO_KEYS ? raw.prepareStatement(sql) : raw.prepareStatement(sql, autoGeneratedKeys));
+            }
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, new StatementHandle(this, handle, key, cs));
+        }
+
+        /**
+         * Back into the cache, unless the connection is going away or the same SQL is already cached.
+         * limitsChanged: the borrower set the fetch size, max rows or query timeout.
+         */
+        void recycle(StatementKey key, CachedStatement cs, boolean limitsChanged) {
+            if (broken || closed || statements.containsKey(key)) {
+                closeQuietly(cs.ps);
+                return;
+            }
+            try {
+                cs.ps.clearParameters();
+                cs.ps.clearBatch();
+                if (limitsChanged) cs.resetLimits();
+            } catch (SQLException ex) {
+                closeQuietly(cs.ps);
+                return;
+            }
+            statements.put(key, cs);
+        }
+    }
+
+    private static final int NO_KEYS = -1;
+
+    private static final class StatementKey {
+        final String sql;
+        final int autoGeneratedKeys;
+
+        StatementKey(String sql, int autoGeneratedKeys) {
+            this.sql = sql;
+            this.autoGeneratedKeys = autoGeneratedKeys;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof StatementKey)) return false;
+            StatementKey k = (StatementKey) o;
+            return autoGeneratedKeys == k.autoGeneratedKeys && sql.equals(k.sql);
+        }
+
+        @Override
+        public int hashCode() { return sql.hashCode() * 31 + autoGeneratedKeys; }
+    }
+
+    /** A physical statement with the limits it was prepared with. */
+    private static final class CachedStatement {
+        final PreparedStatement ps;
+        final int fetchSize;
+        final int maxRows;
+        final int queryTimeout;
+
+        CachedStatement(PreparedStatement ps) throws SQLException {
+            this.ps = ps;
+            this.fetchSize = ps.getFetchSize();
+            this.maxRows = ps.getMaxRows();
+            this.queryTimeout = ps.getQueryTimeout();
+        }
+
+        void resetLimits() throws SQLException {
+            ps.setMaxRows(maxRows); // first: drivers may reject a fetch size above the current max rows
+            ps.setFetchSize(fetchSize);
+            ps.setQueryTimeout(queryTimeout);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement ps) {
+        try { ps.close(); } catch (SQLException ignored) {}
+    }
+
+    /** Marks the connection broken when the driver reports a connection-level failure (SQLState 08xxx). */
+    private static Throwable unwrap(PooledConnection pc, InvocationTargetException ex) {
+        Throwable cause = ex.getCause();
+        if (cause instanceof SQLException) {
+            String state = ((SQLException) cause).getSQLState();
+            if (state != null && state.startsWith("08")) pc.broken = true;
+        }
+        return cause;
+    }
+
+    private final class Handle implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean released;
+
+        Handle(PooledConnection pc) { this.pc = pc; }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!released) {
+                        released = true;
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return released || pc.raw.isClosed();
+                case "toString":
+                    return "Pooled[" + pc.raw + "]";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "setReadOnly":
+                case "setTransactionIsolation":
+                case "setCatalog":
+                    if (!released) pc.sessionChanged = true;
+                    break;
+                default:
+                    break;
+            }
+            if (released) throw new SQLException("Connection is closed.", "08003");
+            if (statementCacheSize > 0 && "prepareStatement".equals(method.getName())
+                    && (args.length == 1 || (args.length == 2 && args[1] instanceof Integer))) {
+                try {
+                    return pc.prepare((Connection) proxy, (String) args[0], args.length == 1 ? NO_KEYS : (Integer) args[1]);
+                } catch (SQLException ex) {
+                    String state = ex.getSQLState();
+                    if (state != null && state.startsWith("08")) pc.broken = true;
+                    throw ex;
+                }
+            }
+            try {
+                return method.invoke(pc.raw, args);
+            } catch (InvocationTargetException ex) {
+                throw unwrap(pc, ex);
+            }
+        }
+    }
+
+    /** A cached statement as seen by one caller: close() hands it back to the connection's cache. */
+    private static final class StatementHandle implements InvocationHandler {
+        private final PooledConnection pc;
+        private final Connection connection;
+        private final StatementKey key;
+        private final CachedStatement cs;
+        private final PreparedStatement ps;
+        private boolean closed;
+        private boolean limitsChanged;
+
+        StatementHandle(PooledConnection pc, Connection connection, StatementKey key, CachedStatement cs) {
+            this.pc = pc;
+            this.connection = connection;
+            this.key = key;
+            this.cs = cs;
+            this.ps = cs.ps;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        // closed after its connection: the physical connection may belong to someone else now
+                        if (connection.isClosed()) closeQuietly(ps);
+                        else pc.recycle(key, cs, limitsChanged);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || ps.isClosed();
+                case "getConnection":
+                    return connection;
+                case "toString":
+                    return "Cached[" + ps + "]";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "setFetchSize":
+                case "setMaxRows":
+                case "setLargeMaxRows":
+                case "setQueryTimeout":
+                    limitsChanged = true;
+                    break;
+                default:
+                    break;
+            }
+            if (closed) throw new SQLException("Statement is closed.");
+            try {
+                return method.invoke(ps, args);
+            } catch (InvocationTargetException ex) {
+                throw unwrap(pc, ex);
+            }
+        }
+    }
+
+    /** Point-in-time pool counters; wait times are in microseconds. */
+    public static class Stats {
+        private final int active;
+        private final int idle;
+        private final int waiting;
+        private final int maxSize;
+        private final long acquired;
+        private final long avgWaitMicros;
+        private final long maxWaitMicros;
+        private final long timeouts;
+        private final long created;
+        private final long evicted;
+        private final long leaks;
+        private final long statementHits;
+        private final long statementMisses;
+
+        Stats(int active, int idle, int waiting, int maxSize, long acquired, long avgWaitMicros,
+              long maxWaitMicros, long timeouts, long created, long evicted, long leaks,
+              long statementHits, long statementMisses) {
+            this.active = active;
+            this.idle = idle;
+            this.waiting = waiting;
+            this.maxSize = maxSize;
+            this.acquired = acquired;
+            this.avgWaitMicros = avgWaitMicros;
+            this.maxWaitMicros = maxWaitMicros;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.evicted = evicted;
+            this.leaks = leaks;
+            this.statementHits = statementHits;
+            this.statementMisses = statementMisses;
+        }
+
+        public int getActive() { return active; }
+        public int getIdle() { return idle; }
+        public int getWaiting() { return waiting; }
+        public int getMaxSize() { return maxSize; }
+        public long getAcquired() { return acquired; }
+        public long getAvgWaitMicros() { return avgWaitMicros; }
+        public long getMaxWaitMicros() { return maxWaitMicros; }
+        public long getTimeouts() { return timeouts; }
+        public long getCreated() { return created; }
+        public long getEvicted() { return evicted; }
+        public long getLeaks() { return leaks; }
+        /** prepareStatement calls served from a connection's statement cache. */
+        public long getStatementHits() { return statementHits; }
+        public long getStatementMisses() { return statementMisses; }
+
+        @Override
+        public String toString() {
+            return "active=" + active + " idle=" + idle + " waiting=" + waiting + " max=" + maxSize
+                    + " acquired=" + acquired + " avgWait=" + avgWaitMicros + "us maxWait=" + maxWaitMicros + "us"
+                    + " timeouts=" + timeouts + " created=" + created + " evicted=" + evicted + " leaks=" + leaks
+                    + " statementHits=" + statementHits + " statementMisses=" + statementMisses;
+        }
+    }
+}
@@ -1,27 +1,143 @@
-package controller;
-
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
-
-/**
- * Central DB connection for the app.
- * Update URL, USER, PASS as required for your environment.
- */
-public class DBConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/restaurant_db";
-    private static final String USER = "javadb"; // update if needed
-    private static final String PASS = "1234";             // update if needed
-
-    static {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver"); // MySQL Connector/J
-        } catch (ClassNotFoundException ex) {
-            ex.printStackTrace();
-        }
-    }
-
-    public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USER, PASS);
-    }
-}
+package controller;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Central DB connection for the app.
+ * Connections come from a shared pool configured through restaurant.properties / -D overrides:
+ * db.url, db.user, db.password, db.driver and db.pool.* (see README).
+ * The primary is this branch's database (see ShardRouter); getConnection(branchId) reaches the
+ * other branches. With db.replica.urls set, getReadConnection() serves reads that tolerate a few seconds of
+ * staleness from read replicas (see ReplicaRouter); everything else uses the primary.
+ */
+public class DBConnection {
+    private static final Logger LOG = Logger.getLogger(DBConnection.class.getName());
+    // this branch's own node (db.branch.ID.*) if configured, else db.url
+    private static final String BRANCH = "db.branch." + ShardRouter.BRANCH_ID + ".";
+    private static final String URL = AppConfig.get(BRANCH + "url", AppConfig.get("db.url", "jdbc:mysql://localhost:3306/restaurant_db"));
+    private static final String USER = AppConfig.get(BRANCH + "user", AppConfig.get("db.user", "javadb"));
+    private static final String PASS = AppConfig.get(BRANCH + "password", AppConfig.get("db.password", "1234"));
+
+    static {
+        try {
+            Class.forName(AppConfig.get("db.driver", "com.mysql.cj.jdbc.Driver")); // MySQL Connector/J
+        } catch (ClassNotFoundException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static final ConnectionPool POOL = new ConnectionPool(URL, USER, PASS,
+            AppConfig.getInt("db.pool.maxSize", 10),
+            AppConfig.getInt("db.pool.minIdle", 2),
+            AppConfig.getLong("db.pool.acquireTimeoutMs", 5000),
+            AppConfig.getLong("db.pool.idleTimeoutMs", 600_000),
+            AppConfig.getLong("db.pool.validateAfterMs", 30_000),
+            AppConfig.getInt("db.pool.validationTimeoutSec", 2),
+            AppConfig.getLong("db.pool.leakThresholdMs", 60_000),
+            AppConfig.getBoolean("db.pool.leakTrace", false),
+            AppConfig.getInt("db.pool.statementCacheSize", 64));
+
+    private static final ReplicaRouter REPLICAS = replicas();
+
+    // run by the shutdown hook, in order, while the pools are still open
+    private static final List<Runnable> BEFORE_CLOSE = new CopyOnWriteArrayList<>();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (Runnable task : BEFORE_CLOSE) {
+                try {
+                    task.run();
+                } catch (RuntimeException ex) {
+                    LOG.log(Level.WARNING, "Shutdown task failed", ex);
+                }
+            }
+            if (REPLICAS != null) REPLICAS.close();
+            POOL.close();
+        }, "db-pool-shutdown"));
+    }
+
+    /**
+     * Registers work that still needs the database at shutdown (e.g. writing buffered rows); it runs
+     * on the pool's shutdown hook before the pools are closed.
+     */
+    public static void beforeClose(Runnable task) {
+        BEFORE_CLOSE.add(task);
+    }
+
+    private static ReplicaRouter replicas() {
+        String urls = AppConfig.get("db.replica.urls", "").trim();
+        if (urls.isEmpty()) return null;
+        List<ConnectionPool> pools = new ArrayList<>();
+        for (String url : urls.split(",")) {
+            if (url.trim().isEmpty()) continue;
+            pools.add(new ConnectionPool(url.trim(), AppConfig.get("db.replica.user", USER), AppConfig.get("db.replica.password", PASS),
+                    AppConfig.getInt("db.replica.pool.maxSize", AppConfig.getInt("db.pool.maxSize", 10)),
+                    AppConfig.getInt("db.pool.minIdle", 2),
+                    AppConfig.getLong("db.replica.acquireTimeoutMs", 1000),
+                    AppConfig.getLong("db.pool.idleTimeoutMs", 600_000),
+                    AppConfig.getLong("db.pool.validateAfterMs", 30_000),
+                    AppConfig.getInt("db.pool.validationTimeoutSec", 2),
+                    AppConfig.getLong("db.pool.leakThresholdMs", 60_000),
+                    AppConfig.getBoolean("db.pool.leakTrace", false),
+                    AppConfig.getInt("db.pool.statementCacheSize", 64)));
+        }
+        return pools.isEmpty() ? null : new ReplicaRouter(pools,
+                AppConfig.getLong("db.replica.maxLagMs", 2000),
+                AppConfig.getLong("db.replica.checkMs", 1000),
+                AppConfig.get("db.replica.lagQuery", "SHOW REPLICA STATUS"));
+    }
+
+    /** Checkout time (including waits for a free connection) is recorded as "db.acquire". */
+    public static Connection getConnection() throws SQLException {
+        return Metrics.shared().time("db.acquire", POOL::getConnection);
+    }
+
+    /** A connection to another branch's database (or this one's), for head-office queries. */
+    public static Connection getConnection(String branchId) throws SQLException {
+        return ShardRouter.shared().getConnection(branchId);
+    }
+
+    /**
+     * A connection for reads that may be up to db.replica.maxLagMs (plus one health check) behind
+     * the primary: browsing, order history and reports. Falls back to the primary when no replica
+     * is configured or usable. Recorded as "db.acquireRead".
+     */
+    public static Connection getReadConnection() throws SQLException {
+        if (REPLICAS == null) return getConnection();
+        Connection c = Metrics.shared().time("db.acquireRead", REPLICAS::getConnection);
+        return c != null ? c : getConnection();
+    }
+
+    /** Whether reads can be served by a replica at all. */
+    public static boolean hasReplicas() {
+        return REPLICAS != null;
+    }
+
+    /**
+     * Sends all reads to the primary for a replication-lag window, after a local write that the
+     * next reads must see (e.g. a catalog import). Writes themselves always use the primary.
+     */
+    public static void pinPrimary() {
+        if (REPLICAS != null) REPLICAS.pin();
+    }
+
+    /** The replica router, or null when no replicas are configured. */
+    public static ReplicaRouter getReplicas() {
+        return REPLICAS;
+    }
+
+    public static DataSource getDataSource() {
+        return POOL;
+    }
+
+    public static ConnectionPool.Stats getPoolStats() {
+        return POOL.getStats();
+    }
+}
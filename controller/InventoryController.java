@@ -1,39 +1,68 @@
-package controller;
-
-import model.MenuItem;
-
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
-import java.util.List;
-
-public class InventoryController {
-    private final MenuController menuController = new MenuController();
-
-    public List<MenuItem> getInventory() {
-        return menuController.getAllMenu();
-    }
-
-    public boolean restock(int itemId, int addQty) {
-        MenuItem m = menuController.findById(itemId);
-        if (m == null) return false;
-        int prev = m.getAvailableQty();
-        int newQty = prev + addQty;
-
-        
-        boolean ok = menuController.updateStock(itemId, newQty);
-        if (!ok) return false;
-
-       
-        String sql = "INSERT INTO inventory_logs (item_id, previous_qty, new_qty) VALUES (?, ?, ?)";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setInt(1, itemId);
-            ps.setInt(2, prev);
-            ps.setInt(3, newQty);
-            ps.executeUpdate();
-        } catch (SQLException ex) { ex.printStackTrace(); }
-
-        return true;
-    }
-}
+package controller;
+
+import model.MenuItem;
+import repository.MenuRepository;
+
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class InventoryController {
+    private final MenuController menuController = new MenuController();
+    private final Metrics metrics = Metrics.shared();
+
+    public List<MenuItem> getInventory() {
+        return metrics.time("InventoryController.getInventory", menuController::getAllMenu);
+    }
+
+    public boolean restock(int itemId, int addQty) {
+        return metrics.time("InventoryController.restock", () -> !restockAll(Collections.singletonMap(itemId, addQty)).isEmpty());
+    }
+
+    /**
+     * Adds stock for many items (item id -> qty to add) in one transaction, as relative increments
+     * so concurrent restocks cannot overwrite each other. The inventory_logs rows are written
+     * asynchronously by InventoryLogWriter.
+     * Returns the new stock per restocked item; unknown ids are skipped, and the map is empty if
+     * the transaction failed. Throws IllegalArgumentException if any quantity is not positive:
+     * taking stock away is a stock correction (MenuController.updateStock), not a restock.
+     */
+    public Map<Integer, Integer> restockAll(Map<Integer, Integer> additions) {
+        for (Map.Entry<Integer, Integer> e : additions.entrySet()) {
+            if (e.getValue() == null || e.getValue() <= 0) {
+                throw new IllegalArgumentException("Restock quantity must be > 0 (item " + e.getKey() + ").");
+            }
+        }
+        Map<Integer, Integer> updated = new LinkedHashMap<>();
+        if (additions.isEmpty()) return updated;
+
+        Map<Integer, Integer> previous;
+        long t0 = System.nanoTime();
+        try {
+            previous = MenuRepository.addStock(additions);
+            for (Map.Entry<Integer, Integer> e : additions.entrySet()) {
+                Integer before = previous.get(e.getKey());
+                if (before != null) updated.put(e.getKey(), before + e.getValue());
+            }
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            metrics.error("InventoryController.restockAll");
+            return new LinkedHashMap<>();
+        } finally {
+            metrics.histogram("InventoryController.restockAll").record(System.nanoTime() - t0);
+        }
+
+        InventoryLogWriter log = InventoryLogWriter.shared();
+        for (Map.Entry<Integer, Integer> e : updated.entrySet()) {
+            int itemId = e.getKey();
+            StockLedger.shared().reconcile(itemId, e.getValue());
+            MenuCatalogCache.shared().invalidateStock(itemId);
+            log.append(itemId, previous.get(itemId), e.getValue());
+        }
+        if (!updated.isEmpty()) ChangeEvents.shared().emit(new ChangeEvents.StockChanged(new HashMap<>(updated)));
+        return updated;
+    }
+}
@@ -0,0 +1,146 @@
+package controller;
+
+import repository.InventoryLogRepository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Append-only, buffered writer for inventory_logs.
+ * Stock changes are queued and a background thread inserts them in JDBC batches of up to
+ * inventory.log.batchSize rows, at least every inventory.log.flushMs. Failed batches are retried.
+ * close() stops the thread and writes its in-flight batch and the rest of the queue; the shared
+ * writer is closed by DBConnection's shutdown hook, before the pool goes away.
+ */
+public class InventoryLogWriter {
+    private static final Logger LOG = Logger.getLogger(InventoryLogWriter.class.getName());
+
+    private static final InventoryLogWriter SHARED = new InventoryLogWriter(
+            AppConfig.getInt("inventory.log.batchSize", 500),
+            AppConfig.getLong("inventory.log.flushMs", 1000),
+            AppConfig.getInt("inventory.log.capacity", 100_000));
+
+    static {
+        DBConnection.beforeClose(SHARED::close);
+    }
+
+    public static InventoryLogWriter shared() { return SHARED; }
+
+    private final BlockingQueue<int[]> queue;
+    private final int batchSize;
+    private final long flushMs;
+    private final Object writeLock = new Object();
+    private final Thread writer;
+    // the batch the writer thread is working on; read by close() only after the thread has ended
+    private final List<int[]> inFlight;
+    private volatile boolean stopping;
+
+    public InventoryLogWriter(int batchSize, long flushMs, int capacity) {
+        this.queue = new LinkedBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushMs = flushMs;
+        this.inFlight = new ArrayList<>(this.batchSize);
+        writer = new Thread(this::run, "inventory-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Queues one log row; blocks only if the buffer is full (the database has been down for a while). */
+    public void append(int itemId, int previousQty, int newQty) {
+        try {
+            queue.put(new int[]{itemId, previousQty, newQty});
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getPending() { return queue.size(); }
+
+    /** Writes everything queued so far on the calling thread. */
+    public void flush() {
+        List<int[]> batch = new ArrayList<>();
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                write(batch);
+            } catch (SQLException ex) {
+                LOG.log(Level.WARNING, "Could not write " + (batch.size() + queue.size()) + " inventory log rows", ex);
+                return;
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Stops the writer thread, then writes its in-flight batch and everything still queued on the
+     * calling thread. Rows appended after close() stay queued until the next flush().
+     */
+    public void close() {
+        stopping = true;
+        // the thread only writes while holding writeLock and checks stopping first, so this never
+        // interrupts a write in progress
+        synchronized (writeLock) {
+            writer.interrupt();
+        }
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        if (writer.isAlive()) {
+            LOG.warning("Inventory log writer did not stop; its in-flight batch is not written");
+        } else if (!inFlight.isEmpty()) {
+            try {
+                write(inFlight);
+                inFlight.clear();
+            } catch (SQLException ex) {
+                LOG.log(Level.WARNING, "Could not write " + (inFlight.size() + queue.size()) + " inventory log rows", ex);
+                return;
+            }
+        }
+        flush();
+    }
+
+    private void run() {
+        List<int[]> batch = inFlight;
+        long backoff = flushMs;
+        while (!stopping) {
+            try {
+                if (batch.isEmpty()) {
+                    int[] first = queue.poll(flushMs, TimeUnit.MILLISECONDS);
+                    if (first == null) continue;
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                }
+                synchronized (writeLock) {
+                    if (stopping) return; // close() writes the batch
+                    InventoryLogRepository.insertAll(batch);
+                }
+                batch.clear();
+                backoff = flushMs;
+            } catch (InterruptedException ex) {
+                return;
+            } catch (SQLException ex) {
+                // keep the batch and retry; rows are never dropped
+                LOG.log(Level.WARNING, "Inventory log batch failed; retrying in " + backoff + "ms", ex);
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, 30_000);
+            }
+        }
+    }
+
+    private void write(List<int[]> batch) throws SQLException {
+        synchronized (writeLock) {
+            InventoryLogRepository.insertAll(batch);
+        }
+    }
+}
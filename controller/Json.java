@@ -0,0 +1,120 @@
+package controller;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Just enough JSON for the API and JSON-lines import/export: string escaping and a parser for
+ * flat objects ({"itemId": 3, "qty": 2}). Nested values are not supported.
+ */
+public final class Json {
+    private Json() {}
+
+    public static String quote(String s) {
+        if (s == null) return "null";
+        StringBuilder sb = new StringBuilder(s.length() + 2);
+        appendQuoted(sb, s);
+        return sb.toString();
+    }
+
+    public static void appendQuoted(StringBuilder sb, String s) {
+        if (s == null) { sb.append("null"); return; }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char ch = s.charAt(i);
+            switch (ch) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\r': sb.append("\\r"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (ch < 0x20) sb.append(String.format("\\u%04x", (int) ch));
+                    else sb.append(ch);
+            }
+        }
+        sb.append('"');
+    }
+
+    /** Parses a flat JSON object; values are returned as their raw text (strings unquoted). */
+    public static Map<String, String> parseObject(String body) {
+        Map<String, String> out = new LinkedHashMap<>();
+        if (body == null || body.trim().isEmpty()) return out;
+        Parser p = new Parser(body);
+        p.skipWs();
+        p.expect('{');
+        p.skipWs();
+        if (p.peek() == '}') return out;
+        while (true) {
+            p.skipWs();
+            String key = p.string();
+            p.skipWs();
+            p.expect(':');
+            p.skipWs();
+            String value = p.peek() == '"' ? p.string() : p.literal();
+            out.put(key, value);
+            p.skipWs();
+            char c = p.next();
+            if (c == '}') return out;
+            if (c != ',') throw new IllegalArgumentException("Expected ',' or '}' at " + (p.pos - 1));
+        }
+    }
+
+    private static final class Parser {
+        private final String s;
+        private int pos;
+
+        Parser(String s) { this.s = s; }
+
+        char peek() {
+            if (pos >= s.length()) throw new IllegalArgumentException("Unexpected end of JSON");
+            return s.charAt(pos);
+        }
+
+        char next() {
+            char c = peek();
+            pos++;
+            return c;
+        }
+
+        void expect(char c) {
+            if (next() != c) throw new IllegalArgumentException("Expected '" + c + "' at " + (pos - 1));
+        }
+
+        void skipWs() {
+            while (pos < s.length() && Character.isWhitespace(s.charAt(pos))) pos++;
+        }
+
+        String string() {
+            expect('"');
+            StringBuilder sb = new StringBuilder();
+            while (true) {
+                char c = next();
+                if (c == '"') return sb.toString();
+                if (c != '\\') { sb.append(c); continue; }
+                char e = next();
+                switch (e) {
+                    case 'n': sb.append('\n'); break;
+                    case 'r': sb.append('\r'); break;
+                    case 't': sb.append('\t'); break;
+                    case 'b': sb.append('\b'); break;
+                    case 'f': sb.append('\f'); break;
+                    case 'u':
+                        if (pos + 4 > s.length()) throw new IllegalArgumentException("Bad unicode escape");
+                        sb.append((char) Integer.parseInt(s.substring(pos, pos + 4), 16));
+                        pos += 4;
+                        break;
+                    default: sb.append(e);
+                }
+            }
+        }
+
+        String literal() {
+            int start = pos;
+            while (pos < s.length() && ",}] \t\r\n".indexOf(s.charAt(pos)) < 0) pos++;
+            if (start == pos) throw new IllegalArgumentException("Expected a value at " + pos);
+            String v = s.substring(start, pos);
+            return "null".equals(v) ? null : v;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package controller;
+
+import model.Order;
+import model.OrderItem;
+
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Kitchen stations fed from the TicketBus, each receiving only the lines of its categories.
+ * Stations come from kitchen.stations, e.g. "Tandoor=Starters,Breads;Bar=Beverages"; lines of any
+ * other category go to kitchen.defaultStation. Each station keeps its open tickets (at most
+ * kitchen.maxOpenTickets, oldest dropped first) until they are marked done.
+ */
+public class KitchenStations {
+    private static final KitchenStations SHARED = new KitchenStations(
+            TicketBus.shared(),
+            AppConfig.get("kitchen.stations", ""),
+            AppConfig.get("kitchen.defaultStation", "Kitchen"),
+            AppConfig.getInt("kitchen.maxOpenTickets", 500));
+
+    public static KitchenStations shared() { return SHARED; }
+
+    private final Map<String, String> stationByCategory = new HashMap<>();
+    private final String defaultStation;
+    private final int maxOpen;
+    private final Map<String, Deque<Order>> open = new LinkedHashMap<>();
+
+    public KitchenStations(TicketBus bus, String stations, String defaultStation, int maxOpen) {
+        this.defaultStation = defaultStation;
+        this.maxOpen = maxOpen;
+        for (String spec : stations.split(";")) {
+            int eq = spec.indexOf('=');
+            if (eq <= 0) continue;
+            String station = spec.substring(0, eq).trim();
+            open.put(station, new ArrayDeque<>());
+            for (String category : spec.substring(eq + 1).split(",")) {
+                if (!category.trim().isEmpty()) stationByCategory.put(category.trim(), station);
+            }
+        }
+        open.put(defaultStation, new ArrayDeque<>());
+        for (String station : open.keySet()) {
+            bus.subscribe(station, (order, seq) -> receive(station, order));
+        }
+    }
+
+    public List<String> getStations() {
+        return new ArrayList<>(open.keySet());
+    }
+
+    /** Open tickets of a station, oldest first; null for an unknown station. */
+    public List<Order> getOpenTickets(String station) {
+        Deque<Order> q = open.get(station);
+        if (q == null) return null;
+        synchronized (q) {
+            return new ArrayList<>(q);
+        }
+    }
+
+    /** Marks a station's ticket done; false if it was not open. */
+    public boolean done(String station, int orderId) {
+        Deque<Order> q = open.get(station);
+        if (q == null) return false;
+        synchronized (q) {
+            for (Iterator<Order> it = q.iterator(); it.hasNext(); ) {
+                if (it.next().getOrderId() == orderId) {
+                    it.remove();
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public String stationFor(String category) {
+        return category == null ? defaultStation : stationByCategory.getOrDefault(category, defaultStation);
+    }
+
+    private void receive(String station, Order order) {
+        Order ticket = null;
+        for (OrderItem oi : order.getItems()) {
+            if (!station.equals(stationFor(oi.getCategoryName()))) continue;
+            if (ticket == null) {
+                ticket = new Order();
+                ticket.setOrderId(order.getOrderId());
+                ticket.setOrderTime(order.getOrderTime());
+            }
+            ticket.getItems().add(oi);
+        }
+        if (ticket == null) return;
+        Deque<Order> q = open.get(station);
+        synchronized (q) {
+            if (q.size() >= maxOpen) q.pollFirst();
+            q.addLast(ticket);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package controller;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear latency histogram (16 sub-buckets per power of two, ~6% precision) that any number
+ * of threads can record into. Recording is one atomic bucket increment plus counters, with no
+ * allocation and no locks; percentiles are computed on read.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(index(nanos));
+        total.increment();
+        totalNanos.add(nanos);
+        long m;
+        while (nanos > (m = max.get()) && !max.compareAndSet(m, nanos)) {
+            // retry
+        }
+    }
+
+    /** Records a failed call; its latency is recorded separately with record(). */
+    public void recordError() {
+        errors.increment();
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long c = other.counts.get(i);
+            if (c != 0) counts.addAndGet(i, c);
+        }
+        total.add(other.total.sum());
+        totalNanos.add(other.totalNanos.sum());
+        errors.add(other.errors.sum());
+        long m = other.max.get();
+        max.accumulateAndGet(m, Math::max);
+    }
+
+    public long getCount() { return total.sum(); }
+
+    public long getErrors() { return errors.sum(); }
+
+    public long getMax() { return max.get(); }
+
+    public long getMean() {
+        long n = total.sum();
+        return n == 0 ? 0 : totalNanos.sum() / n;
+    }
+
+    /** Value at the given percentile (0-100), in nanoseconds. */
+    public long percentile(double p) {
+        long n = total.sum();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(n * p / 100.0));
+        long seen = 0;
+        long m = max.get();
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) return Math.min(valueAt(i), m);
+        }
+        return m;
+    }
+
+    private static int index(long v) {
+        int msb = 63 - Long.numberOfLeadingZeros(v | 1);
+        if (msb < SUB_BITS) return (int) v;
+        return msb * SUB + (int) ((v >>> (msb - SUB_BITS)) & (SUB - 1));
+    }
+
+    /** Upper bound of the bucket. */
+    private static long valueAt(int index) {
+        int msb = index / SUB;
+        if (msb < SUB_BITS) return index;
+        long sub = index & (SUB - 1);
+        return ((SUB | sub) + 1) << (msb - SUB_BITS);
+    }
+}
@@ -0,0 +1,392 @@
+package controller;
+
+import model.MenuItem;
+import model.MenuSnapshot;
+import repository.MenuRepository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shared read-through cache for the menu catalog.
+ * Item details (name, price, category) and the per-category listings are kept for
+ * menu.cache.ttlMs; stock counts live in a separate, shorter-lived layer (menu.cache.stockTtlMs)
+ * that is refreshed for the whole menu with one query. Callers always receive copies.
+ * The cache also owns the MenuSearchIndex, which it brings up to date from the catalog on the
+ * first search after an invalidation or once menu.cache.ttlMs has passed.
+ * When the catalog is loaded from a read replica (catalogStock false), the stock in the loaded
+ * rows may be stale and is ignored; stock then only comes from the stock loader.
+ * Every catalog load is stamped with the generation that invalidateItem and invalidateAll bump;
+ * a load that an invalidation overtook is returned to its caller but not cached, so it cannot
+ * outlive a price or menu change.
+ * When the reload of an expired entry fails, the expired entry is served instead (stale on error)
+ * and the reload is retried after menu.cache.retryMs, so a database outage does not empty the menu
+ * for tills that can still take orders through the order journal. Invalidated entries are never
+ * served stale.
+ */
+public class MenuCatalogCache {
+
+    /** Loads data from the database on a cache miss. */
+    public interface Loader<T> {
+        T load() throws SQLException;
+    }
+
+    private static final Logger LOG = Logger.getLogger(MenuCatalogCache.class.getName());
+
+    private static final MenuCatalogCache SHARED = new MenuCatalogCache(
+            AppConfig.getLong("menu.cache.ttlMs", 300_000),
+            AppConfig.getLong("menu.cache.stockTtlMs", 5_000),
+            AppConfig.getLong("menu.cache.retryMs", 5_000),
+            AppConfig.getInt("menu.cache.maxItems", 5_000),
+            MenuRepository::findStock,
+            !DBConnection.hasReplicas());
+
+    public static MenuCatalogCache shared() { return SHARED; }
+
+    private final long ttlMs;
+    private final long stockTtlMs;
+    private final long retryMs;
+    private final int maxItems;
+    private final Loader<Map<Integer, Integer>> stockLoader;
+    private final boolean catalogStock;
+
+    private final Map<Integer, Timed<MenuItem>> items;
+    private final Map<String, Timed<List<Integer>>> byCategory = new ConcurrentHashMap<>();
+    private volatile Timed<List<Integer>> all;
+    private volatile Timed<List<String>> categories;
+    private volatile Timed<MenuSnapshot> snapshot;
+    private final MenuSearchIndex searchIndex = new MenuSearchIndex();
+    private volatile long searchSyncedAt; // 0 = stale
+    private final Object searchLock = new Object();
+    private final Map<Integer, Timed<Integer>> stock = new ConcurrentHashMap<>();
+    private final Object stockLock = new Object();
+    private final Object catalogLock = new Object();
+    private volatile long generation; // written under catalogLock
+
+    public MenuCatalogCache(long ttlMs, long stockTtlMs, long retryMs, int maxItems, Loader<Map<Integer, Integer>> stockLoader, boolean catalogStock) {
+        this.ttlMs = ttlMs;
+        this.stockTtlMs = stockTtlMs;
+        this.retryMs = retryMs;
+        this.maxItems = maxItems;
+        this.stockLoader = stockLoader;
+        this.catalogStock = catalogStock;
+        this.items = Collections.synchronizedMap(new LinkedHashMap<Integer, Timed<MenuItem>>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Timed<MenuItem>> eldest) {
+                return size() > MenuCatalogCache.this.maxItems;
+            }
+        });
+    }
+
+    public List<String> getCategories(Loader<List<String>> loader) throws SQLException {
+        Timed<List<String>> c = categories;
+        if (c == null || c.expired(ttlMs)) {
+            long gen = generation;
+            Timed<List<String>> stale = c;
+            try {
+                c = new Timed<>(Collections.unmodifiableList(new ArrayList<>(loader.load())));
+            } catch (SQLException ex) {
+                if (stale == null) throw ex;
+                servingStale("categories", ex);
+                c = retryLater(stale, ttlMs);
+            }
+            synchronized (catalogLock) {
+                if (gen == generation) categories = c;
+            }
+        }
+        return new ArrayList<>(c.value);
+    }
+
+    public List<MenuItem> getAll(Loader<List<MenuItem>> loader) throws SQLException {
+        return getAll(loader, true);
+    }
+
+    private List<MenuItem> getAll(Loader<List<MenuItem>> loader, boolean staleOnError) throws SQLException {
+        Timed<List<Integer>> ids = all;
+        List<MenuItem> out = ids == null || ids.expired(ttlMs) ? null : resolve(ids.value);
+        if (out == null) {
+            long gen = generation;
+            List<MenuItem> loaded;
+            try {
+                loaded = loader.load();
+            } catch (SQLException ex) {
+                List<MenuItem> stale = ids == null || !staleOnError ? null : resolveStale(ids.value);
+                if (stale == null) throw ex;
+                servingStale("menu", ex);
+                synchronized (catalogLock) {
+                    if (gen == generation) {
+                        all = retryLater(ids, ttlMs);
+                        retryItemsLater(ids.value);
+                    }
+                }
+                return stale;
+            }
+            synchronized (catalogLock) {
+                if (gen == generation) all = new Timed<>(store(loaded));
+            }
+            out = loaded(loaded);
+        }
+        return out;
+    }
+
+    public List<MenuItem> getByCategory(String category, Loader<List<MenuItem>> loader) throws SQLException {
+        Timed<List<Integer>> ids = byCategory.get(category);
+        List<MenuItem> out = ids == null || ids.expired(ttlMs) ? null : resolve(ids.value);
+        if (out == null) {
+            long gen = generation;
+            List<MenuItem> loaded;
+            try {
+                loaded = loader.load();
+            } catch (SQLException ex) {
+                List<MenuItem> stale = ids == null ? null : resolveStale(ids.value);
+                if (stale == null) throw ex;
+                servingStale("category " + category, ex);
+                synchronized (catalogLock) {
+                    if (gen == generation) {
+                        byCategory.put(category, retryLater(ids, ttlMs));
+                        retryItemsLater(ids.value);
+                    }
+                }
+                return stale;
+            }
+            synchronized (catalogLock) {
+                if (gen == generation) byCategory.put(category, new Timed<>(store(loaded)));
+            }
+            out = loaded(loaded);
+        }
+        return out;
+    }
+
+    public MenuItem findById(int itemId, Loader<MenuItem> loader) throws SQLException {
+        Timed<MenuItem> t = items.get(itemId);
+        if (t != null && !t.expired(ttlMs)) return withStock(t.value);
+        MenuItem loaded = loadItem(itemId, t, loader);
+        if (loaded == null) return null;
+        return catalogStock ? copy(loaded) : withStock(loaded);
+    }
+
+    /** Like findById, but without refreshing the stock layer; availableQty is as of the last catalog load. */
+    public MenuItem findItem(int itemId, Loader<MenuItem> loader) throws SQLException {
+        Timed<MenuItem> t = items.get(itemId);
+        if (t != null && !t.expired(ttlMs)) return copy(t.value);
+        MenuItem loaded = loadItem(itemId, t, loader);
+        return loaded == null ? null : copy(loaded);
+    }
+
+    /** Loads an item, or falls back to its expired entry (which may be null) when the load fails. */
+    private MenuItem loadItem(int itemId, Timed<MenuItem> stale, Loader<MenuItem> loader) throws SQLException {
+        long gen = generation;
+        MenuItem loaded;
+        try {
+            loaded = loader.load();
+        } catch (SQLException ex) {
+            if (stale == null) throw ex;
+            servingStale("item " + itemId, ex);
+            synchronized (catalogLock) {
+                if (gen == generation) items.put(itemId, retryLater(stale, ttlMs));
+            }
+            return stale.value;
+        }
+        if (loaded == null) return null;
+        synchronized (catalogLock) {
+            if (gen == generation) store(Collections.singletonList(loaded));
+        }
+        return loaded;
+    }
+
+    /**
+     * The whole menu as a MenuSnapshot, rebuilt from the catalog once older than menu.cache.ttlMs
+     * or after an item changed. Stock changes alone do not rebuild it, so its stock can lag.
+     */
+    public MenuSnapshot snapshot(Loader<List<MenuItem>> allLoader) throws SQLException {
+        Timed<MenuSnapshot> s = snapshot;
+        if (s == null || s.expired(ttlMs)) {
+            long gen = generation;
+            Timed<MenuSnapshot> stale = s;
+            try {
+                // not from a stale listing, which would then be cached as fresh
+                s = new Timed<>(MenuSnapshot.of(getAll(allLoader, false)));
+            } catch (SQLException ex) {
+                if (stale == null) throw ex;
+                servingStale("menu snapshot", ex);
+                s = retryLater(stale, ttlMs);
+            }
+            synchronized (catalogLock) {
+                if (gen == generation) snapshot = s;
+            }
+        }
+        return s.value;
+    }
+
+    /**
+     * Ids of the items matching a type-ahead query, best first. Before answering, a stale index is
+     * synced against the whole menu, which re-indexes only the items whose text changed.
+     */
+    public List<Integer> search(String query, int limit, Loader<List<MenuItem>> allLoader) throws SQLException {
+        long synced = searchSyncedAt;
+        if (synced == 0 || System.currentTimeMillis() - synced > ttlMs) {
+            synchronized (searchLock) {
+                synced = searchSyncedAt;
+                if (synced == 0 || System.currentTimeMillis() - synced > ttlMs) {
+                    long gen = generation;
+                    try {
+                        searchIndex.sync(getAll(allLoader, false));
+                    } catch (SQLException ex) {
+                        if (synced == 0) throw ex; // never synced, or invalidated
+                        servingStale("search index", ex);
+                        if (gen == generation) searchSyncedAt = System.currentTimeMillis() - ttlMs + Math.min(retryMs, ttlMs);
+                        return searchIndex.search(query, limit);
+                    }
+                    // overtaken by an invalidation: answer from this sync, resync on the next search
+                    if (gen == generation) searchSyncedAt = System.currentTimeMillis();
+                }
+            }
+        }
+        return searchIndex.search(query, limit);
+    }
+
+    /** Drops the cached stock count for an item; the next read refreshes stock. */
+    public void invalidateStock(int itemId) {
+        stock.remove(itemId);
+    }
+
+    /** Drops an item and every listing, e.g. after its name, price or category changed. */
+    public void invalidateItem(int itemId) {
+        synchronized (catalogLock) {
+            generation++;
+            items.remove(itemId);
+            stock.remove(itemId);
+            all = null;
+            snapshot = null;
+            searchSyncedAt = 0;
+            byCategory.clear();
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (catalogLock) {
+            generation++;
+            items.clear();
+            stock.clear();
+            byCategory.clear();
+            all = null;
+            snapshot = null;
+            searchSyncedAt = 0;
+            categories = null;
+        }
+    }
+
+    private List<Integer> store(List<MenuItem> loaded) {
+        List<Integer> ids = new ArrayList<>(loaded.size());
+        for (MenuItem m : loaded) {
+            items.put(m.getItemId(), new Timed<>(copy(m)));
+            if (catalogStock) stock.put(m.getItemId(), new Timed<>(m.getAvailableQty()));
+            ids.add(m.getItemId());
+        }
+        return Collections.unmodifiableList(ids);
+    }
+
+    /** Returns null when any listed item has expired or been evicted, forcing a reload of the listing. */
+    private List<MenuItem> resolve(List<Integer> ids) throws SQLException {
+        List<MenuItem> out = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Timed<MenuItem> t = items.get(id);
+            if (t == null || t.expired(ttlMs)) return null;
+            out.add(withStock(t.value));
+        }
+        return out;
+    }
+
+    /** Like resolve, but ignoring expiry; null only when a listed item has been evicted or invalidated. */
+    private List<MenuItem> resolveStale(List<Integer> ids) throws SQLException {
+        List<MenuItem> out = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            Timed<MenuItem> t = items.get(id);
+            if (t == null) return null;
+            out.add(withStock(t.value));
+        }
+        return out;
+    }
+
+    private MenuItem withStock(MenuItem cached) throws SQLException {
+        MenuItem m = copy(cached);
+        Timed<Integer> s = stock.get(m.getItemId());
+        if (s == null || s.expired(stockTtlMs)) s = refreshStock(m.getItemId());
+        if (s != null) m.setAvailableQty(s.value);
+        return m;
+    }
+
+    private Timed<Integer> refreshStock(int itemId) throws SQLException {
+        synchronized (stockLock) {
+            Timed<Integer> s = stock.get(itemId);
+            if (s != null && !s.expired(stockTtlMs)) return s; // another thread just refreshed
+            Map<Integer, Integer> loaded;
+            try {
+                loaded = stockLoader.load();
+            } catch (SQLException ex) {
+                if (s == null) throw ex;
+                servingStale("stock", ex);
+                // every count expires together, so put them all off rather than failing again per item
+                for (Map.Entry<Integer, Timed<Integer>> e : stock.entrySet()) {
+                    if (e.getValue().expired(stockTtlMs)) e.setValue(retryLater(e.getValue(), stockTtlMs));
+                }
+                return stock.get(itemId);
+            }
+            for (Map.Entry<Integer, Integer> e : loaded.entrySet()) {
+                stock.put(e.getKey(), new Timed<>(e.getValue()));
+            }
+            return stock.get(itemId);
+        }
+    }
+
+    /** Puts off reloading the expired items of a listing that is being served stale; call under catalogLock. */
+    private void retryItemsLater(List<Integer> ids) {
+        for (Integer id : ids) {
+            Timed<MenuItem> t = items.get(id);
+            if (t != null && t.expired(ttlMs)) items.put(id, retryLater(t, ttlMs));
+        }
+    }
+
+    /** The entry again, now due to expire after retryMs instead of a full ttl. */
+    private <T> Timed<T> retryLater(Timed<T> stale, long ttl) {
+        return new Timed<>(stale.value, System.currentTimeMillis() - ttl + Math.min(retryMs, ttl));
+    }
+
+    private static void servingStale(String what, SQLException ex) {
+        LOG.log(Level.WARNING, "Could not reload the " + what + "; serving the cached copy", ex);
+    }
+
+    /** Copies of freshly loaded items, with stock from the stock layer if the rows' own may be stale. */
+    private List<MenuItem> loaded(List<MenuItem> src) throws SQLException {
+        List<MenuItem> out = new ArrayList<>(src.size());
+        for (MenuItem m : src) out.add(catalogStock ? copy(m) : withStock(m));
+        return out;
+    }
+
+    private static MenuItem copy(MenuItem m) {
+        MenuItem c = new MenuItem(m.getItemId(), m.getName(), m.getCategoryId(), m.getPricePaise(), m.getAvailableQty(), m.getDescription());
+        c.setCategoryName(m.getCategoryName());
+        return c;
+    }
+
+    private static final class Timed<T> {
+        final T value;
+        final long loadedAt;
+
+        Timed(T value) { this(value, System.currentTimeMillis()); }
+
+        Timed(T value, long loadedAt) {
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+
+        boolean expired(long ttl) { return System.currentTimeMillis() - loadedAt > ttl; }
+    }
+}
@@ -1,98 +1,100 @@
-package controller;
-
-import model.MenuItem;
-
-import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-
-
-public class MenuController {
-
-    public List<String> getCategories() {
-        List<String> cats = new ArrayList<>();
-        String sql = "SELECT category_name FROM categories ORDER BY category_name";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) cats.add(rs.getString("category_name"));
-        } catch (SQLException ex) { ex.printStackTrace(); }
-        return cats;
-    }
-
-    public List<MenuItem> getMenuByCategory(String categoryName) {
-        List<MenuItem> out = new ArrayList<>();
-        String sql = "SELECT mi.*, c.category_name FROM menu_items mi JOIN categories c ON mi.category_id=c.category_id WHERE c.category_name=? ORDER BY mi.name";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setString(1, categoryName);
-            try (ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    MenuItem m = new MenuItem();
-                    m.setItemId(rs.getInt("item_id"));
-                    m.setName(rs.getString("name"));
-                    m.setCategoryId(rs.getInt("category_id"));
-                    m.setCategoryName(rs.getString("category_name"));
-                    m.setPrice(rs.getDouble("price"));
-                    m.setAvailableQty(rs.getInt("available_qty"));
-                    m.setDescription(rs.getString("description"));
-                    out.add(m);
-                }
-            }
-        } catch (SQLException ex) { ex.printStackTrace(); }
-        return out;
-    }
-
-    public List<MenuItem> getAllMenu() {
-        List<MenuItem> out = new ArrayList<>();
-        String sql = "SELECT mi.*, c.category_name FROM menu_items mi JOIN categories c ON mi.category_id=c.category_id ORDER BY c.category_name, mi.name";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql);
-             ResultSet rs = ps.executeQuery()) {
-            while (rs.next()) {
-                MenuItem m = new MenuItem();
-                m.setItemId(rs.getInt("item_id"));
-                m.setName(rs.getString("name"));
-                m.setCategoryId(rs.getInt("category_id"));
-                m.setCategoryName(rs.getString("category_name"));
-                m.setPrice(rs.getDouble("price"));
-                m.setAvailableQty(rs.getInt("available_qty"));
-                m.setDescription(rs.getString("description"));
-                out.add(m);
-            }
-        } catch (SQLException ex) { ex.printStackTrace(); }
-        return out;
-    }
-
-    public MenuItem findById(int itemId) {
-        String sql = "SELECT mi.*, c.category_name FROM menu_items mi JOIN categories c ON mi.category_id=c.category_id WHERE mi.item_id = ?";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setInt(1, itemId);
-            try (ResultSet rs = ps.executeQuery()) {
-                if (rs.next()) {
-                    MenuItem m = new MenuItem();
-                    m.setItemId(rs.getInt("item_id"));
-                    m.setName(rs.getString("name"));
-                    m.setCategoryId(rs.getInt("category_id"));
-                    m.setCategoryName(rs.getString("category_name"));
-                    m.setPrice(rs.getDouble("price"));
-                    m.setAvailableQty(rs.getInt("available_qty"));
-                    m.setDescription(rs.getString("description"));
-                    return m;
-                }
-            }
-        } catch (SQLException ex) { ex.printStackTrace(); }
-        return null;
-    }
-
-    public boolean updateStock(int itemId, int newQty) {
-        String sql = "UPDATE menu_items SET available_qty = ? WHERE item_id = ?";
-        try (Connection c = DBConnection.getConnection();
-             PreparedStatement ps = c.prepareStatement(sql)) {
-            ps.setInt(1, newQty);
-            ps.setInt(2, itemId);
-            return ps.executeUpdate() == 1;
-        } catch (SQLException ex) { ex.printStackTrace(); return false; }
-    }
-}
+package controller;
+
+import model.MenuItem;
+import model.MenuSnapshot;
+import repository.MenuRepository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Menu reads go through the shared MenuCatalogCache, loaded from MenuRepository.
+ */
+public class MenuController {
+    private final MenuCatalogCache cache;
+    private final Metrics metrics = Metrics.shared();
+
+    public MenuController() {
+        this(MenuCatalogCache.shared());
+    }
+
+    MenuController(MenuCatalogCache cache) {
+        this.cache = cache;
+    }
+
+    public List<String> getCategories() {
+        try {
+            return metrics.time("MenuController.getCategories", () -> cache.getCategories(MenuRepository::findCategoryNames));
+        } catch (SQLException ex) { ex.printStackTrace(); return new ArrayList<>(); }
+    }
+
+    public List<MenuItem> getMenuByCategory(String categoryName) {
+        try {
+            return metrics.time("MenuController.getMenuByCategory", () -> cache.getByCategory(categoryName, () -> MenuRepository.findByCategory(categoryName)));
+        } catch (SQLException ex) { ex.printStackTrace(); return new ArrayList<>(); }
+    }
+
+    public List<MenuItem> getAllMenu() {
+        try {
+            return metrics.time("MenuController.getAllMenu", () -> cache.getAll(MenuRepository::findAll));
+        } catch (SQLException ex) { ex.printStackTrace(); return new ArrayList<>(); }
+    }
+
+    public MenuItem findById(int itemId) {
+        try {
+            return metrics.time("MenuController.findById", () -> cache.findById(itemId, () -> MenuRepository.findById(itemId)));
+        } catch (SQLException ex) { ex.printStackTrace(); return null; }
+    }
+
+    /** Item details for cart entry; stock comes from the StockLedger, so no stock refresh is made. */
+    public MenuItem findCatalogItem(int itemId) {
+        try {
+            return metrics.time("MenuController.findCatalogItem", () -> cache.findItem(itemId, () -> MenuRepository.findById(itemId)));
+        } catch (SQLException ex) { ex.printStackTrace(); return null; }
+    }
+
+    /** The menu as parallel arrays for price and name lookups; null if it cannot be loaded. */
+    public MenuSnapshot getSnapshot() {
+        try {
+            return metrics.time("MenuController.getSnapshot", () -> cache.snapshot(MenuRepository::findAll));
+        } catch (SQLException ex) { ex.printStackTrace(); return null; }
+    }
+
+    /**
+     * Items whose name, category or description match a type-ahead query ("pan" finds the paneer
+     * dishes), best first. Answered from the in-memory MenuSearchIndex, not with LIKE queries.
+     */
+    public List<MenuItem> search(String query, int limit) {
+        try {
+            return metrics.time("MenuController.search", () -> {
+                List<MenuItem> out = new ArrayList<>();
+                for (int id : cache.search(query, limit, MenuRepository::findAll)) {
+                    MenuItem m = cache.findById(id, () -> MenuRepository.findById(id));
+                    if (m != null) out.add(m);
+                }
+                return out;
+            });
+        } catch (SQLException ex) { ex.printStackTrace(); return new ArrayList<>(); }
+    }
+
+    public boolean updateStock(int itemId, int newQty) {
+        long t0 = System.nanoTime();
+        try {
+            boolean ok = MenuRepository.setStock(itemId, newQty);
+            if (ok) {
+                StockLedger.shared().reconcile(itemId, newQty);
+                ChangeEvents.shared().emit(new ChangeEvents.StockChanged(Collections.singletonMap(itemId, newQty)));
+            }
+            return ok;
+        } catch (SQLException ex) {
+            ex.printStackTrace();
+            metrics.error("MenuController.updateStock");
+            return false;
+        } finally {
+            cache.invalidateStock(itemId);
+            metrics.histogram("MenuController.updateStock").record(System.nanoTime() - t0);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package controller;
+
+import model.MenuItem;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory type-ahead search over item names, category names and descriptions.
+ * Words are kept in a character trie for prefix matches ("pan" finds paneer and pani puri) and
+ * in a trigram index that narrows the candidates for typo-tolerant matches ("panir" finds
+ * paneer), which are then confirmed with a bounded edit-distance check.
+ * Items are indexed one at a time, and sync() re-indexes only items whose text changed.
+ * Searches share a read lock; updates take the write lock.
+ */
+public class MenuSearchIndex {
+    // field weights: a hit in the name ranks above one in the category or description
+    private static final int NAME = 4;
+    private static final int CATEGORY = 2;
+    private static final int DESCRIPTION = 1;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node();
+    private final Map<String, Term> terms = new HashMap<>();
+    private final Map<Long, Set<Term>> trigrams = new HashMap<>();
+    private final Map<Integer, Doc> docs = new HashMap<>();
+
+    /** Adds the item, or re-indexes it if its text changed. */
+    public void put(MenuItem m) {
+        lock.writeLock().lock();
+        try {
+            Doc old = docs.get(m.getItemId());
+            if (old != null && old.sameText(m)) return;
+            if (old != null) unindex(old);
+            index(new Doc(m));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int itemId) {
+        lock.writeLock().lock();
+        try {
+            Doc old = docs.get(itemId);
+            if (old != null) unindex(old);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Makes the index match the given menu; returns how many items were added, changed or removed. */
+    public int sync(Collection<MenuItem> menu) {
+        lock.writeLock().lock();
+        try {
+            int changed = 0;
+            Set<Integer> seen = new HashSet<>(menu.size() * 2);
+            for (MenuItem m : menu) {
+                seen.add(m.getItemId());
+                Doc old = docs.get(m.getItemId());
+                if (old != null && old.sameText(m)) continue;
+                if (old != null) unindex(old);
+                index(new Doc(m));
+                changed++;
+            }
+            for (Doc d : new ArrayList<>(docs.values())) {
+                if (!seen.contains(d.itemId)) {
+                    unindex(d);
+                    changed++;
+                }
+            }
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the items matching every word of the query, best first, at most limit.
+     * A word matches exactly, as a prefix, or (when it has no prefix match) within one edit
+     * for words of up to 4 letters and two edits for longer ones.
+     */
+    public List<Integer> search(String query, int limit) {
+        List<String> words = words(query);
+        if (words.isEmpty() || limit <= 0) return new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> scores = null;
+            for (String w : words) {
+                Map<Integer, Integer> hits = match(w);
+                if (scores == null) {
+                    scores = hits;
+                } else {
+                    Map<Integer, Integer> both = new HashMap<>();
+                    for (Map.Entry<Integer, Integer> e : scores.entrySet()) {
+                        Integer s = hits.get(e.getKey());
+                        if (s != null) both.put(e.getKey(), e.getValue() + s);
+                    }
+                    scores = both;
+                }
+                if (scores.isEmpty()) return new ArrayList<>();
+            }
+            List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(scores.entrySet());
+            ranked.sort((a, b) -> {
+                int c = Integer.compare(b.getValue(), a.getValue());
+                return c != 0 ? c : docs.get(a.getKey()).sortName.compareTo(docs.get(b.getKey()).sortName);
+            });
+            List<Integer> out = new ArrayList<>(Math.min(limit, ranked.size()));
+            for (int i = 0; i < ranked.size() && i < limit; i++) out.add(ranked.get(i).getKey());
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Item id -> score for one query word. */
+    private Map<Integer, Integer> match(String w) {
+        Map<Integer, Integer> hits = new HashMap<>();
+        Node n = root;
+        for (int i = 0; i < w.length() && n != null; i++) n = n.child(w.charAt(i));
+        if (n != null) collect(n, w.length(), hits);
+        if (hits.isEmpty() && w.length() >= 3) fuzzy(w, hits);
+        return hits;
+    }
+
+    /** Every word under the node; the exact word scores 6x its field weight, longer words 4x. */
+    private static void collect(Node n, int depth, Map<Integer, Integer> hits) {
+        if (n.term != null) add(hits, n.term, n.term.text.length() == depth ? 6 : 4);
+        for (int i = 0; i < n.size; i++) collect(n.kids[i], depth, hits);
+    }
+
+    private void fuzzy(String w, Map<Integer, Integer> hits) {
+        int maxEdits = w.length() <= 4 ? 1 : 2;
+        // a word within k edits of a prefix shares all but at most 3k of the query's trigrams
+        int need = Math.max(1, w.length() - 3 * maxEdits);
+        Map<Term, Integer> shared = new HashMap<>();
+        String padded = "$$" + w;
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            Set<Term> ts = trigrams.get(gram(padded, i));
+            if (ts == null) continue;
+            for (Term t : ts) shared.merge(t, 1, Integer::sum);
+        }
+        for (Map.Entry<Term, Integer> e : shared.entrySet()) {
+            if (e.getValue() < need) continue;
+            int d = prefixDistance(w, e.getKey().text, maxEdits);
+            if (d <= maxEdits) add(hits, e.getKey(), 3 - d); // 2x for one edit, 1x for two
+        }
+    }
+
+    private static void add(Map<Integer, Integer> hits, Term t, int factor) {
+        for (Map.Entry<Integer, Integer> p : t.postings.entrySet()) {
+            hits.merge(p.getKey(), p.getValue() * factor, Math::max);
+        }
+    }
+
+    /**
+     * Smallest edit distance between q and any prefix of t, or max + 1 once it is certain to
+     * exceed max.
+     */
+    static int prefixDistance(String q, String t, int max) {
+        int m = q.length();
+        int n = Math.min(t.length(), m + max);
+        int[] prev = new int[n + 1];
+        int[] cur = new int[n + 1];
+        for (int j = 0; j <= n; j++) prev[j] = j;
+        for (int i = 1; i <= m; i++) {
+            cur[0] = i;
+            int rowMin = i;
+            char qc = q.charAt(i - 1);
+            for (int j = 1; j <= n; j++) {
+                int d = prev[j - 1] + (qc == t.charAt(j - 1) ? 0 : 1);
+                d = Math.min(d, Math.min(prev[j], cur[j - 1]) + 1);
+                cur[j] = d;
+                if (d < rowMin) rowMin = d;
+            }
+            if (rowMin > max) return max + 1;
+            int[] tmp = prev;
+            prev = cur;
+            cur = tmp;
+        }
+        int best = max + 1;
+        for (int j = 0; j <= n; j++) best = Math.min(best, prev[j]);
+        return best;
+    }
+
+    private void index(Doc d) {
+        docs.put(d.itemId, d);
+        for (Map.Entry<String, Integer> e : d.words.entrySet()) {
+            Term t = terms.get(e.getKey());
+            if (t == null) {
+                t = new Term(e.getKey());
+                terms.put(t.text, t);
+                Node n = root;
+                for (int i = 0; i < t.text.length(); i++) n = n.childOrAdd(t.text.charAt(i));
+                n.term = t;
+                String padded = "$$" + t.text;
+                for (int i = 0; i + 3 <= padded.length(); i++) {
+                    trigrams.computeIfAbsent(gram(padded, i), k -> new HashSet<>()).add(t);
+                }
+            }
+            t.postings.put(d.itemId, e.getValue());
+        }
+    }
+
+    private void unindex(Doc d) {
+        docs.remove(d.itemId);
+        for (String w : d.words.keySet()) {
+            Term t = terms.get(w);
+            if (t == null) continue;
+            t.postings.remove(d.itemId);
+            if (!t.postings.isEmpty()) continue;
+            terms.remove(w);
+            Node n = root;
+            for (int i = 0; i < w.length() && n != null; i++) n = n.child(w.charAt(i));
+            if (n != null) n.term = null;
+            String padded = "$$" + w;
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                Long g = gram(padded, i);
+                Set<Term> ts = trigrams.get(g);
+                if (ts != null && ts.remove(t) && ts.isEmpty()) trigrams.remove(g);
+            }
+        }
+    }
+
+    private static long gram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    /** Lower-case runs of letters and digits. */
+    static List<String> words(String text) {
+        List<String> out = new ArrayList<>();
+        if (text == null) return out;
+        String s = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i <= s.length(); i++) {
+            boolean wordChar = i < s.length() && Character.isLetterOrDigit(s.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                out.add(s.substring(start, i));
+                start = -1;
+            }
+        }
+        return out;
+    }
+
+    private static final class Doc {
+        final int itemId;
+        final String name;
+        final String category;
+        final String description;
+        final String sortName;
+        /** Distinct words -> best field weight. */
+        final Map<String, Integer> words = new HashMap<>();
+
+        Doc(MenuItem m) {
+            itemId = m.getItemId();
+            name = m.getName();
+            category = m.getCategoryName();
+            description = m.getDescription();
+            sortName = name == null ? "" : name.toLowerCase(Locale.ROOT);
+            for (String w : words(description)) words.merge(w, DESCRIPTION, Math::max);
+            for (String w : words(category)) words.merge(w, CATEGORY, Math::max);
+            for (String w : words(name)) words.merge(w, NAME, Math::max);
+        }
+
+        boolean sameText(MenuItem m) {
+            return Objects.equals(name, m.getName()) && Objects.equals(category, m.getCategoryName())
+                    && Objects.equals(description, m.getDescription());
+        }
+    }
+
+    private static final class Term {
+        final String text;
+        /** Item id -> field weight. */
+        final Map<Integer, Integer> postings = new HashMap<>(4);
+
+        Term(String text) { this.text = text; }
+    }
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] kids = new Node[0];
+        int size;
+        Term term;
+
+        Node child(char c) {
+            for (int i = 0; i < size; i++) if (keys[i] == c) return kids[i];
+            return null;
+        }
+
+        Node childOrAdd(char c) {
+            Node n = child(c);
+            if (n != null) return n;
+            if (size == keys.length) {
+                int cap = Math.max(2, size * 2);
+                keys = Arrays.copyOf(keys, cap);
+                kids = Arrays.copyOf(kids, cap);
+            }
+            n = new Node();
+            keys[size] = c;
+            kids[size++] = n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package controller;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-operation latency histograms, keyed by name ("OrderController.placeOrder", "db.acquire").
+ * Controllers wrap their public methods in time(); an exception thrown out of the call counts as
+ * an error. With metrics.logIntervalMs > 0 a summary is printed periodically.
+ */
+public class Metrics {
+    private static final Metrics SHARED = new Metrics(AppConfig.getLong("metrics.logIntervalMs", 0));
+
+    public static Metrics shared() { return SHARED; }
+
+    /** A timed call; E lets checked exceptions pass through unchanged. */
+    public interface Call<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    public interface Run<E extends Exception> {
+        void run() throws E;
+    }
+
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+
+    public Metrics(long logIntervalMs) {
+        if (logIntervalMs > 0) {
+            ScheduledExecutorService logger = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metrics-log");
+                t.setDaemon(true);
+                return t;
+            });
+            logger.scheduleWithFixedDelay(() -> System.out.print(report()), logIntervalMs, logIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public LatencyHistogram histogram(String name) {
+        LatencyHistogram h = histograms.get(name);
+        return h != null ? h : histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    public <T, E extends Exception> T time(String name, Call<T, E> call) throws E {
+        LatencyHistogram h = histogram(name);
+        long t0 = System.nanoTime();
+        try {
+            return call.call();
+        } catch (Exception ex) {
+            h.recordError();
+            throw ex;
+        } finally {
+            h.record(System.nanoTime() - t0);
+        }
+    }
+
+    public <E extends Exception> void timeRun(String name, Run<E> run) throws E {
+        time(name, () -> {
+            run.run();
+            return null;
+        });
+    }
+
+    /** Counts an error for an operation that handles its own failure instead of throwing. */
+    public void error(String name) {
+        histogram(name).recordError();
+    }
+
+    /** All histograms by name, sorted. */
+    public Map<String, LatencyHistogram> snapshot() {
+        return new TreeMap<>(histograms);
+    }
+
+    /** One line per operation: count, errors, p50/p99/max in milliseconds. */
+    public String report() {
+        StringBuilder sb = new StringBuilder("-- metrics --\n");
+        for (Map.Entry<String, LatencyHistogram> e : snapshot().entrySet()) {
+            LatencyHistogram h = e.getValue();
+            sb.append(e.getKey()).append(" count=").append(h.getCount()).append(" errors=").append(h.getErrors());
+            appendMillis(sb.append(" p50="), h.percentile(50));
+            appendMillis(sb.append(" p99="), h.percentile(99));
+            appendMillis(sb.append(" max="), h.getMax());
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** Nanoseconds as milliseconds with three decimals. */
+    public static StringBuilder appendMillis(StringBuilder sb, long nanos) {
+        long micros = nanos / 1000;
+        sb.append(micros / 1000).append('.');
+        long frac = micros % 1000;
+        if (frac < 100) sb.append('0');
+        if (frac < 10) sb.append('0');
+        return sb.append(frac);
+    }
+}
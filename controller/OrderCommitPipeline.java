@@ -0,0 +1,161 @@
+package controller;
+
+import model.Order;
+import repository.OrderRepository;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Group commit for placeOrder (order.pipeline.enabled=true).
+ * Checkouts are queued and a committer thread writes up to maxBatch of them in one transaction,
+ * waiting at most lingerMs for a batch to fill, so many orders share one commit (and one fsync).
+ * Each order runs under its own savepoint: a failing order is rolled back alone and the rest of
+ * the batch still commits. Callers block until their batch commits and get their own order id,
+ * for at most commitTimeoutMs: an order the committer has not started on by then is withdrawn
+ * and fails, so a stalled committer cannot hold checkouts (and their cart locks) forever.
+ */
+public class OrderCommitPipeline {
+    private static final OrderCommitPipeline SHARED = AppConfig.getBoolean("order.pipeline.enabled", false)
+            ? new OrderCommitPipeline(
+                    AppConfig.getInt("order.pipeline.queueDepth", 1024),
+                    AppConfig.getInt("order.pipeline.maxBatch", 64),
+                    AppConfig.getLong("order.pipeline.lingerMs", 5),
+                    AppConfig.getLong("order.pipeline.submitTimeoutMs", 2000),
+                    AppConfig.getLong("order.pipeline.commitTimeoutMs", 10_000))
+            : null;
+
+    /** The configured pipeline, or null when group commit is disabled. */
+    public static OrderCommitPipeline shared() { return SHARED; }
+
+    private final BlockingQueue<Submission> queue;
+    private final int maxBatch;
+    private final long lingerNanos;
+    private final long submitTimeoutMs;
+    private final long commitTimeoutMs;
+    private volatile boolean stopped;
+
+    public OrderCommitPipeline(int queueDepth, int maxBatch, long lingerMs, long submitTimeoutMs, long commitTimeoutMs) {
+        this.queue = new ArrayBlockingQueue<>(queueDepth);
+        this.maxBatch = Math.max(1, maxBatch);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.submitTimeoutMs = submitTimeoutMs;
+        this.commitTimeoutMs = commitTimeoutMs;
+        Thread committer = new Thread(this::run, "order-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /** Queues the order and waits for its batch to commit; returns the generated order id. */
+    public int commit(Order order) throws SQLException {
+        Submission s = new Submission(order);
+        try {
+            if (stopped) throw new SQLException("Order committer has stopped.");
+            if (!queue.offer(s, submitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Order queue is full; try again.");
+            }
+            try {
+                return s.result.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                if (s.state.compareAndSet(QUEUED, WITHDRAWN)) {
+                    throw new SQLException("Order was not committed within " + commitTimeoutMs + "ms; it has not been placed.", ex);
+                }
+            }
+            // the committer is writing it: give the transaction one more period to finish
+            try {
+                return s.result.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException ex) {
+                throw new SQLException("Order commit is taking too long; check the order history before retrying.", ex);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while placing order.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof SQLException) throw (SQLException) ex.getCause();
+            throw new SQLException(ex.getCause());
+        }
+    }
+
+    public int getQueued() { return queue.size(); }
+
+    private void run() {
+        List<Submission> batch = new ArrayList<>(maxBatch);
+        while (true) {
+            try {
+                batch.add(queue.take());
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatch) {
+                    long left = deadline - System.nanoTime();
+                    Submission next = left > 0 ? queue.poll(left, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) break;
+                    batch.add(next);
+                }
+                commitBatch(batch);
+            } catch (InterruptedException ex) {
+                stopped = true;
+                SQLException stop = new SQLException("Order committer has stopped.", ex);
+                for (Submission s : batch) s.result.completeExceptionally(stop);
+                Submission s;
+                while ((s = queue.poll()) != null) s.result.completeExceptionally(stop);
+                return;
+            } catch (Throwable ex) {
+                // keep the committer alive: fail this batch and go on with the next
+                for (Submission s : batch) s.result.completeExceptionally(ex);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commitBatch(List<Submission> batch) {
+        List<Submission> written = new ArrayList<>(batch.size());
+        List<Integer> ids = new ArrayList<>(batch.size());
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Submission s : batch) {
+                    if (!s.state.compareAndSet(QUEUED, WRITING)) continue; // its caller gave up waiting
+                    Savepoint sp = conn.setSavepoint();
+                    try {
+                        ids.add(OrderRepository.insert(conn, s.order, true));
+                        written.add(s);
+                    } catch (SQLException ex) {
+                        conn.rollback(sp);
+                        s.result.completeExceptionally(ex);
+                    }
+                }
+                conn.commit();
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            // orders already failed under their savepoint keep their own error
+            for (Submission s : batch) s.result.completeExceptionally(ex);
+            return;
+        }
+        for (int i = 0; i < written.size(); i++) written.get(i).result.complete(ids.get(i));
+    }
+
+    private static final int QUEUED = 0, WRITING = 1, WITHDRAWN = 2;
+
+    private static final class Submission {
+        final Order order;
+        final CompletableFuture<Integer> result = new CompletableFuture<>();
+        final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        Submission(Order order) {
+            this.order = order;
+        }
+    }
+}
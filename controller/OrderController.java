@@ -1,102 +1,242 @@
-package controller;
-
-import model.MenuItem;
-import model.Order;
-import model.OrderItem;
-
-import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-
-
-public class OrderController {
-    private final List<OrderItem> cart = new ArrayList<>();
-    private final MenuController menuController = new MenuController();
-
-    public void addToCart(int itemId, int qty) throws Exception {
-        MenuItem item = menuController.findById(itemId);
-        if (item == null) throw new Exception("Item not found.");
-        if (qty <= 0) throw new Exception("Quantity must be > 0.");
-        if (item.getAvailableQty() < qty) throw new Exception("Insufficient stock. Available: " + item.getAvailableQty());
-        // If same item exists in cart, increase
-        for (OrderItem oi : cart) {
-            if (oi.getItemId() == itemId) {
-                oi.setQuantity(oi.getQuantity() + qty);
-                return;
-            }
-        }
-        cart.add(new OrderItem(itemId, item.getName(), qty, item.getPrice()));
-    }
-
-    public List<OrderItem> getCart() { return cart; }
-
-    public double getSubtotal() {
-        return cart.stream().mapToDouble(OrderItem::getTotal).sum();
-    }
-
-    
-    public int placeOrder(double discountAmount) throws Exception {
-        if (cart.isEmpty()) throw new Exception("Cart is empty.");
-        String insertOrder = "INSERT INTO orders (total_amount, discount, net_amount) VALUES (?, ?, ?)";
-        String insertItem = "INSERT INTO order_items (order_id, item_id, quantity, price) VALUES (?, ?, ?, ?)";
-        String updateStock = "UPDATE menu_items SET available_qty = available_qty - ? WHERE item_id = ? AND available_qty >= ?";
-
-        double subtotal = getSubtotal();
-        double net = Math.max(0, subtotal - discountAmount);
-
-        Connection conn = null;
-        try {
-            conn = DBConnection.getConnection();
-            conn.setAutoCommit(false);
-
-            try (PreparedStatement psOrder = conn.prepareStatement(insertOrder, Statement.RETURN_GENERATED_KEYS);
-                 PreparedStatement psItem = conn.prepareStatement(insertItem);
-                 PreparedStatement psUpdateStock = conn.prepareStatement(updateStock)) {
-
-                psOrder.setDouble(1, subtotal);
-                psOrder.setDouble(2, discountAmount);
-                psOrder.setDouble(3, net);
-                psOrder.executeUpdate();
-                int orderId;
-                try (ResultSet keys = psOrder.getGeneratedKeys()) {
-                    if (keys.next()) orderId = keys.getInt(1);
-                    else throw new SQLException("Failed to create order.");
-                }
-
-                for (OrderItem oi : cart) {
-                    psItem.setInt(1, orderId);
-                    psItem.setInt(2, oi.getItemId());
-                    psItem.setInt(3, oi.getQuantity());
-                    psItem.setDouble(4, oi.getPrice());
-                    psItem.addBatch();
-
-                    psUpdateStock.setInt(1, oi.getQuantity());
-                    psUpdateStock.setInt(2, oi.getItemId());
-                    psUpdateStock.setInt(3, oi.getQuantity());
-                    psUpdateStock.addBatch();
-                }
-                psItem.executeBatch();
-                int[] stockRes = psUpdateStock.executeBatch();
-                for (int r : stockRes) {
-                    if (r == 0) throw new SQLException("Stock update failed (insufficient stock). Transaction rolled back.");
-                }
-
-                conn.commit();
-                cart.clear();
-                return orderId;
-            } catch (SQLException ex) {
-                conn.rollback();
-                throw ex;
-            } finally {
-                conn.setAutoCommit(true);
-            }
-        } catch (SQLException ex) {
-            ex.printStackTrace();
-            throw new Exception("DB error: " + ex.getMessage());
-        } finally {
-            if (conn != null) try { conn.close(); } catch (SQLException ignored) {}
-        }
-    }
-
-    public void clearCart() { cart.clear(); }
-}
+package controller;
+
+import model.Cart;
+import model.MenuItem;
+import model.MenuSnapshot;
+import model.Order;
+import model.OrderItem;
+import repository.OrderRepository;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Carts and checkout. Carts are kept per session (terminal or client id), so one instance
+ * can serve many counters; the no-arg variants use DEFAULT_SESSION, the local terminal's cart.
+ */
+public class OrderController {
+    public static final String DEFAULT_SESSION = AppConfig.get("terminal.id", "local");
+    /** SQLState of the failure raised when a guarded stock update finds too little stock. */
+    public static final String INSUFFICIENT_STOCK = OrderRepository.INSUFFICIENT_STOCK;
+
+    private final CartSessions sessions;
+    private final MenuController menuController;
+    private final StockLedger ledger = StockLedger.shared();
+    private final OrderCommitPipeline pipeline = OrderCommitPipeline.shared();
+    private final OrderJournal journal;
+    private final TicketBus tickets = TicketBus.shared();
+    private final ChangeEvents events = ChangeEvents.shared();
+    private final Metrics metrics = Metrics.shared();
+
+    public OrderController() {
+        this(new CartSessions(AppConfig.getLong("cart.sessionTtlMs", 1_800_000)));
+    }
+
+    public OrderController(CartSessions sessions) {
+        this(sessions, new MenuController(), OrderJournal.shared());
+    }
+
+    /** With journal null, orders are written to the database at checkout. */
+    OrderController(CartSessions sessions, MenuController menuController, OrderJournal journal) {
+        this.sessions = sessions;
+        this.menuController = menuController;
+        this.journal = journal;
+        sessions.setOnExpire(this::releaseAll);
+        KitchenStations.shared(); // stations subscribe before the first ticket is published
+    }
+
+    public void addToCart(int itemId, int qty) throws Exception { addToCart(DEFAULT_SESSION, itemId, qty); }
+    public List<OrderItem> getCart() { return getCart(DEFAULT_SESSION); }
+    public long getSubtotalPaise() { return getSubtotalPaise(DEFAULT_SESSION); }
+    public Order placeOrder(long discountPaise) throws Exception { return placeOrder(DEFAULT_SESSION, discountPaise); }
+    public void clearCart() { clearCart(DEFAULT_SESSION); }
+
+    /** Reserves the stock in the StockLedger, so an oversold item fails here rather than at checkout. */
+    public void addToCart(String sessionId, int itemId, int qty) throws Exception {
+        metrics.timeRun("OrderController.addToCart", () -> {
+            if (qty <= 0) throw new Exception("Quantity must be > 0.");
+            MenuSnapshot menu = menuController.getSnapshot();
+            int idx = menu == null ? -1 : menu.indexOf(itemId);
+            if (idx < 0) throw new Exception("Item not found.");
+            if (!ledger.isTracked(itemId)) {
+                MenuItem current = menuController.findById(itemId);
+                if (current == null) throw new Exception("Item not found.");
+                ledger.track(itemId, current.getAvailableQty());
+            }
+            if (!ledger.reserve(itemId, qty)) throw new Exception("Insufficient stock. Available: " + Math.max(0, ledger.available(itemId)));
+            Cart cart = sessions.get(sessionId);
+            cart.lock();
+            try {
+                if (cart.isExpired()) {
+                    ledger.release(itemId, qty);
+                    throw new Exception("Cart session expired.");
+                }
+                OrderItem line = cart.add(itemId, menu.name(idx), menu.categoryName(idx), qty, menu.pricePaise(idx));
+                events.emit(new ChangeEvents.CartChanged(sessionId,
+                        new OrderItem(itemId, line.getName(), line.getCategoryName(), line.getQuantity(), line.getPricePaise()), cart.getSubtotalPaise()));
+            } finally {
+                cart.unlock();
+            }
+        });
+    }
+
+    public List<OrderItem> getCart(String sessionId) {
+        return metrics.time("OrderController.getCart", () -> {
+            Cart cart = sessions.find(sessionId);
+            return cart == null ? new ArrayList<>() : cart.getItems();
+        });
+    }
+
+    /** Cart total in paise. */
+    public long getSubtotalPaise(String sessionId) {
+        return metrics.time("OrderController.getSubtotal", () -> {
+            Cart cart = sessions.find(sessionId);
+            return cart == null ? 0L : cart.getSubtotalPaise();
+        });
+    }
+
+    public void clearCart(String sessionId) {
+        metrics.timeRun("OrderController.clearCart", () -> {
+            Cart cart = sessions.find(sessionId);
+            if (cart != null) releaseAll(cart);
+        });
+    }
+
+    private void releaseAll(Cart cart) {
+        cart.lock();
+        try {
+            for (OrderItem oi : cart.getItems()) ledger.release(oi.getItemId(), oi.getQuantity());
+            cart.clear();
+        } finally {
+            cart.unlock();
+        }
+        events.emit(new ChangeEvents.CartChanged(cart.getSessionId(), null, 0));
+    }
+
+    public CartSessions getSessions() { return sessions; }
+
+    /**
+     * One page of orders placed between from and to (inclusive), newest first, without items.
+     * Pass the last order of the previous page as after (null for the first page); paging is by
+     * (order_date, order_id) so each page is an index range scan however deep the user scrolls.
+     */
+    public List<Order> getOrders(LocalDate from, LocalDate to, Order after, int limit) throws SQLException {
+        return metrics.time("OrderController.getOrders", () -> OrderRepository.findPage(from, to, after, limit));
+    }
+
+    /**
+     * Checks out the cart and returns the committed order with its id, time and lines filled in.
+     * With the order journal enabled the order is only journaled here: it comes back with a
+     * journal seq and no id yet, and gets its id when the replayer has written it to the database.
+     */
+    public Order placeOrder(String sessionId, long discountPaise) throws Exception {
+        PlaceOrderEvent event = new PlaceOrderEvent();
+        event.begin();
+        event.session = sessionId;
+        event.groupCommit = pipeline != null;
+        event.journaled = journal != null;
+        event.outcome = "failed";
+        try {
+            return metrics.time("OrderController.placeOrder", () -> {
+                Cart c = sessions.find(sessionId);
+                if (c == null) throw new Exception("Cart is empty.");
+                Order order;
+                // the cart stays locked for the whole transaction so the same cart cannot be checked out twice
+                c.lock();
+                try {
+                    order = placeOrder(c, discountPaise, event);
+                } finally {
+                    c.unlock();
+                }
+                announce(c.getSessionId(), order);
+                return order;
+            });
+        } finally {
+            event.commit();
+        }
+    }
+
+    private Order placeOrder(Cart c, long discountPaise, PlaceOrderEvent event) throws Exception {
+        List<OrderItem> cart = c.getItems();
+        if (cart.isEmpty()) throw new Exception("Cart is empty.");
+        if (discountPaise < 0) throw new Exception("Discount cannot be negative.");
+
+        Order order = new Order();
+        // whole seconds, so the time on the bill is the one stored in orders.order_date
+        order.setOrderTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        order.getItems().addAll(cart);
+        order.setTotalPaise(c.getSubtotalPaise());
+        order.setDiscountPaise(discountPaise);
+        order.setNetPaise(Math.max(0, order.getTotalPaise() - discountPaise));
+
+        event.lines = cart.size();
+        event.netPaise = order.getNetPaise();
+        long t0 = System.nanoTime();
+        // keeps reconcileAll off these items until the ledger has caught up with the write
+        for (OrderItem oi : cart) ledger.beginCommit(oi.getItemId());
+        try {
+            if (journal != null) order.setJournalSeq(journal.append(order));
+            else order.setOrderId(pipeline != null ? pipeline.commit(order) : OrderRepository.insert(order));
+        } catch (IOException ex) {
+            abandonCommit(cart);
+            event.dbTime = System.nanoTime() - t0;
+            event.outcome = "journal error";
+            ex.printStackTrace();
+            throw new Exception("Journal error: " + ex.getMessage(), ex);
+        } catch (SQLException ex) {
+            abandonCommit(cart);
+            event.dbTime = System.nanoTime() - t0;
+            event.outcome = INSUFFICIENT_STOCK.equals(ex.getSQLState()) ? "insufficient stock" : "db error";
+            // another process sold it first; resync the ledger so the cart sees the real count
+            if (INSUFFICIENT_STOCK.equals(ex.getSQLState())) ledger.reconcileAll();
+            ex.printStackTrace();
+            throw new Exception("DB error: " + ex.getMessage(), ex);
+        } catch (RuntimeException ex) {
+            abandonCommit(cart);
+            throw ex;
+        }
+        event.dbTime = System.nanoTime() - t0;
+        event.orderId = order.getOrderId();
+        event.outcome = "ok";
+
+        for (OrderItem oi : cart) {
+            ledger.commit(oi.getItemId(), oi.getQuantity());
+            MenuCatalogCache.shared().invalidateStock(oi.getItemId());
+        }
+        // a journaled order is counted by the replayer once it is in the database
+        if (journal == null) RevenueCounter.shared().add(order.getNetPaise(), discountPaise);
+        c.clear();
+        return order;
+    }
+
+    private void abandonCommit(List<OrderItem> cart) {
+        for (OrderItem oi : cart) ledger.abandonCommit(oi.getItemId());
+    }
+
+    /** Kitchen tickets and change events for a placed order; runs after the cart lock is released. */
+    private void announce(String sessionId, Order order) {
+        Map<Integer, Integer> stock = new HashMap<>();
+        for (OrderItem oi : order.getItems()) {
+            int left = ledger.stock(oi.getItemId());
+            if (left >= 0) stock.put(oi.getItemId(), left);
+        }
+        // a journaled order is published by the replayer once it has its id
+        if (journal == null) tickets.publish(order);
+        events.emit(new ChangeEvents.CartChanged(sessionId, null, 0));
+        if (journal == null) events.emit(new ChangeEvents.OrderPlaced(order));
+        if (!stock.isEmpty()) events.emit(new ChangeEvents.StockChanged(stock));
+    }
+
+    /** Reads a past order with its lines, e.g. to reprint a bill; null if there is no such order. */
+    public Order findOrder(int orderId) throws SQLException {
+        return metrics.time("OrderController.findOrder", () -> OrderRepository.findWithItems(orderId));
+    }
+}
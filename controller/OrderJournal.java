@@ -0,0 +1,480 @@
+package controller;
+
+import model.Order;
+import model.OrderItem;
+import repository.OrderRepository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32C;
+
+/**
+ * Write-ahead journal for checkout (order.journal.enabled=true).
+ * placeOrder appends the order to a memory-mapped local file, forces it to disk and returns;
+ * a replayer thread then writes journaled orders to the database in journal order, retrying
+ * with backoff while the database is unavailable. Each applied order is recorded in
+ * journal_applied under (journal id, seq) in the same transaction, so replaying after a crash
+ * never writes an order twice. The journal id is a random UUID chosen when the file is created,
+ * so a recreated file or two terminals with the same terminal.id never share keys.
+ * An order the database rejects outright (SQLState class 22 or 23) is isolated from the rest of
+ * its batch and moved to journal_dead_letters, so it cannot hold up the orders behind it.
+ *
+ * File layout: a 64-byte header (magic, last applied seq, offset of the first unapplied record,
+ * journal id) followed by a ring of records of [payload length][CRC32C][payload]. A record that
+ * does not fit before the end of the file goes to the start, after a wrap marker (length -1 and
+ * the low 32 bits of the next seq) if there is room for one. The ring is full only when the next
+ * record would overrun the oldest unapplied one. Recovery follows the records from the header's
+ * offset and stops at the first one that is torn, fails its checksum or is not the next seq.
+ */
+public class OrderJournal {
+    private static final Logger LOG = Logger.getLogger(OrderJournal.class.getName());
+
+    private static final int MAGIC = 0x4F524A32; // "ORJ2"
+    static final int HEADER = 64;
+    static final int APPLIED_SEQ = 8;
+    static final int APPLIED_OFFSET = 16;
+    private static final int JOURNAL_ID = 24; // two longs
+    private static final int WRAP = -1;
+
+    private static final OrderJournal SHARED = AppConfig.getBoolean("order.journal.enabled", false)
+            ? open(Paths.get(AppConfig.get("order.journal.path", "orders.journal")),
+                    AppConfig.getInt("order.journal.sizeMb", 64),
+                    AppConfig.get("terminal.id", ""),
+                    AppConfig.getInt("order.journal.replayBatch", 64),
+                    AppConfig.getLong("order.journal.retryMs", 1000))
+            : null;
+
+    static {
+        if (SHARED != null) DBConnection.beforeClose(SHARED::close);
+    }
+
+    /** The configured journal, or null when checkout writes straight to the database. */
+    public static OrderJournal shared() { return SHARED; }
+
+    private final MappedByteBuffer map;
+    private final String terminalId;
+    private final int replayBatch;
+    private final long retryMs;
+    private final CRC32C crc = new CRC32C();
+    private final Thread replayer;
+    private volatile boolean stopped;
+    private String journalId;
+
+    // a lock rather than the monitor: append holds it across map.force(), which would pin a virtual thread's carrier
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    // guarded by lock
+    private final Deque<Entry> unapplied = new ArrayDeque<>();
+    private long nextSeq;
+    private int writePos;
+    private boolean headerDirty; // the replayer moved the head since the header was last forced
+
+    /** Opens (or creates) the journal and starts replaying it. terminalId must be set. */
+    public OrderJournal(Path file, int sizeMb, String terminalId, int replayBatch, long retryMs) throws IOException {
+        this(file, (long) sizeMb << 20, terminalId, replayBatch, retryMs, true);
+    }
+
+    OrderJournal(Path file, long size, String terminalId, int replayBatch, long retryMs, boolean replay) throws IOException {
+        if (terminalId == null || terminalId.trim().isEmpty()) {
+            throw new IllegalArgumentException("The order journal needs terminal.id set to a name unique to this terminal.");
+        }
+        this.terminalId = terminalId.trim();
+        this.replayBatch = Math.max(1, replayBatch);
+        this.retryMs = retryMs;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long mapped = Math.max(ch.size(), size);
+            if (mapped > Integer.MAX_VALUE) throw new IOException("Order journal is larger than 2 GB: " + file);
+            map = ch.map(FileChannel.MapMode.READ_WRITE, 0, mapped); // the mapping stays valid after close
+        }
+        recover();
+        replayer = new Thread(this::replay, "order-journal-replay");
+        replayer.setDaemon(true);
+        if (replay) replayer.start();
+    }
+
+    private static OrderJournal open(Path file, int sizeMb, String terminalId, int replayBatch, long retryMs) {
+        try {
+            return new OrderJournal(file, sizeMb, terminalId, replayBatch, retryMs);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Cannot open order journal " + file.toAbsolutePath(), ex);
+        }
+    }
+
+    /**
+     * Appends the order and forces it to disk; returns its journal sequence number once the order
+     * is durable. Fails if the record would overrun the oldest order the database has not taken yet.
+     */
+    public long append(Order order) throws IOException {
+        lock.lock();
+        try {
+            return appendLocked(order);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long appendLocked(Order order) throws IOException {
+        byte[] payload = encode(nextSeq, order);
+        int need = 8 + payload.length;
+        int capacity = map.capacity();
+        if (HEADER + need > capacity) throw new IOException("Order too large for the order journal (" + need + " bytes).");
+        int pos = writePos;
+        boolean wrap;
+        if (!unapplied.isEmpty() && pos <= unapplied.peekFirst().start) {
+            // already wrapped: the free space runs up to the oldest unapplied record
+            if (pos + need > unapplied.peekFirst().start) throw full();
+            wrap = false;
+        } else {
+            wrap = pos + need > capacity;
+            if (wrap && HEADER + need > (unapplied.isEmpty() ? capacity : unapplied.peekFirst().start)) throw full();
+        }
+        if (headerDirty) {
+            // the header must be durable before this record may overwrite records it no longer points at
+            map.force();
+            headerDirty = false;
+        }
+        if (wrap) {
+            if (pos + 8 <= capacity) {
+                map.putInt(pos + 4, (int) nextSeq);
+                map.putInt(pos, WRAP);
+            }
+            pos = HEADER;
+        }
+        crc.reset();
+        crc.update(payload);
+        ByteBuffer out = map.duplicate();
+        out.position(pos + 8);
+        out.put(payload);
+        map.putInt(pos, payload.length);
+        map.putInt(pos + 4, (int) crc.getValue());
+        map.force(); // writes back the dirty pages only: this record and the wrap marker, if any
+        Entry e = new Entry(nextSeq++, pos, pos + need, order);
+        writePos = pos + need;
+        unapplied.addLast(e);
+        appended.signalAll();
+        return e.seq;
+    }
+
+    private IOException full() {
+        return new IOException("Order journal is full (" + unapplied.size() + " orders waiting for the database).");
+    }
+
+    /** Orders journaled but not yet in the database. */
+    public int getPending() {
+        lock.lock();
+        try {
+            return unapplied.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Quantities (item id -> qty) of journaled orders the database stock does not reflect yet. */
+    public Map<Integer, Integer> pendingQuantities() {
+        Map<Integer, Integer> out = new HashMap<>();
+        lock.lock();
+        try {
+            for (Entry e : unapplied) {
+                for (OrderItem oi : e.order.getItems()) out.merge(oi.getItemId(), oi.getQuantity(), Integer::sum);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return out;
+    }
+
+    /** Stops the replayer (waiting for the batch in progress) and forces the header to disk. */
+    public void close() {
+        stopped = true;
+        replayer.interrupt();
+        try {
+            replayer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            map.force();
+            headerDirty = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recover() throws IOException {
+        int magic = map.getInt(0);
+        if (magic == 0) {
+            UUID id = UUID.randomUUID();
+            map.putLong(JOURNAL_ID, id.getMostSignificantBits());
+            map.putLong(JOURNAL_ID + 8, id.getLeastSignificantBits());
+            map.putLong(APPLIED_SEQ, 0);
+            map.putLong(APPLIED_OFFSET, HEADER);
+            map.putInt(0, MAGIC);
+            map.force();
+        } else if (magic != MAGIC) {
+            throw new IOException("Not an order journal, or one written by an older version (magic " + Integer.toHexString(magic) + ")");
+        }
+        journalId = new UUID(map.getLong(JOURNAL_ID), map.getLong(JOURNAL_ID + 8)).toString();
+        long seq = map.getLong(APPLIED_SEQ) + 1;
+        int capacity = map.capacity();
+        int head = (int) map.getLong(APPLIED_OFFSET);
+        if (head < HEADER || head > capacity) throw new IOException("Corrupt order journal header (offset " + head + ")");
+        int pos = head;
+        boolean wrapped = false;
+        while (!(wrapped && pos >= head)) {
+            if (pos + 8 > capacity || map.getInt(pos) == WRAP) {
+                if (wrapped || (pos + 8 <= capacity && map.getInt(pos + 4) != (int) seq)) break;
+                pos = HEADER;
+                wrapped = true;
+                continue;
+            }
+            int len = map.getInt(pos);
+            int end = pos + 8 + len;
+            if (len <= 0 || end > capacity || end < 0 || (wrapped && end > head)) break;
+            byte[] payload = new byte[len];
+            ByteBuffer in = map.duplicate();
+            in.position(pos + 8);
+            in.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != map.getInt(pos + 4)) break;
+            in = ByteBuffer.wrap(payload);
+            if (in.getLong() != seq) break; // a record left over from an earlier pass over the ring
+            unapplied.addLast(new Entry(seq++, pos, end, decode(in)));
+            pos = end;
+        }
+        nextSeq = seq;
+        writePos = pos;
+        if (!unapplied.isEmpty()) LOG.info("Order journal " + journalId + ": " + unapplied.size() + " order(s) to replay.");
+    }
+
+    private void replay() {
+        List<Entry> batch = new ArrayList<>(replayBatch);
+        long backoff = retryMs;
+        int isolate = 0; // orders still to be applied one at a time after their batch was rejected
+        while (!stopped) {
+            try {
+                lock.lockInterruptibly();
+                try {
+                    while (unapplied.isEmpty()) appended.await();
+                    int max = isolate > 0 ? 1 : replayBatch;
+                    Iterator<Entry> it = unapplied.iterator();
+                    while (it.hasNext() && batch.size() < max) batch.add(it.next());
+                } finally {
+                    lock.unlock();
+                }
+                List<Integer> ids;
+                try {
+                    ids = apply(batch);
+                } catch (SQLException ex) {
+                    if (!rejected(ex)) throw ex;
+                    if (batch.size() > 1) {
+                        // one bad order fails the whole transaction: find it by applying them one by one
+                        isolate = batch.size();
+                        batch.clear();
+                        continue;
+                    }
+                    deadLetter(batch.get(0), ex);
+                    ids = Collections.singletonList(-1);
+                }
+                Entry last = batch.get(batch.size() - 1);
+                lock.lock();
+                try {
+                    for (int i = 0; i < batch.size(); i++) unapplied.pollFirst();
+                    // forced before append reuses the space, or on close; if lost in a crash, recovery
+                    // replays a few orders that journal_applied then skips
+                    map.putLong(APPLIED_SEQ, last.seq);
+                    map.putLong(APPLIED_OFFSET, last.end);
+                    headerDirty = true;
+                } finally {
+                    lock.unlock();
+                }
+                if (isolate > 0) isolate--;
+                for (int i = 0; i < batch.size(); i++) {
+                    if (ids.get(i) >= 0) applied(batch.get(i), ids.get(i));
+                }
+                batch.clear();
+                backoff = retryMs;
+            } catch (InterruptedException ex) {
+                return;
+            } catch (SQLException | RuntimeException ex) {
+                // keep the orders and retry; journaled orders are never dropped
+                if (stopped) return;
+                LOG.log(Level.WARNING, "Replaying " + batch.size() + " journaled order(s) failed; retrying in " + backoff + "ms", ex);
+                batch.clear();
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+                backoff = Math.min(backoff * 2, 30_000);
+            }
+        }
+    }
+
+    /** Writes the batch in one transaction, skipping orders an earlier run already applied. */
+    private List<Integer> apply(List<Entry> batch) throws SQLException {
+        List<Integer> ids = new ArrayList<>(batch.size());
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                for (Entry e : batch) {
+                    int orderId = OrderRepository.findJournaled(conn, journalId, e.seq);
+                    e.appliedBefore = orderId >= 0;
+                    if (orderId < 0) {
+                        // the customer has already been served, so stock may go below zero rather than reject the order
+                        orderId = OrderRepository.insert(conn, e.order, false);
+                        OrderRepository.markJournaled(conn, journalId, e.seq, terminalId, orderId);
+                    }
+                    ids.add(orderId);
+                }
+                conn.commit();
+            } catch (SQLException | RuntimeException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * SQLState class 22 (data exception) or 23 (constraint violation): retrying cannot help.
+     * Batch failures may carry the state on a chained or cause exception.
+     */
+    private static boolean rejected(SQLException ex) {
+        for (SQLException e = ex; e != null; e = e.getNextException()) {
+            for (Throwable t = e; t != null; t = t.getCause()) {
+                String state = t instanceof SQLException ? ((SQLException) t).getSQLState() : null;
+                if (state != null && (state.startsWith("22") || state.startsWith("23"))) return true;
+            }
+        }
+        return false;
+    }
+
+    private void deadLetter(Entry e, SQLException cause) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            OrderRepository.deadLetter(conn, journalId, e.seq, terminalId, e.order, cause.getSQLState(),
+                    cause.getMessage(), encode(e.seq, e.order));
+        }
+        LOG.log(Level.SEVERE, "Journaled order " + e.seq + " (journal " + journalId + ") was rejected by the database"
+                + " and moved to journal_dead_letters", cause);
+    }
+
+    /**
+     * The order is in the database: it gets its id, and kitchen tickets and OrderPlaced go out now.
+     * It is added to today's RevenueCounter only now, in step with daily_sales, so the totals
+     * neither lose it at the next re-seed nor count an order that is later dead-lettered.
+     */
+    private static void applied(Entry e, int orderId) {
+        Order order = e.order;
+        order.setOrderId(orderId);
+        // an order an earlier run applied is already in daily_sales; one from another day is not in today's
+        if (!e.appliedBefore && order.getOrderTime().toLocalDate().equals(LocalDate.now())) {
+            RevenueCounter.shared().add(order.getNetPaise(), order.getDiscountPaise());
+        }
+        try {
+            for (OrderItem oi : order.getItems()) MenuCatalogCache.shared().invalidateStock(oi.getItemId());
+            TicketBus.shared().publish(order);
+            ChangeEvents.shared().emit(new ChangeEvents.OrderPlaced(order));
+        } catch (RuntimeException ex) {
+            LOG.log(Level.WARNING, "Order " + orderId + " is in the database but announcing it failed", ex);
+        }
+    }
+
+    private static byte[] encode(long seq, Order order) {
+        List<OrderItem> items = order.getItems();
+        List<byte[]> strings = new ArrayList<>(items.size() * 2);
+        int size = 8 + 8 + 8 * 3 + 4;
+        for (OrderItem oi : items) {
+            byte[] name = utf8(oi.getName());
+            byte[] category = utf8(oi.getCategoryName());
+            strings.add(name);
+            strings.add(category);
+            size += 4 + 4 + 8 + 4 + name.length + 4 + category.length;
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putLong(seq);
+        out.putLong(order.getOrderTime().toEpochSecond(ZoneOffset.UTC));
+        out.putLong(order.getTotalPaise()).putLong(order.getDiscountPaise()).putLong(order.getNetPaise());
+        out.putInt(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem oi = items.get(i);
+            out.putInt(oi.getItemId()).putInt(oi.getQuantity()).putLong(oi.getPricePaise());
+            byte[] name = strings.get(2 * i);
+            byte[] category = strings.get(2 * i + 1);
+            out.putInt(name.length).put(name);
+            out.putInt(category.length).put(category);
+        }
+        return out.array();
+    }
+
+    /** Reads a payload after its seq. */
+    private static Order decode(ByteBuffer in) {
+        Order o = new Order();
+        o.setOrderTime(LocalDateTime.ofEpochSecond(in.getLong(), 0, ZoneOffset.UTC));
+        o.setTotalPaise(in.getLong());
+        o.setDiscountPaise(in.getLong());
+        o.setNetPaise(in.getLong());
+        int lines = in.getInt();
+        for (int i = 0; i < lines; i++) {
+            int itemId = in.getInt();
+            int qty = in.getInt();
+            long price = in.getLong();
+            String name = string(in);
+            String category = string(in);
+            o.getItems().add(new OrderItem(itemId, name, category, qty, price));
+        }
+        return o;
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? new byte[0] : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer in) {
+        byte[] b = new byte[in.getInt()];
+        in.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    private static final class Entry {
+        final long seq;
+        final int start;
+        final int end;
+        final Order order;
+        /** Found in journal_applied by the last apply, i.e. written by an earlier run. */
+        boolean appliedBefore;
+
+        Entry(long seq, int start, int end, Order order) {
+            this.seq = seq;
+            this.start = start;
+            this.end = end;
+            this.order = order;
+        }
+    }
+}
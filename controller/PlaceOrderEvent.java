@@ -0,0 +1,44 @@
+package controller;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * JFR event for one checkout, so a slow placeOrder can be lined up with GC pauses, lock waits
+ * and socket reads in the same recording (java -XX:StartFlightRecording ...).
+ * The event's duration is the whole checkout; dbTime is the part spent committing to the database.
+ */
+@Name("restaurant.PlaceOrder")
+@Label("Place Order")
+@Category({"Restaurant", "Orders"})
+@Description("OrderController.placeOrder")
+class PlaceOrderEvent extends Event {
+    @Label("Session")
+    String session;
+
+    @Label("Order Id")
+    int orderId;
+
+    @Label("Lines")
+    int lines;
+
+    @Label("Net Amount (paise)")
+    long netPaise;
+
+    @Label("Group Commit")
+    boolean groupCommit;
+
+    @Label("Journaled")
+    boolean journaled;
+
+    @Label("Database Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long dbTime;
+
+    @Label("Outcome")
+    String outcome;
+}
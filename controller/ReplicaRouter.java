@@ -0,0 +1,190 @@
+package controller;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Routes reads that tolerate bounded staleness to read replicas.
+ * A monitor thread checks every replica each checkMs with lagQuery; a replica takes reads only
+ * while its last check succeeded recently and showed at most maxLagMs of replication lag, so a
+ * read is at most about maxLagMs + checkMs behind the primary. Reads go round-robin over the
+ * usable replicas. getConnection() returns null, meaning "use the primary", when none is usable,
+ * when a replica connection cannot be had, or while the primary is pinned after a local write
+ * that the next reads must see.
+ */
+public class ReplicaRouter implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(ReplicaRouter.class.getName());
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long maxLagMs;
+    private final long checkMs;
+    private final String lagQuery;
+    private final ScheduledExecutorService monitor;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile long pinnedUntil;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    public ReplicaRouter(List<ConnectionPool> pools, long maxLagMs, long checkMs, String lagQuery) {
+        for (int i = 0; i < pools.size(); i++) replicas.add(new Replica("replica-" + (i + 1), pools.get(i)));
+        this.maxLagMs = maxLagMs;
+        this.checkMs = Math.max(100, checkMs);
+        this.lagQuery = lagQuery;
+        monitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "db-replica-monitor");
+            t.setDaemon(true);
+            return t;
+        });
+        // reads use the primary until the first check has passed
+        monitor.scheduleWithFixedDelay(this::check, 0, this.checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** A connection to a usable replica, or null if the read should go to the primary. */
+    public Connection getConnection() {
+        if (System.currentTimeMillis() < pinnedUntil) {
+            primaryReads.increment();
+            return null;
+        }
+        int n = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), n);
+        for (int i = 0; i < n; i++) {
+            Replica r = replicas.get((start + i) % n);
+            if (!r.usable()) continue;
+            try {
+                Connection c = r.pool.getConnection();
+                replicaReads.increment();
+                return c;
+            } catch (SQLException ex) {
+                r.down(ex.getMessage());
+            }
+        }
+        primaryReads.increment();
+        return null;
+    }
+
+    /** Sends reads to the primary until the replicas have had time to apply a write made just now. */
+    public void pin() {
+        pinnedUntil = System.currentTimeMillis() + maxLagMs + checkMs;
+    }
+
+    private void check() {
+        for (Replica r : replicas) {
+            try {
+                long lag = lagMs(r);
+                if (lag < 0) {
+                    r.down("replication is not running");
+                } else {
+                    r.lagMs = lag;
+                    if (r.error != null) LOG.info("Read replica " + r.name + " back in rotation");
+                    r.error = null;
+                    r.checkedAt = System.currentTimeMillis();
+                }
+            } catch (SQLException | RuntimeException ex) {
+                r.down(ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Lag from lagQuery: the Seconds_Behind_Source (or _Master) column of SHOW REPLICA STATUS, or
+     * else the first column as milliseconds (e.g. from a heartbeat table). -1 when the query
+     * returns no row or a null lag, i.e. the replica is not replicating.
+     */
+    private long lagMs(Replica r) throws SQLException {
+        try (Connection c = r.pool.getConnection();
+             Statement st = c.createStatement();
+             ResultSet rs = st.executeQuery(lagQuery)) {
+            if (!rs.next()) return -1;
+            ResultSetMetaData md = rs.getMetaData();
+            for (int i = 1; i <= md.getColumnCount(); i++) {
+                if (md.getColumnLabel(i).startsWith("Seconds_Behind_")) {
+                    long seconds = rs.getLong(i);
+                    return rs.wasNull() ? -1 : seconds * 1000;
+                }
+            }
+            long ms = rs.getLong(1);
+            return rs.wasNull() ? -1 : ms;
+        }
+    }
+
+    public List<Status> getStatus() {
+        List<Status> out = new ArrayList<>(replicas.size());
+        for (Replica r : replicas) out.add(new Status(r.name, r.usable(), r.lagMs, r.error, r.pool.getStats()));
+        return out;
+    }
+
+    public long getReplicaReads() { return replicaReads.sum(); }
+
+    /** Reads that went to the primary: no usable replica, or pinned after a write. */
+    public long getPrimaryReads() { return primaryReads.sum(); }
+
+    @Override
+    public void close() {
+        monitor.shutdownNow();
+        for (Replica r : replicas) r.pool.close();
+    }
+
+    private final class Replica {
+        final String name;
+        final ConnectionPool pool;
+        volatile long checkedAt; // 0 = down
+        volatile long lagMs;
+        volatile String error;
+
+        Replica(String name, ConnectionPool pool) {
+            this.name = name;
+            this.pool = pool;
+        }
+
+        /** Healthy at the last check, within the lag bound, and the monitor is keeping up. */
+        boolean usable() {
+            long at = checkedAt;
+            return at != 0 && lagMs <= maxLagMs && System.currentTimeMillis() - at <= 3 * checkMs;
+        }
+
+        void down(String reason) {
+            if (checkedAt != 0 || !String.valueOf(reason).equals(error)) {
+                LOG.warning("Read replica " + name + " out of rotation: " + reason);
+            }
+            checkedAt = 0;
+            error = reason;
+        }
+    }
+
+    /** Point-in-time state of one replica. */
+    public static class Status {
+        private final String name;
+        private final boolean usable;
+        private final long lagMs;
+        private final String error;
+        private final ConnectionPool.Stats pool;
+
+        Status(String name, boolean usable, long lagMs, String error, ConnectionPool.Stats pool) {
+            this.name = name;
+            this.usable = usable;
+            this.lagMs = lagMs;
+            this.error = error;
+            this.pool = pool;
+        }
+
+        public String getName() { return name; }
+        public boolean isUsable() { return usable; }
+        /** Lag at the last successful check. */
+        public long getLagMs() { return lagMs; }
+        /** Why the replica is out of rotation, or null. */
+        public String getError() { return error; }
+        public ConnectionPool.Stats getPool() { return pool; }
+    }
+}
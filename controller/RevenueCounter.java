@@ -0,0 +1,71 @@
+package controller;
+
+import java.time.LocalDate;
+
+/**
+ * Today's running totals, so the accounts screen does not hit the database on every refresh.
+ * Seeded from daily_sales, bumped by every order committed in this process, and re-seeded once
+ * older than rollup.counter.refreshMs to pick up orders placed by other terminals.
+ */
+public class RevenueCounter {
+    private static final RevenueCounter SHARED = new RevenueCounter(AppConfig.getLong("rollup.counter.refreshMs", 10_000));
+
+    public static RevenueCounter shared() { return SHARED; }
+
+    private final long refreshMs;
+    private LocalDate day;
+    private int orders;
+    // paise
+    private long revenue;
+    private long discount;
+    private long seededAt;
+    private long version;
+
+    public RevenueCounter(long refreshMs) { this.refreshMs = refreshMs; }
+
+    public synchronized boolean isFresh() {
+        return day != null && day.equals(LocalDate.now()) && System.currentTimeMillis() - seededAt <= refreshMs;
+    }
+
+    /** Whether the totals have been seeded for the given day, fresh or not. */
+    public synchronized boolean isSeededFor(LocalDate day) {
+        return day.equals(this.day);
+    }
+
+    /** Changes whenever a local order is added; pass it back to seed(). */
+    public synchronized long version() { return version; }
+
+    /**
+     * Replaces the totals with values read from daily_sales. If a local order was added while
+     * they were being read, the counter stays stale so the next read reloads.
+     */
+    public synchronized void seed(LocalDate day, int orders, long revenue, long discount, long readVersion) {
+        this.day = day;
+        this.orders = orders;
+        this.revenue = revenue;
+        this.discount = discount;
+        this.seededAt = readVersion == version ? System.currentTimeMillis() : 0;
+    }
+
+    public synchronized void add(long net, long discount) {
+        version++;
+        if (day == null || !day.equals(LocalDate.now())) {
+            seededAt = 0;
+            return;
+        }
+        orders++;
+        revenue += net;
+        this.discount += discount;
+    }
+
+    public synchronized void invalidate() {
+        version++;
+        seededAt = 0;
+    }
+
+    public synchronized int getOrders() { return orders; }
+    /** Today's net revenue in paise. */
+    public synchronized long getRevenue() { return revenue; }
+    /** Today's discounts in paise. */
+    public synchronized long getDiscount() { return discount; }
+}
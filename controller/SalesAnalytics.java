@@ -0,0 +1,199 @@
+package controller;
+
+import model.MenuSnapshot;
+import model.SalesReport;
+import repository.AccountRepository;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sales reports over any date range, computed from orders and order_items.
+ * The range is split into day chunks that are aggregated in parallel on reports.parallelism
+ * threads, each with its own connection. Rows are streamed with reports.fetchSize and folded into
+ * primitive per-chunk totals, so memory depends on the number of menu items, not on the history.
+ * Item names and categories are taken from the current menu.
+ */
+public class SalesAnalytics {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final SalesAnalytics SHARED = new SalesAnalytics(
+            AppConfig.getInt("reports.parallelism", 4), AppConfig.getInt("reports.fetchSize", 1000));
+
+    public static SalesAnalytics shared() { return SHARED; }
+
+    private final int parallelism;
+    private final int fetchSize;
+    private final ExecutorService workers;
+    private final MenuController menuController = new MenuController();
+
+    public SalesAnalytics(int parallelism, int fetchSize) {
+        this.parallelism = Math.max(1, parallelism);
+        this.fetchSize = fetchSize;
+        // a plain pool rather than the common ForkJoinPool: every task blocks on JDBC
+        this.workers = Executors.newFixedThreadPool(this.parallelism, r -> {
+            Thread t = new Thread(r, "sales-report-" + THREADS.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Sales for orders placed between from and to, inclusive. */
+    public SalesReport report(LocalDate from, LocalDate to) throws SQLException {
+        if (to.isBefore(from)) throw new IllegalArgumentException("'to' is before 'from'.");
+        long days = ChronoUnit.DAYS.between(from, to) + 1;
+        // a few chunks per thread, so one busy month does not leave the other threads idle
+        long chunkDays = Math.max(1, (days + parallelism * 2L - 1) / (parallelism * 2L));
+        List<Future<Partial>> parts = new ArrayList<>();
+        for (LocalDate start = from; !start.isAfter(to); start = start.plusDays(chunkDays)) {
+            LocalDate s = start;
+            LocalDate next = start.plusDays(chunkDays);
+            LocalDate end = next.isAfter(to) ? to.plusDays(1) : next;
+            parts.add(workers.submit(() -> aggregate(s, end)));
+        }
+        Partial total = new Partial();
+        try {
+            for (Future<Partial> f : parts) total.merge(f.get());
+        } catch (InterruptedException ex) {
+            for (Future<Partial> f : parts) f.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while building the report.", ex);
+        } catch (ExecutionException ex) {
+            for (Future<Partial> f : parts) f.cancel(true);
+            if (ex.getCause() instanceof SQLException) throw (SQLException) ex.getCause();
+            throw new SQLException(ex.getCause());
+        }
+        return total.toReport(from, to, menuController.getSnapshot());
+    }
+
+    /** Orders placed in [from, to). */
+    private Partial aggregate(LocalDate from, LocalDate to) throws SQLException {
+        Partial p = new Partial();
+        AccountRepository.scanSales(from, to, fetchSize, p);
+        return p;
+    }
+
+    /** Totals for one chunk; item totals live in an open-addressing table keyed by item id. */
+    private static final class Partial implements AccountRepository.SalesVisitor {
+        private static final int EMPTY = Integer.MIN_VALUE;
+
+        long orders, lines, gross, discount, net, discountedOrders, discountedNet;
+        final long[] hourOrders = new long[24];
+        final long[] hourNet = new long[24];
+        int[] ids = newIds(64);
+        long[] qty = new long[64];
+        long[] revenue = new long[64];
+        int items;
+
+        @Override
+        public void order(int hour, long gross, long discount, long net) {
+            orders++;
+            this.gross += gross;
+            this.discount += discount;
+            this.net += net;
+            if (discount > 0) {
+                discountedOrders++;
+                discountedNet += net;
+            }
+            hourOrders[hour]++;
+            hourNet[hour] += net;
+        }
+
+        @Override
+        public void line(int itemId, int quantity, long amount) {
+            lines++;
+            addItem(itemId, quantity, amount);
+        }
+
+        private void addItem(int itemId, long quantity, long amount) {
+            int mask = ids.length - 1;
+            int i = mix(itemId) & mask;
+            while (ids[i] != EMPTY && ids[i] != itemId) i = (i + 1) & mask;
+            if (ids[i] == EMPTY) {
+                ids[i] = itemId;
+                items++;
+            }
+            qty[i] += quantity;
+            revenue[i] += amount;
+            if (items * 2 > ids.length) grow();
+        }
+
+        private void grow() {
+            int[] oldIds = ids;
+            long[] oldQty = qty, oldRevenue = revenue;
+            ids = newIds(oldIds.length * 2);
+            qty = new long[ids.length];
+            revenue = new long[ids.length];
+            items = 0;
+            for (int i = 0; i < oldIds.length; i++) {
+                if (oldIds[i] != EMPTY) addItem(oldIds[i], oldQty[i], oldRevenue[i]);
+            }
+        }
+
+        void merge(Partial o) {
+            orders += o.orders;
+            lines += o.lines;
+            gross += o.gross;
+            discount += o.discount;
+            net += o.net;
+            discountedOrders += o.discountedOrders;
+            discountedNet += o.discountedNet;
+            for (int h = 0; h < 24; h++) {
+                hourOrders[h] += o.hourOrders[h];
+                hourNet[h] += o.hourNet[h];
+            }
+            for (int i = 0; i < o.ids.length; i++) {
+                if (o.ids[i] != EMPTY) addItem(o.ids[i], o.qty[i], o.revenue[i]);
+            }
+        }
+
+        SalesReport toReport(LocalDate from, LocalDate to, MenuSnapshot menu) {
+            SalesReport r = new SalesReport(from, to);
+            r.setOrders(orders);
+            r.setLines(lines);
+            r.setGrossPaise(gross);
+            r.setDiscountPaise(discount);
+            r.setNetPaise(net);
+            r.setDiscountedOrders(discountedOrders);
+            r.setDiscountedNetPaise(discountedNet);
+            System.arraycopy(hourOrders, 0, r.getOrdersByHour(), 0, 24);
+            System.arraycopy(hourNet, 0, r.getNetByHourPaise(), 0, 24);
+
+            Map<String, SalesReport.CategorySales> categories = new LinkedHashMap<>();
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] == EMPTY) continue;
+                int idx = menu == null ? -1 : menu.indexOf(ids[i]);
+                // items deleted since they were sold are no longer on the menu
+                String name = idx < 0 ? "Item #" + ids[i] : menu.name(idx);
+                String category = idx < 0 || menu.categoryName(idx) == null ? "Other" : menu.categoryName(idx);
+                r.getByItem().add(new SalesReport.ItemSales(ids[i], name, category, qty[i], revenue[i]));
+                categories.computeIfAbsent(category, SalesReport.CategorySales::new).add(qty[i], revenue[i]);
+            }
+            r.getByItem().sort((a, b) -> Long.compare(b.getRevenuePaise(), a.getRevenuePaise()));
+            r.getByCategory().addAll(categories.values());
+            r.getByCategory().sort((a, b) -> Long.compare(b.getRevenuePaise(), a.getRevenuePaise()));
+            return r;
+        }
+
+        private static int[] newIds(int n) {
+            int[] a = new int[n];
+            Arrays.fill(a, EMPTY);
+            return a;
+        }
+
+        private static int mix(int v) {
+            int h = v * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
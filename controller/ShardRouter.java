@@ -0,0 +1,108 @@
+package controller;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Maps branch ids to their databases. Each outlet has its own database (db.branch.ID.url) with
+ * its own orders, order_items, stock and rollups. This process belongs to branch.id, and that
+ * branch's node is the primary behind DBConnection.getConnection(), so checkout, restocking and
+ * every other write land on the branch's own node. Connections to the other branches in
+ * branches (head office summaries) come from small pools opened on first use.
+ */
+public class ShardRouter {
+    public static final String BRANCH_ID = AppConfig.get("branch.id", "main");
+
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private static final ShardRouter SHARED = new ShardRouter(branches(), AppConfig.getInt("db.branch.pool.maxSize", 2));
+
+    public static ShardRouter shared() { return SHARED; }
+
+    private final List<String> branches;
+    private final int poolSize;
+    private final Map<String, ConnectionPool> pools = new ConcurrentHashMap<>();
+    private final ExecutorService workers;
+
+    public ShardRouter(List<String> branches, int poolSize) {
+        this.branches = Collections.unmodifiableList(new ArrayList<>(branches));
+        this.poolSize = Math.max(1, poolSize);
+        // as many threads as branches, so a consolidated query reaches every branch at once; a query
+        // that outlives its caller keeps its thread until the statement's query timeout ends it
+        this.workers = Executors.newFixedThreadPool(Math.max(1, branches.size()), r -> {
+            Thread t = new Thread(r, "branch-query-" + THREADS.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Runtime.getRuntime().addShutdownHook(new Thread(this::close, "branch-pools-shutdown"));
+    }
+
+    private static List<String> branches() {
+        List<String> out = new ArrayList<>();
+        for (String b : AppConfig.get("branches", BRANCH_ID).split(",")) {
+            if (!b.trim().isEmpty() && !out.contains(b.trim())) out.add(b.trim());
+        }
+        if (!out.contains(BRANCH_ID)) out.add(0, BRANCH_ID);
+        return out;
+    }
+
+    /** Every configured branch, this one included. */
+    public List<String> getBranches() { return branches; }
+
+    public boolean isLocal(String branchId) { return BRANCH_ID.equals(branchId); }
+
+    /** A connection to the branch's primary; this branch's comes from the shared pool. */
+    public Connection getConnection(String branchId) throws SQLException {
+        if (isLocal(branchId)) return DBConnection.getConnection();
+        if (!branches.contains(branchId)) throw new SQLException("Unknown branch: " + branchId);
+        ConnectionPool pool;
+        try {
+            pool = pools.computeIfAbsent(branchId, this::open);
+        } catch (IllegalStateException ex) {
+            throw new SQLException(ex.getMessage(), "08001", ex);
+        }
+        return Metrics.shared().time("db.acquireBranch", pool::getConnection);
+    }
+
+    private ConnectionPool open(String branchId) {
+        String prefix = "db.branch." + branchId + ".";
+        String url = AppConfig.get(prefix + "url", null);
+        if (url == null) throw new IllegalStateException(prefix + "url is not set");
+        return new ConnectionPool(url, AppConfig.get(prefix + "user", AppConfig.get("db.user", "javadb")),
+                AppConfig.get(prefix + "password", AppConfig.get("db.password", "1234")),
+                poolSize, 0,
+                AppConfig.getLong("db.pool.acquireTimeoutMs", 5000),
+                AppConfig.getLong("db.pool.idleTimeoutMs", 600_000),
+                AppConfig.getLong("db.pool.validateAfterMs", 30_000),
+                AppConfig.getInt("db.pool.validationTimeoutSec", 2),
+                AppConfig.getLong("db.pool.leakThresholdMs", 60_000),
+                AppConfig.getBoolean("db.pool.leakTrace", false),
+                AppConfig.getInt("db.pool.statementCacheSize", 64));
+    }
+
+    /** Work run against one branch. */
+    public interface BranchCall<T> {
+        T call(String branchId) throws Exception;
+    }
+
+    /** Starts the call on every branch at once; results are keyed by branch id, in branch order. */
+    public <T> Map<String, Future<T>> scatter(BranchCall<T> call) {
+        Map<String, Future<T>> out = new LinkedHashMap<>();
+        for (String b : branches) out.put(b, workers.submit(() -> call.call(b)));
+        return out;
+    }
+
+    private void close() {
+        workers.shutdownNow();
+        for (ConnectionPool p : pools.values()) p.close();
+    }
+}
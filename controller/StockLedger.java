@@ -0,0 +1,172 @@
+package controller;
+
+import repository.MenuRepository;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stock reservations, so carts hold stock from the moment an item is added.
+ * Each item has one AtomicLong packing (stock, reserved): stock is the last known
+ * menu_items.available_qty and reserved is what open carts hold. Every operation is a
+ * single lock-free CAS. Stock is periodically reconciled with the database
+ * (stock.ledger.reconcileMs); the guarded UPDATE in placeOrder remains the final check.
+ * Checkout brackets its database write with beginCommit and commit (or abandonCommit), and
+ * reconciliation leaves alone any item with a commit in flight while it read the database,
+ * since it cannot tell whether the value it read already includes that order.
+ */
+public class StockLedger {
+    private static final StockLedger SHARED = new StockLedger(AppConfig.getLong("stock.ledger.reconcileMs", 30_000));
+
+    public static StockLedger shared() { return SHARED; }
+
+    private final Map<Integer, Counter> counters = new ConcurrentHashMap<>();
+
+    public StockLedger(long reconcileMs) {
+        if (reconcileMs > 0) {
+            ScheduledExecutorService reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "stock-ledger-reconcile");
+                t.setDaemon(true);
+                return t;
+            });
+            reconciler.scheduleWithFixedDelay(this::reconcileAll, reconcileMs, reconcileMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isTracked(int itemId) {
+        return counters.containsKey(itemId);
+    }
+
+    /** Starts tracking an item with its database stock; no-op if already tracked. */
+    public void track(int itemId, int stock) {
+        counters.putIfAbsent(itemId, new Counter(pack(stock, 0)));
+    }
+
+    /** Stock not held by any cart, or -1 if the item is not tracked. */
+    public int available(int itemId) {
+        Counter c = counters.get(itemId);
+        if (c == null) return -1;
+        long v = c.get();
+        return stock(v) - reserved(v);
+    }
+
+    /** Last known database stock, or -1 if the item is not tracked. */
+    public int stock(int itemId) {
+        Counter c = counters.get(itemId);
+        return c == null ? -1 : stock(c.get());
+    }
+
+    /** Holds qty for a cart; false (and nothing held) if not enough is free. */
+    public boolean reserve(int itemId, int qty) {
+        Counter c = counters.get(itemId);
+        if (c == null) return false;
+        while (true) {
+            long v = c.get();
+            int stock = stock(v), reserved = reserved(v);
+            if (stock - reserved < qty) return false;
+            if (c.compareAndSet(v, pack(stock, reserved + qty))) return true;
+        }
+    }
+
+    /** Returns a cart's hold, e.g. when the cart is cleared or expires. */
+    public void release(int itemId, int qty) {
+        Counter c = counters.get(itemId);
+        if (c == null) return;
+        while (true) {
+            long v = c.get();
+            if (c.compareAndSet(v, pack(stock(v), Math.max(0, reserved(v) - qty)))) return;
+        }
+    }
+
+    /** An order for the item is about to be written to the database (or journal). */
+    public void beginCommit(int itemId) {
+        Counter c = counters.get(itemId);
+        if (c == null) return;
+        c.inFlight.incrementAndGet();
+        c.commits.incrementAndGet();
+    }
+
+    /** The write begun with beginCommit failed; stock and holds stay as they were. */
+    public void abandonCommit(int itemId) {
+        Counter c = counters.get(itemId);
+        if (c == null) return;
+        c.commits.incrementAndGet();
+        c.inFlight.decrementAndGet();
+    }
+
+    /** An order was committed: the hold is consumed and the stock drops by the same amount. */
+    public void commit(int itemId, int qty) {
+        Counter c = counters.get(itemId);
+        if (c == null) return;
+        while (true) {
+            long v = c.get();
+            if (c.compareAndSet(v, pack(stock(v) - qty, Math.max(0, reserved(v) - qty)))) break;
+        }
+        c.commits.incrementAndGet();
+        c.inFlight.decrementAndGet();
+    }
+
+    /** Replaces the known stock with the database value, keeping outstanding holds. True if the stock changed. */
+    public boolean reconcile(int itemId, int stock) {
+        Counter c = counters.get(itemId);
+        if (c == null) return false;
+        while (true) {
+            long v = c.get();
+            if (c.compareAndSet(v, pack(stock, reserved(v)))) return stock(v) != stock;
+        }
+    }
+
+    /**
+     * Re-reads stock for every tracked item, less what journaled orders not yet in the database
+     * will take. Changes made elsewhere (other terminals, manual edits) are announced as a
+     * StockChanged event.
+     */
+    public void reconcileAll() {
+        if (counters.isEmpty()) return;
+        // items with no commit in flight now; skipped below if one begins or ends before the update
+        Map<Integer, Long> quiet = new HashMap<>();
+        for (Map.Entry<Integer, Counter> e : counters.entrySet()) {
+            long commits = e.getValue().commits.get();
+            if (e.getValue().inFlight.get() == 0) quiet.put(e.getKey(), commits);
+        }
+        Map<Integer, Integer> changed = new HashMap<>();
+        // read the journal first: an order replayed in between is then subtracted twice, never missed
+        OrderJournal journal = OrderJournal.shared();
+        Map<Integer, Integer> pending = journal == null ? new HashMap<>() : journal.pendingQuantities();
+        try {
+            for (Map.Entry<Integer, Integer> e : MenuRepository.findStock().entrySet()) {
+                Counter c = counters.get(e.getKey());
+                Long commits = quiet.get(e.getKey());
+                if (c == null || commits == null || c.commits.get() != commits) continue; // next round
+                int stock = e.getValue() - pending.getOrDefault(e.getKey(), 0);
+                if (reconcile(e.getKey(), stock)) changed.put(e.getKey(), stock);
+            }
+        } catch (SQLException ex) { ex.printStackTrace(); }
+        if (!changed.isEmpty()) ChangeEvents.shared().emit(new ChangeEvents.StockChanged(changed));
+    }
+
+    /** The packed (stock, reserved) value, plus what reconcileAll needs to stay clear of checkouts. */
+    private static final class Counter extends AtomicLong {
+        /** Orders between beginCommit and commit or abandonCommit. */
+        final AtomicInteger inFlight = new AtomicInteger();
+        /** Bumped when a commit begins and when it ends. */
+        final AtomicLong commits = new AtomicLong();
+
+        Counter(long initial) { super(initial); }
+    }
+
+    private static long pack(int stock, int reserved) {
+        return ((long) stock << 32) | (reserved & 0xFFFFFFFFL);
+    }
+
+    private static int stock(long v) { return (int) (v >> 32); }
+
+    private static int reserved(long v) { return (int) v; }
+}
@@ -0,0 +1,203 @@
+package controller;
+
+import model.Order;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fans committed orders out to in-process consumers (kitchen stations, printers, displays)
+ * through a preallocated ring buffer of kitchen.bus.capacity slots.
+ * Every consumer runs on its own thread and tracks its own sequence. Publishing never waits for
+ * a consumer: it claims the next sequence with a CAS and overwrites the slot, so checkout costs
+ * the same however slow a consumer is. A consumer that falls a whole ring behind (a hung bill
+ * printer, say) is lapped: it notices when it gets to the overwritten slot, skips to the oldest
+ * ticket still in the ring and counts the ones it missed in its own drop count, while the other
+ * consumers keep every ticket. An idle consumer spins briefly and then blocks until the next
+ * publish signals it; the lock is only taken when someone is actually waiting.
+ */
+public class TicketBus {
+    private static final Logger LOG = Logger.getLogger(TicketBus.class.getName());
+
+    private static final TicketBus SHARED = new TicketBus(AppConfig.getInt("kitchen.bus.capacity", 4096));
+
+    public static TicketBus shared() { return SHARED; }
+
+    /** Receives every published order in sequence order, on the consumer's own thread. */
+    public interface Handler {
+        void onTicket(Order order, long sequence) throws Exception;
+    }
+
+    private static final int IDLE_SPINS = 100;
+    /** Slot state while a publisher is writing it. */
+    private static final long WRITING = -2;
+
+    private final Slot[] ring;
+    private final int mask;
+    /** Highest claimed sequence; -1 before the first publish. */
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    /** Tickets lost before any consumer could see them (a publisher lapped while writing). */
+    private final AtomicLong lost = new AtomicLong();
+
+    // idle consumers wait on notEmpty; publishers signal it only when one is waiting
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final AtomicInteger idleConsumers = new AtomicInteger();
+
+    public TicketBus(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1; // next power of two
+        ring = new Slot[size];
+        for (int i = 0; i < size; i++) ring[i] = new Slot();
+        mask = size - 1;
+    }
+
+    /**
+     * Starts a consumer; it sees tickets published from now on. The handler's exceptions are
+     * logged and the consumer moves on to the next ticket.
+     */
+    public synchronized void subscribe(String name, Handler handler) {
+        Subscriber s = new Subscriber(name, handler, claimed.get());
+        subscribers.add(s);
+        Thread t = new Thread(s, "ticket-" + name);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    /**
+     * Publishes an order without waiting for any consumer. False only in the unlikely case that
+     * this publisher stalled for a whole ring and its slot was already taken by a later ticket.
+     */
+    public boolean publish(Order order) {
+        if (subscribers.isEmpty()) return true;
+        long seq = claimed.incrementAndGet();
+        Slot slot = ring[(int) seq & mask];
+        while (true) {
+            long current = slot.published.get();
+            if (current > seq) {
+                lost.incrementAndGet();
+                return false;
+            }
+            if (current != WRITING && slot.published.compareAndSet(current, WRITING)) break;
+            Thread.onSpinWait(); // another publisher is finishing this slot
+        }
+        slot.order = order;
+        slot.published.set(seq); // publishes the order to the consumers
+        if (idleConsumers.get() > 0) {
+            lock.lock();
+            try {
+                notEmpty.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return true;
+    }
+
+    public long getPublished() { return claimed.get() + 1; }
+    public int getCapacity() { return ring.length; }
+
+    /** Tickets missed across all consumers (each lapped consumer counts its own). */
+    public long getDropped() {
+        long n = lost.get() * subscribers.size();
+        for (Subscriber s : subscribers) n += s.dropped.get();
+        return n;
+    }
+
+    /** Tickets each consumer missed because it fell a whole ring behind, by consumer name. */
+    public Map<String, Long> getDroppedByConsumer() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        for (Subscriber s : subscribers) out.put(s.name, s.dropped.get());
+        return out;
+    }
+
+    /** Tickets each consumer has still to process, by consumer name. */
+    public Map<String, Long> getLag() {
+        Map<String, Long> out = new LinkedHashMap<>();
+        long head = claimed.get();
+        for (Subscriber s : subscribers) out.put(s.name, head - s.sequence.get());
+        return out;
+    }
+
+    public List<String> getSubscribers() {
+        List<String> out = new ArrayList<>();
+        for (Subscriber s : subscribers) out.add(s.name);
+        return out;
+    }
+
+    private static final class Slot {
+        /** Sequence of the ticket in the slot, WRITING while it is being replaced, -1 if never used. */
+        final AtomicLong published = new AtomicLong(-1);
+        volatile Order order;
+    }
+
+    private final class Subscriber implements Runnable {
+        final String name;
+        final Handler handler;
+        /** Last sequence this consumer has finished with. */
+        final AtomicLong sequence;
+        final AtomicLong dropped = new AtomicLong();
+
+        Subscriber(String name, Handler handler, long start) {
+            this.name = name;
+            this.handler = handler;
+            this.sequence = new AtomicLong(start);
+        }
+
+        @Override
+        public void run() {
+            int spins = 0;
+            while (true) {
+                long next = sequence.get() + 1;
+                Slot slot = ring[(int) next & mask];
+                long seen = slot.published.get();
+                if (seen < next) { // not published yet, or being written
+                    if (++spins < IDLE_SPINS) Thread.onSpinWait();
+                    else awaitPublished(slot, next);
+                    continue;
+                }
+                spins = 0;
+                Order order = slot.order;
+                if (seen != next || slot.published.get() != next) {
+                    skip(next);
+                    continue;
+                }
+                try {
+                    handler.onTicket(order, next);
+                } catch (Exception ex) {
+                    LOG.log(Level.WARNING, "Ticket consumer " + name + " failed on order " + order.getOrderId(), ex);
+                }
+                sequence.set(next);
+            }
+        }
+
+        /** The slot for next was overwritten: resume at the oldest ticket still in the ring. */
+        private void skip(long next) {
+            long resume = Math.max(next + 1, claimed.get() - ring.length + 1);
+            dropped.addAndGet(resume - next);
+            sequence.set(resume - 1);
+            LOG.warning("Ticket consumer " + name + " fell a full ring behind and missed " + (resume - next) + " ticket(s)");
+        }
+
+        /** Blocks until the slot holds sequence next or a later one. */
+        private void awaitPublished(Slot slot, long next) {
+            lock.lock();
+            idleConsumers.incrementAndGet();
+            try {
+                while (slot.published.get() < next) notEmpty.awaitUninterruptibly();
+            } finally {
+                idleConsumers.decrementAndGet();
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+-- Restaurant database schema (MySQL; also loads into H2 in MODE=MySQL for local benchmarks).
+
+CREATE TABLE IF NOT EXISTS categories (
+    category_id   INT AUTO_INCREMENT PRIMARY KEY,
+    category_name VARCHAR(100) NOT NULL UNIQUE
+);
+
+CREATE TABLE IF NOT EXISTS menu_items (
+    item_id       INT AUTO_INCREMENT PRIMARY KEY,
+    name          VARCHAR(150) NOT NULL,
+    category_id   INT NOT NULL,
+    price         DECIMAL(10,2) NOT NULL,
+    available_qty INT NOT NULL DEFAULT 0,
+    description   VARCHAR(500),
+    FOREIGN KEY (category_id) REFERENCES categories(category_id)
+);
+
+CREATE TABLE IF NOT EXISTS orders (
+    order_id     INT AUTO_INCREMENT PRIMARY KEY,
+    order_date   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    total_amount DECIMAL(12,2) NOT NULL,
+    discount     DECIMAL(12,2) NOT NULL DEFAULT 0,
+    net_amount   DECIMAL(12,2) NOT NULL,
+    INDEX idx_orders_date (order_date, order_id)
+);
+
+CREATE TABLE IF NOT EXISTS order_items (
+    order_item_id INT AUTO_INCREMENT PRIMARY KEY,
+    order_id      INT NOT NULL,
+    item_id       INT NOT NULL,
+    quantity      INT NOT NULL,
+    price         DECIMAL(10,2) NOT NULL,
+    FOREIGN KEY (order_id) REFERENCES orders(order_id),
+    FOREIGN KEY (item_id) REFERENCES menu_items(item_id)
+);
+
+CREATE TABLE IF NOT EXISTS inventory_logs (
+    log_id       INT AUTO_INCREMENT PRIMARY KEY,
+    item_id      INT NOT NULL,
+    previous_qty INT NOT NULL,
+    new_qty      INT NOT NULL,
+    logged_at    TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Revenue rollups, maintained by OrderRepository.insert in the order's transaction.
+-- AccountController.rebuildRollups() recomputes them from orders.
+CREATE TABLE IF NOT EXISTS daily_sales (
+    sales_date DATE PRIMARY KEY,
+    orders     INT NOT NULL,
+    gross      DECIMAL(14,2) NOT NULL,
+    discount   DECIMAL(14,2) NOT NULL,
+    net        DECIMAL(14,2) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS hourly_sales (
+    sales_date DATE NOT NULL,
+    sales_hour INT NOT NULL,
+    orders     INT NOT NULL,
+    gross      DECIMAL(14,2) NOT NULL,
+    discount   DECIMAL(14,2) NOT NULL,
+    net        DECIMAL(14,2) NOT NULL,
+    PRIMARY KEY (sales_date, sales_hour)
+);
+
+-- Journaled orders already written by OrderJournal's replayer, so a replay after a crash skips them.
+-- journal_id is the random id a journal file gets when it is created, so seqs never repeat under one key.
+CREATE TABLE IF NOT EXISTS journal_applied (
+    journal_id  CHAR(36) NOT NULL,
+    seq         BIGINT NOT NULL,
+    terminal_id VARCHAR(64) NOT NULL,
+    order_id    INT NOT NULL,
+    applied_at  TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (journal_id, seq)
+);
+
+-- Journaled orders the database rejected (SQLState class 22 or 23), set aside so later orders can
+-- be replayed. payload is the journal record; items lists the lines for whoever re-enters the order.
+CREATE TABLE IF NOT EXISTS journal_dead_letters (
+    journal_id  CHAR(36) NOT NULL,
+    seq         BIGINT NOT NULL,
+    terminal_id VARCHAR(64) NOT NULL,
+    order_time  TIMESTAMP NOT NULL,
+    net_amount  DECIMAL(12,2) NOT NULL,
+    items       VARCHAR(2000) NOT NULL,
+    sql_state   VARCHAR(5),
+    error       VARCHAR(1000),
+    payload     BLOB NOT NULL,
+    failed_at   TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (journal_id, seq)
+);
@@ -0,0 +1,126 @@
+package bench;
+
+import controller.AccountController;
+import controller.AppConfig;
+import controller.MenuController;
+import controller.OrderController;
+import model.MenuItem;
+import model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JMH benchmarks for the controller hot paths against an embedded database seeded by
+ * BenchDatabase (bench.db.* picks another one). Every benchmark returns its result so JMH keeps
+ * the call alive. See README ("Benchmarks") for how to build and run them.
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class ControllerBenchmarks {
+
+    @State(Scope.Benchmark)
+    public static class Db {
+        MenuController menu;
+        OrderController orders;
+        AccountController accounts;
+        int[] ids;
+        List<String> categories;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            BenchDatabase.useEmbedded("bench");
+            BenchDatabase.createSchema();
+            BenchDatabase.seed(AppConfig.getInt("bench.stockPerItem", 10_000_000),
+                    AppConfig.getInt("bench.orders", 50_000), AppConfig.getInt("bench.historyDays", 365));
+            ids = BenchDatabase.itemIds();
+            menu = new MenuController();
+            orders = new OrderController();
+            accounts = new AccountController();
+            categories = menu.getCategories();
+        }
+    }
+
+    /** One simulated terminal per benchmark thread, with its own cart session. */
+    @State(Scope.Thread)
+    public static class Terminal {
+        private static final AtomicInteger IDS = new AtomicInteger();
+
+        SplittableRandom rnd;
+        String session;
+        String fullCart;
+        int orders;
+
+        @Setup(Level.Trial)
+        public void setUp(Db db) throws Exception {
+            int id = IDS.incrementAndGet();
+            rnd = new SplittableRandom(42 + id);
+            session = "bench-" + id;
+            fullCart = "bench-subtotal-" + id;
+            for (int i = 0; i < 10; i++) db.orders.addToCart(fullCart, db.ids[i], 1);
+        }
+
+        int item(Db db) {
+            return db.ids[BenchDatabase.skewedIndex(rnd, db.ids.length)];
+        }
+    }
+
+    @Benchmark
+    public List<MenuItem> getAllMenu(Db db) {
+        return db.menu.getAllMenu();
+    }
+
+    @Benchmark
+    public MenuItem findById(Db db, Terminal t) {
+        return db.menu.findById(t.item(db));
+    }
+
+    @Benchmark
+    public List<MenuItem> getMenuByCategory(Db db, Terminal t) {
+        return db.menu.getMenuByCategory(db.categories.get(t.rnd.nextInt(db.categories.size())));
+    }
+
+    @Benchmark
+    public int addToCart(Db db, Terminal t) throws Exception {
+        db.orders.addToCart(t.session, t.item(db), 1);
+        int size = db.orders.getCart(t.session).size();
+        if (size >= 10) db.orders.clearCart(t.session);
+        return size;
+    }
+
+    @Benchmark
+    public long getSubtotal(Db db, Terminal t) {
+        return db.orders.getSubtotalPaise(t.fullCart);
+    }
+
+    @Benchmark
+    public Order placeOrder(Db db, Terminal t) throws Exception {
+        String s = t.session + "-order-" + t.orders++;
+        for (int i = 1 + t.rnd.nextInt(4); i > 0; i--) db.orders.addToCart(s, t.item(db), 1 + t.rnd.nextInt(2));
+        return db.orders.placeOrder(s, t.rnd.nextInt(10) == 0 ? 2000 : 0);
+    }
+
+    @Benchmark
+    public Map<String, Object> getTodaySummary(Db db) {
+        return db.accounts.getTodaySummary();
+    }
+}
@@ -1,14 +1,88 @@
-package main;
-
-import view.MainFrame;
-
-import javax.swing.SwingUtilities;
-
-public class MainApp {
-    public static void main(String[] args) {
-        SwingUtilities.invokeLater(() -> {
-            MainFrame f = new MainFrame();
-            f.setVisible(true);
-        });
-    }
-}
+package main;
+
+import controller.AccountController;
+import controller.AppConfig;
+import controller.CatalogTransfer;
+import controller.Metrics;
+import server.ApiServer;
+import view.MainFrame;
+
+import javax.swing.SwingUtilities;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+
+/**
+ * Starts the Swing UI, the headless HTTP API with --server, or recomputes the revenue rollups
+ * with --rebuild-rollups.
+ * Bulk transfer: --import menu|stock|categories FILE, --export menu|stock|categories FILE and
+ * --export orders FILE [FROM TO] (dates as yyyy-MM-dd, default today). .json/.jsonl files are
+ * read and written as JSON lines, anything else as CSV.
+ */
+public class MainApp {
+    public static void main(String[] args) throws Exception {
+        long started = System.nanoTime();
+        if (args.length > 0 && "--rebuild-rollups".equals(args[0])) {
+            int days = new AccountController().rebuildRollups();
+            System.out.println(days < 0 ? "Rollup rebuild failed." : "Rebuilt rollups for " + days + " day(s).");
+            System.exit(days < 0 ? 1 : 0);
+        }
+        if (args.length >= 3 && ("--import".equals(args[0]) || "--export".equals(args[0]))) {
+            System.exit(transfer(args));
+        }
+        if (args.length > 0 && "--server".equals(args[0])) {
+            ApiServer server = new ApiServer(AppConfig.getInt("server.port", 8080));
+            Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "api-shutdown"));
+            server.start();
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            MainFrame f = new MainFrame();
+            f.setVisible(true);
+            long nanos = System.nanoTime() - started;
+            Metrics.shared().histogram("startup.window").record(nanos);
+            System.out.println("Window shown " + nanos / 1_000_000 + " ms after main ("
+                    + ManagementFactory.getRuntimeMXBean().getUptime() + " ms after JVM start).");
+        });
+    }
+
+    private static int transfer(String[] args) throws Exception {
+        CatalogTransfer transfer = new CatalogTransfer();
+        String kind = args[1];
+        CatalogTransfer.Format format = CatalogTransfer.Format.forFile(args[2]);
+        if ("--import".equals(args[0])) {
+            CatalogTransfer.ImportResult result;
+            try (Reader in = Files.newBufferedReader(Paths.get(args[2]), StandardCharsets.UTF_8)) {
+                switch (kind) {
+                    case "menu": result = transfer.importMenu(in, format); break;
+                    case "stock": result = transfer.importStock(in, format); break;
+                    case "categories": result = transfer.importCategories(in, format); break;
+                    default: System.err.println("Unknown import: " + kind); return 2;
+                }
+            }
+            for (String error : result.getErrors()) System.err.println(error);
+            System.out.println(result);
+            return result.getRejected() > 0 ? 1 : 0;
+        }
+        long rows;
+        try (Writer out = Files.newBufferedWriter(Paths.get(args[2]), StandardCharsets.UTF_8)) {
+            switch (kind) {
+                case "menu": rows = transfer.exportMenu(out, format); break;
+                case "stock": rows = transfer.exportStock(out, format); break;
+                case "categories": rows = transfer.exportCategories(out, format); break;
+                case "orders":
+                    LocalDate from = args.length > 3 ? LocalDate.parse(args[3]) : LocalDate.now();
+                    LocalDate to = args.length > 4 ? LocalDate.parse(args[4]) : from;
+                    rows = transfer.exportOrders(out, format, from, to);
+                    break;
+                default: System.err.println("Unknown export: " + kind); return 2;
+            }
+        }
+        System.out.println("Exported " + rows + " row(s).");
+        return 0;
+    }
+}
@@ -0,0 +1,116 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * One customer's cart, keyed by item id so adding an item already in the cart is O(1).
+ * Thread-safe; callers that need several operations to be atomic hold lock(). It is a
+ * ReentrantLock rather than the cart's monitor because checkout holds it across the database
+ * transaction, which would pin the carrier of a virtual thread.
+ */
+public class Cart {
+    private final String sessionId;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Integer, OrderItem> items = new LinkedHashMap<>();
+    /** Running total in paise, kept in step with items. */
+    private long subtotalPaise;
+    private volatile long lastAccess = System.currentTimeMillis();
+    private boolean expired;
+
+    public Cart(String sessionId) { this.sessionId = sessionId; }
+
+    public String getSessionId() { return sessionId; }
+    public long getLastAccess() { return lastAccess; }
+    public void touch() { lastAccess = System.currentTimeMillis(); }
+
+    public void lock() { lock.lock(); }
+    public void unlock() { lock.unlock(); }
+
+    /** Adds qty of an item, merging with an existing line. Returns the updated line. */
+    public OrderItem add(int itemId, String name, int qty, long pricePaise) {
+        return add(itemId, name, null, qty, pricePaise);
+    }
+
+    public OrderItem add(int itemId, String name, String categoryName, int qty, long pricePaise) {
+        lock.lock();
+        try {
+            touch();
+            OrderItem oi = items.get(itemId);
+            if (oi == null) {
+                oi = new OrderItem(itemId, name, categoryName, qty, pricePaise);
+                items.put(itemId, oi);
+            } else {
+                oi.setQuantity(oi.getQuantity() + qty);
+            }
+            subtotalPaise += oi.getPricePaise() * qty;
+            return oi;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public List<OrderItem> getItems() {
+        lock.lock();
+        try {
+            List<OrderItem> out = new ArrayList<>(items.size());
+            for (OrderItem oi : items.values()) out.add(new OrderItem(oi.getItemId(), oi.getName(), oi.getCategoryName(), oi.getQuantity(), oi.getPricePaise()));
+            return out;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** O(1): maintained by add and clear. */
+    public long getSubtotalPaise() {
+        lock.lock();
+        try {
+            return subtotalPaise;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        lock.lock();
+        try {
+            return items.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            touch();
+            items.clear();
+            subtotalPaise = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isExpired() {
+        lock.lock();
+        try {
+            return expired;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Marks the cart expired if it has been idle longer than ttlMs; waits out a checkout in progress. */
+    public boolean expireIfIdle(long now, long ttlMs) {
+        lock.lock();
+        try {
+            if (!expired && now - lastAccess > ttlMs) expired = true;
+            return expired;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
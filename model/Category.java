@@ -1,14 +1,14 @@
-package model;
-
-public class Category {
-    private int categoryId;
-    private String categoryName;
-
-    public Category() {}
-    public Category(int id, String name) { this.categoryId = id; this.categoryName = name; }
-
-    public int getCategoryId() { return categoryId; }
-    public void setCategoryId(int categoryId) { this.categoryId = categoryId; }
-    public String getCategoryName() { return categoryName; }
-    public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
-}
+package model;
+
+public class Category {
+    private int categoryId;
+    private String categoryName;
+
+    public Category() {}
+    public Category(int id, String name) { this.categoryId = id; this.categoryName = name; }
+
+    public int getCategoryId() { return categoryId; }
+    public void setCategoryId(int categoryId) { this.categoryId = categoryId; }
+    public String getCategoryName() { return categoryName; }
+    public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
+}
@@ -0,0 +1,84 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sales of every branch over a date range, from each branch's daily_sales rollup, with the
+ * totals across the branches that answered. Money is in paise.
+ */
+public class ConsolidatedSales {
+    private final LocalDate from;
+    private final LocalDate to;
+    private final List<BranchSales> branches = new ArrayList<>();
+    private long orders;
+    private long grossPaise;
+    private long discountPaise;
+    private long netPaise;
+
+    public ConsolidatedSales(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    /** One entry per configured branch, including those that could not be reached. */
+    public List<BranchSales> getBranches() { return branches; }
+    public long getOrders() { return orders; }
+    public long getGrossPaise() { return grossPaise; }
+    public long getDiscountPaise() { return discountPaise; }
+    public long getNetPaise() { return netPaise; }
+
+    /** Adds a branch; only branches without an error count towards the totals. */
+    public void add(BranchSales b) {
+        branches.add(b);
+        if (b.getError() != null) return;
+        orders += b.getOrders();
+        grossPaise += b.getGrossPaise();
+        discountPaise += b.getDiscountPaise();
+        netPaise += b.getNetPaise();
+    }
+
+    /** False if any branch is missing from the totals. */
+    public boolean isComplete() {
+        for (BranchSales b : branches) if (b.getError() != null) return false;
+        return true;
+    }
+
+    public static class BranchSales {
+        private final String branchId;
+        private final long orders;
+        private final long grossPaise;
+        private final long discountPaise;
+        private final long netPaise;
+        private final String error;
+
+        public BranchSales(String branchId, long orders, long grossPaise, long discountPaise, long netPaise) {
+            this(branchId, orders, grossPaise, discountPaise, netPaise, null);
+        }
+
+        private BranchSales(String branchId, long orders, long grossPaise, long discountPaise, long netPaise, String error) {
+            this.branchId = branchId;
+            this.orders = orders;
+            this.grossPaise = grossPaise;
+            this.discountPaise = discountPaise;
+            this.netPaise = netPaise;
+            this.error = error;
+        }
+
+        /** A branch whose database did not answer. */
+        public static BranchSales unavailable(String branchId, String error) {
+            return new BranchSales(branchId, 0, 0, 0, 0, error == null ? "unavailable" : error);
+        }
+
+        public String getBranchId() { return branchId; }
+        public long getOrders() { return orders; }
+        public long getGrossPaise() { return grossPaise; }
+        public long getDiscountPaise() { return discountPaise; }
+        public long getNetPaise() { return netPaise; }
+        /** Why the branch is missing from the totals, or null. */
+        public String getError() { return error; }
+    }
+}
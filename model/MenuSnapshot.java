@@ -0,0 +1,67 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable, array-backed view of the whole menu for hot lookups (cart entry, pricing).
+ * Items are held in parallel arrays sorted by item id, so a lookup is a binary search over an
+ * int[] followed by plain array reads, with no boxing and no per-lookup allocation.
+ * Stock is as of when the snapshot was built.
+ */
+public final class MenuSnapshot {
+    private final int[] ids;
+    private final String[] names;
+    private final String[] categories;
+    private final long[] pricesPaise;
+    private final int[] stock;
+
+    private MenuSnapshot(int n) {
+        ids = new int[n];
+        names = new String[n];
+        categories = new String[n];
+        pricesPaise = new long[n];
+        stock = new int[n];
+    }
+
+    public static MenuSnapshot of(List<MenuItem> items) {
+        MenuItem[] sorted = items.toArray(new MenuItem[0]);
+        Arrays.sort(sorted, (a, b) -> Integer.compare(a.getItemId(), b.getItemId()));
+        MenuSnapshot s = new MenuSnapshot(sorted.length);
+        for (int i = 0; i < sorted.length; i++) {
+            MenuItem m = sorted[i];
+            s.ids[i] = m.getItemId();
+            s.names[i] = m.getName();
+            s.categories[i] = m.getCategoryName();
+            s.pricesPaise[i] = m.getPricePaise();
+            s.stock[i] = m.getAvailableQty();
+        }
+        return s;
+    }
+
+    /** Index of the item, or -1 if it is not on the menu. */
+    public int indexOf(int itemId) {
+        int lo = 0, hi = ids.length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int v = ids[mid];
+            if (v < itemId) lo = mid + 1;
+            else if (v > itemId) hi = mid - 1;
+            else return mid;
+        }
+        return -1;
+    }
+
+    public int size() { return ids.length; }
+    public int itemId(int index) { return ids[index]; }
+    public String name(int index) { return names[index]; }
+    public String categoryName(int index) { return categories[index]; }
+    public long pricePaise(int index) { return pricesPaise[index]; }
+    public int stock(int index) { return stock[index]; }
+
+    /** Price of an item in paise, or -1 if it is not on the menu. */
+    public long priceOf(int itemId) {
+        int i = indexOf(itemId);
+        return i < 0 ? -1 : pricesPaise[i];
+    }
+}
@@ -0,0 +1,46 @@
+package model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Money is held as a long count of paise (1 rupee = 100 paise) everywhere in the model and
+ * controllers, so sums are exact and need no allocation. These helpers convert at the edges:
+ * DECIMAL columns, user input and display.
+ */
+public final class Money {
+    private Money() {}
+
+    /** DECIMAL(…,2) value to paise; extra decimals are rounded half-up. */
+    public static long fromDecimal(BigDecimal rupees) {
+        return rupees == null ? 0 : rupees.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal toDecimal(long paise) {
+        return BigDecimal.valueOf(paise, 2);
+    }
+
+    /** Parses user input in rupees ("20", "20.5", "₹ 20.50"). Throws NumberFormatException if it is not a number. */
+    public static long parse(String rupees) {
+        String s = rupees.trim();
+        if (s.startsWith("₹")) s = s.substring(1).trim();
+        return fromDecimal(new BigDecimal(s));
+    }
+
+    /** "₹1234.50" */
+    public static String format(long paise) {
+        return append(new StringBuilder(12).append('₹'), paise).toString();
+    }
+
+    /** Appends the amount in rupees with exactly two decimals ("1234.50"); also valid as a JSON number. */
+    public static StringBuilder append(StringBuilder sb, long paise) {
+        if (paise < 0) {
+            sb.append('-');
+            paise = -paise;
+        }
+        sb.append(paise / 100).append('.');
+        long frac = paise % 100;
+        if (frac < 10) sb.append('0');
+        return sb.append(frac);
+    }
+}
@@ -1,30 +1,40 @@
-package model;
-
-import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-
-public class Order {
-    private int orderId;
-    private double discount; // absolute discount amount
-    private double netAmount;
-    private LocalDateTime orderTime;
-    private List<OrderItem> items = new ArrayList<>();
-
-    public Order() {
-        orderTime = LocalDateTime.now();
-    }
-
-    public int getOrderId() { return orderId; }
-    public void setOrderId(int orderId) { this.orderId = orderId; }
-    public double getDiscount() { return discount; }
-    public void setDiscount(double discount) { this.discount = discount; }
-    public double getNetAmount() { return netAmount; }
-    public void setNetAmount(double netAmount) { this.netAmount = netAmount; }
-    public LocalDateTime getOrderTime() { return orderTime; }
-    public List<OrderItem> getItems() { return items; }
-
-    public double getSubtotal() {
-        return items.stream().mapToDouble(OrderItem::getTotal).sum();
-    }
-}
+package model;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class Order {
+    private int orderId;
+    private long journalSeq; // set when the order was taken through the local order journal
+    // money in paise, see Money
+    private long totalPaise;
+    private long discountPaise; // absolute discount amount
+    private long netPaise;
+    private LocalDateTime orderTime;
+    private List<OrderItem> items = new ArrayList<>();
+
+    public Order() {
+        orderTime = LocalDateTime.now();
+    }
+
+    public int getOrderId() { return orderId; }
+    public void setOrderId(int orderId) { this.orderId = orderId; }
+    public long getJournalSeq() { return journalSeq; }
+    public void setJournalSeq(long journalSeq) { this.journalSeq = journalSeq; }
+    public long getTotalPaise() { return totalPaise; }
+    public void setTotalPaise(long totalPaise) { this.totalPaise = totalPaise; }
+    public long getDiscountPaise() { return discountPaise; }
+    public void setDiscountPaise(long discountPaise) { this.discountPaise = discountPaise; }
+    public long getNetPaise() { return netPaise; }
+    public void setNetPaise(long netPaise) { this.netPaise = netPaise; }
+    public LocalDateTime getOrderTime() { return orderTime; }
+    public void setOrderTime(LocalDateTime orderTime) { this.orderTime = orderTime; }
+    public List<OrderItem> getItems() { return items; }
+
+    public long getSubtotalPaise() {
+        long sum = 0;
+        for (int i = 0; i < items.size(); i++) sum += items.get(i).getTotalPaise();
+        return sum;
+    }
+}
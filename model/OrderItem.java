@@ -1,31 +1,39 @@
-package model;
-
-public class OrderItem {
-    private int orderItemId;
-    private int itemId;
-    private String name;
-    private int quantity;
-    private double price;
-
-    public OrderItem() {}
-
-    public OrderItem(int itemId, String name, int quantity, double price) {
-        this.itemId = itemId;
-        this.name = name;
-        this.quantity = quantity;
-        this.price = price;
-    }
-
-    public int getOrderItemId() { return orderItemId; }
-    public void setOrderItemId(int orderItemId) { this.orderItemId = orderItemId; }
-    public int getItemId() { return itemId; }
-    public void setItemId(int itemId) { this.itemId = itemId; }
-    public String getName() { return name; }
-    public void setName(String name) { this.name = name; }
-    public int getQuantity() { return quantity; }
-    public void setQuantity(int quantity) { this.quantity = quantity; }
-    public double getPrice() { return price; }
-    public void setPrice(double price) { this.price = price; }
-    public double getTotal() { return price * quantity; }
-}
-
+package model;
+
+public class OrderItem {
+    private int orderItemId;
+    private int itemId;
+    private String name;
+    private String categoryName;
+    private int quantity;
+    private long pricePaise;
+
+    public OrderItem() {}
+
+    public OrderItem(int itemId, String name, int quantity, long pricePaise) {
+        this.itemId = itemId;
+        this.name = name;
+        this.quantity = quantity;
+        this.pricePaise = pricePaise;
+    }
+
+    public OrderItem(int itemId, String name, String categoryName, int quantity, long pricePaise) {
+        this(itemId, name, quantity, pricePaise);
+        this.categoryName = categoryName;
+    }
+
+    public int getOrderItemId() { return orderItemId; }
+    public void setOrderItemId(int orderItemId) { this.orderItemId = orderItemId; }
+    public int getItemId() { return itemId; }
+    public void setItemId(int itemId) { this.itemId = itemId; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getCategoryName() { return categoryName; }
+    public void setCategoryName(String categoryName) { this.categoryName = categoryName; }
+    public int getQuantity() { return quantity; }
+    public void setQuantity(int quantity) { this.quantity = quantity; }
+    public long getPricePaise() { return pricePaise; }
+    public void setPricePaise(long pricePaise) { this.pricePaise = pricePaise; }
+    public long getTotalPaise() { return pricePaise * quantity; }
+}
+
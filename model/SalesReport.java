@@ -0,0 +1,112 @@
+package model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sales over a date range: order totals, discount impact, and breakdowns by item, category and
+ * hour of day. Money is in paise.
+ */
+public class SalesReport {
+    private final LocalDate from;
+    private final LocalDate to;
+    private long orders;
+    private long lines;
+    private long grossPaise;
+    private long discountPaise;
+    private long netPaise;
+    private long discountedOrders;
+    private long discountedNetPaise;
+    private final long[] ordersByHour = new long[24];
+    private final long[] netByHourPaise = new long[24];
+    private final List<ItemSales> byItem = new ArrayList<>();
+    private final List<CategorySales> byCategory = new ArrayList<>();
+
+    public SalesReport(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+    }
+
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public long getOrders() { return orders; }
+    public void setOrders(long orders) { this.orders = orders; }
+    public long getLines() { return lines; }
+    public void setLines(long lines) { this.lines = lines; }
+    public long getGrossPaise() { return grossPaise; }
+    public void setGrossPaise(long grossPaise) { this.grossPaise = grossPaise; }
+    public long getDiscountPaise() { return discountPaise; }
+    public void setDiscountPaise(long discountPaise) { this.discountPaise = discountPaise; }
+    public long getNetPaise() { return netPaise; }
+    public void setNetPaise(long netPaise) { this.netPaise = netPaise; }
+    public long getDiscountedOrders() { return discountedOrders; }
+    public void setDiscountedOrders(long discountedOrders) { this.discountedOrders = discountedOrders; }
+    public long getDiscountedNetPaise() { return discountedNetPaise; }
+    public void setDiscountedNetPaise(long discountedNetPaise) { this.discountedNetPaise = discountedNetPaise; }
+    /** Orders placed in each hour of the day (index 0-23). */
+    public long[] getOrdersByHour() { return ordersByHour; }
+    public long[] getNetByHourPaise() { return netByHourPaise; }
+    /** Best sellers by revenue first. */
+    public List<ItemSales> getByItem() { return byItem; }
+    public List<CategorySales> getByCategory() { return byCategory; }
+
+    /** Net amount per order. */
+    public long getAverageTicketPaise() {
+        return orders == 0 ? 0 : netPaise / orders;
+    }
+
+    public long getAverageDiscountedTicketPaise() {
+        return discountedOrders == 0 ? 0 : discountedNetPaise / discountedOrders;
+    }
+
+    public long getAverageFullPriceTicketPaise() {
+        long n = orders - discountedOrders;
+        return n == 0 ? 0 : (netPaise - discountedNetPaise) / n;
+    }
+
+    /** Discount given as a share of gross, in basis points (1/100 of a percent). */
+    public long getDiscountRateBp() {
+        return grossPaise == 0 ? 0 : discountPaise * 10_000 / grossPaise;
+    }
+
+    public static class ItemSales {
+        private final int itemId;
+        private final String name;
+        private final String categoryName;
+        private final long quantity;
+        private final long revenuePaise;
+
+        public ItemSales(int itemId, String name, String categoryName, long quantity, long revenuePaise) {
+            this.itemId = itemId;
+            this.name = name;
+            this.categoryName = categoryName;
+            this.quantity = quantity;
+            this.revenuePaise = revenuePaise;
+        }
+
+        public int getItemId() { return itemId; }
+        public String getName() { return name; }
+        public String getCategoryName() { return categoryName; }
+        public long getQuantity() { return quantity; }
+        /** Line totals before order discounts. */
+        public long getRevenuePaise() { return revenuePaise; }
+    }
+
+    public static class CategorySales {
+        private final String name;
+        private long quantity;
+        private long revenuePaise;
+
+        public CategorySales(String name) { this.name = name; }
+
+        public String getName() { return name; }
+        public long getQuantity() { return quantity; }
+        public long getRevenuePaise() { return revenuePaise; }
+
+        public void add(long quantity, long revenuePaise) {
+            this.quantity += quantity;
+            this.revenuePaise += revenuePaise;
+        }
+    }
+}
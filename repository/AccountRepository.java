@@ -0,0 +1,120 @@
+package repository;
+
+import controller.DBConnection;
+import model.Money;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+
+/**
+ * SQL for the daily_sales / hourly_sales rollups and the order scans behind sales reports.
+ * Report scans read from a replica when one is usable. Today's rollup row is read from the
+ * primary: it seeds the in-memory counter that this terminal's own orders then add to, so it
+ * must already include them.
+ */
+public final class AccountRepository {
+    private AccountRepository() {}
+
+    /** Receives one chunk of a sales scan; money is in paise. */
+    public interface SalesVisitor {
+        void order(int hour, long grossPaise, long discountPaise, long netPaise);
+
+        void line(int itemId, int quantity, long amountPaise);
+    }
+
+    /** {orders, net paise, discount paise} from the day's rollup row, or null if there is none. */
+    public static long[] findDailySales(LocalDate day) throws SQLException {
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT orders, net, discount FROM daily_sales WHERE sales_date = ?")) {
+            ps.setDate(1, Date.valueOf(day));
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next()) return null;
+                return new long[]{rs.getInt(1), Money.fromDecimal(rs.getBigDecimal(2)), Money.fromDecimal(rs.getBigDecimal(3))};
+            }
+        }
+    }
+
+    /**
+     * {orders, gross, discount, net} (money in paise) from one branch's daily_sales rows between
+     * from and to, inclusive. The query is cancelled by the driver after timeoutSec, since
+     * interrupting the calling thread does not stop a blocked JDBC read.
+     */
+    public static long[] findBranchSales(String branchId, LocalDate from, LocalDate to, int timeoutSec) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(orders), 0), COALESCE(SUM(gross), 0), COALESCE(SUM(discount), 0), COALESCE(SUM(net), 0) "
+                + "FROM daily_sales WHERE sales_date >= ? AND sales_date <= ?";
+        try (Connection c = DBConnection.getConnection(branchId);
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            ps.setQueryTimeout(timeoutSec);
+            ps.setDate(1, Date.valueOf(from));
+            ps.setDate(2, Date.valueOf(to));
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return new long[]{rs.getLong(1), Money.fromDecimal(rs.getBigDecimal(2)),
+                        Money.fromDecimal(rs.getBigDecimal(3)), Money.fromDecimal(rs.getBigDecimal(4))};
+            }
+        }
+    }
+
+    /** Recomputes daily_sales and hourly_sales from orders in one transaction; returns the number of days. */
+    public static int rebuildRollups() throws SQLException {
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try (Statement st = c.createStatement()) {
+                st.executeUpdate("DELETE FROM hourly_sales");
+                st.executeUpdate("DELETE FROM daily_sales");
+                int days = st.executeUpdate("INSERT INTO daily_sales (sales_date, orders, gross, discount, net) "
+                        + "SELECT DATE(order_date), COUNT(*), SUM(total_amount), SUM(discount), SUM(net_amount) FROM orders GROUP BY DATE(order_date)");
+                st.executeUpdate("INSERT INTO hourly_sales (sales_date, sales_hour, orders, gross, discount, net) "
+                        + "SELECT DATE(order_date), HOUR(order_date), COUNT(*), SUM(total_amount), SUM(discount), SUM(net_amount) FROM orders GROUP BY DATE(order_date), HOUR(order_date)");
+                c.commit();
+                return days;
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Streams the orders placed in [from, to), then their lines, into the visitor on one
+     * connection. Rows are fetched fetchSize at a time and never collected.
+     */
+    public static void scanSales(LocalDate from, LocalDate to, int fetchSize, SalesVisitor visitor) throws SQLException {
+        String ordersSql = "SELECT order_date, total_amount, discount, net_amount FROM orders WHERE order_date >= ? AND order_date < ?";
+        String linesSql = "SELECT oi.item_id, oi.quantity, oi.price FROM orders o JOIN order_items oi ON oi.order_id = o.order_id "
+                + "WHERE o.order_date >= ? AND o.order_date < ?";
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.atStartOfDay());
+        try (Connection c = DBConnection.getReadConnection()) {
+            // the three-argument form bypasses the statement cache, so the fetch size stays with this scan
+            try (PreparedStatement ps = c.prepareStatement(ordersSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(fetchSize);
+                ps.setTimestamp(1, start);
+                ps.setTimestamp(2, end);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        visitor.order(rs.getTimestamp(1).toLocalDateTime().getHour(), Money.fromDecimal(rs.getBigDecimal(2)),
+                                Money.fromDecimal(rs.getBigDecimal(3)), Money.fromDecimal(rs.getBigDecimal(4)));
+                    }
+                }
+            }
+            try (PreparedStatement ps = c.prepareStatement(linesSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(fetchSize);
+                ps.setTimestamp(1, start);
+                ps.setTimestamp(2, end);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        int qty = rs.getInt(2);
+                        visitor.line(rs.getInt(1), qty, qty * Money.fromDecimal(rs.getBigDecimal(3)));
+                    }
+                }
+            }
+        }
+    }
+}
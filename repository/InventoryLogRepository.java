@@ -0,0 +1,29 @@
+package repository;
+
+import controller.DBConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/** SQL for inventory_logs. */
+public final class InventoryLogRepository {
+    private InventoryLogRepository() {}
+
+    /** Inserts {item id, previous qty, new qty} rows in one batch and transaction. */
+    public static void insertAll(List<int[]> rows) throws SQLException {
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement("INSERT INTO inventory_logs (item_id, previous_qty, new_qty) VALUES (?, ?, ?)")) {
+            c.setAutoCommit(false);
+            for (int[] row : rows) {
+                ps.setInt(1, row[0]);
+                ps.setInt(2, row[1]);
+                ps.setInt(3, row[2]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+            c.commit();
+        }
+    }
+}
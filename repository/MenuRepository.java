@@ -0,0 +1,154 @@
+package repository;
+
+import controller.DBConnection;
+import model.MenuItem;
+import model.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL for categories, menu items and their stock.
+ * Catalog reads (names, prices, categories) may come from a read replica; stock is always read
+ * from the primary, since it decides what can still be sold.
+ */
+public final class MenuRepository {
+    private static final String ITEM_COLUMNS = "SELECT mi.item_id, mi.name, mi.category_id, c.category_name, mi.price, mi.available_qty, mi.description "
+            + "FROM menu_items mi JOIN categories c ON mi.category_id = c.category_id";
+
+    static final RowMapper<MenuItem> MENU_ITEM = rs -> {
+        int id = rs.findColumn("item_id");
+        int name = rs.findColumn("name");
+        int categoryId = rs.findColumn("category_id");
+        int categoryName = rs.findColumn("category_name");
+        int price = rs.findColumn("price");
+        int qty = rs.findColumn("available_qty");
+        int description = rs.findColumn("description");
+        return r -> {
+            MenuItem m = new MenuItem();
+            m.setItemId(r.getInt(id));
+            m.setName(r.getString(name));
+            m.setCategoryId(r.getInt(categoryId));
+            m.setCategoryName(r.getString(categoryName));
+            m.setPricePaise(Money.fromDecimal(r.getBigDecimal(price)));
+            m.setAvailableQty(r.getInt(qty));
+            m.setDescription(r.getString(description));
+            return m;
+        };
+    };
+
+    private MenuRepository() {}
+
+    public static List<String> findCategoryNames() throws SQLException {
+        List<String> out = new ArrayList<>();
+        try (Connection c = DBConnection.getReadConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT category_name FROM categories ORDER BY category_name");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.add(rs.getString(1));
+        }
+        return out;
+    }
+
+    /** Item id -> available_qty for the whole menu. */
+    public static Map<Integer, Integer> findStock() throws SQLException {
+        Map<Integer, Integer> out = new HashMap<>();
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT item_id, available_qty FROM menu_items");
+             ResultSet rs = ps.executeQuery()) {
+            while (rs.next()) out.put(rs.getInt(1), rs.getInt(2));
+        }
+        return out;
+    }
+
+    public static List<MenuItem> findAll() throws SQLException {
+        try (Connection c = DBConnection.getReadConnection();
+             PreparedStatement ps = c.prepareStatement(ITEM_COLUMNS + " ORDER BY c.category_name, mi.name")) {
+            return Queries.list(ps, MENU_ITEM);
+        }
+    }
+
+    public static List<MenuItem> findByCategory(String categoryName) throws SQLException {
+        try (Connection c = DBConnection.getReadConnection();
+             PreparedStatement ps = c.prepareStatement(ITEM_COLUMNS + " WHERE c.category_name = ? ORDER BY mi.name")) {
+            ps.setString(1, categoryName);
+            return Queries.list(ps, MENU_ITEM);
+        }
+    }
+
+    /** The item, or null if there is no such item. */
+    public static MenuItem findById(int itemId) throws SQLException {
+        try (Connection c = DBConnection.getReadConnection();
+             PreparedStatement ps = c.prepareStatement(ITEM_COLUMNS + " WHERE mi.item_id = ?")) {
+            ps.setInt(1, itemId);
+            return Queries.first(ps, MENU_ITEM);
+        }
+    }
+
+    /** Sets an absolute stock level; false if there is no such item. */
+    public static boolean setStock(int itemId, int qty) throws SQLException {
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement("UPDATE menu_items SET available_qty = ? WHERE item_id = ?")) {
+            ps.setInt(1, qty);
+            ps.setInt(2, itemId);
+            return ps.executeUpdate() == 1;
+        }
+    }
+
+    /** IN-list sizes for the restock row locks; a batch is padded up to one of these. */
+    private static final int[] LOCK_SIZES = {1, 8, 32, 128};
+
+    /**
+     * Adds stock (item id -> qty to add) in one transaction, as relative increments under row
+     * locks. Returns the stock each existing item had before; unknown ids are skipped.
+     * The rows are locked with IN lists padded to a few fixed sizes (repeating the last id), so any
+     * batch reuses one of four cached statements rather than preparing a new one per size.
+     */
+    public static Map<Integer, Integer> addStock(Map<Integer, Integer> additions) throws SQLException {
+        Integer[] ids = additions.keySet().toArray(new Integer[0]);
+        Map<Integer, Integer> previous = new HashMap<>();
+        try (Connection c = DBConnection.getConnection()) {
+            c.setAutoCommit(false);
+            try (PreparedStatement update = c.prepareStatement("UPDATE menu_items SET available_qty = available_qty + ? WHERE item_id = ?")) {
+                int max = LOCK_SIZES[LOCK_SIZES.length - 1];
+                for (int from = 0; from < ids.length; from += max) {
+                    int n = Math.min(max, ids.length - from);
+                    int size = LOCK_SIZES[0];
+                    for (int s : LOCK_SIZES) {
+                        size = s;
+                        if (s >= n) break;
+                    }
+                    try (PreparedStatement lock = c.prepareStatement(lockSql(size))) {
+                        for (int i = 0; i < size; i++) lock.setInt(i + 1, ids[from + Math.min(i, n - 1)]);
+                        try (ResultSet rs = lock.executeQuery()) {
+                            while (rs.next()) previous.put(rs.getInt(1), rs.getInt(2));
+                        }
+                    }
+                }
+                for (Map.Entry<Integer, Integer> e : additions.entrySet()) {
+                    if (!previous.containsKey(e.getKey())) continue;
+                    update.setInt(1, e.getValue());
+                    update.setInt(2, e.getKey());
+                    update.addBatch();
+                }
+                update.executeBatch();
+                c.commit();
+            } catch (SQLException ex) {
+                c.rollback();
+                throw ex;
+            }
+        }
+        return previous;
+    }
+
+    private static String lockSql(int size) {
+        StringBuilder sb = new StringBuilder("SELECT item_id, available_qty FROM menu_items WHERE item_id IN (?");
+        for (int i = 1; i < size; i++) sb.append(",?");
+        return sb.append(") FOR UPDATE").toString();
+    }
+}
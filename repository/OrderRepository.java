@@ -0,0 +1,259 @@
+package repository;
+
+import controller.DBConnection;
+import model.Money;
+import model.Order;
+import model.OrderItem;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * SQL for orders, their lines, the revenue rollups they update, and the order journal's
+ * journal_applied and journal_dead_letters.
+ * Order history is read from a replica when one is usable; writes use the connection passed in
+ * or the primary.
+ */
+public final class OrderRepository {
+    /** SQLState of the failure raised when a guarded stock update finds too little stock. */
+    public static final String INSUFFICIENT_STOCK = "45000";
+
+    private static final String ORDER_COLUMNS = "SELECT order_id, order_date, total_amount, discount, net_amount FROM orders";
+
+    static final RowMapper<Order> ORDER = rs -> {
+        int id = rs.findColumn("order_id");
+        int date = rs.findColumn("order_date");
+        int total = rs.findColumn("total_amount");
+        int discount = rs.findColumn("discount");
+        int net = rs.findColumn("net_amount");
+        return r -> {
+            Order o = new Order();
+            o.setOrderId(r.getInt(id));
+            o.setOrderTime(r.getTimestamp(date).toLocalDateTime());
+            o.setTotalPaise(Money.fromDecimal(r.getBigDecimal(total)));
+            o.setDiscountPaise(Money.fromDecimal(r.getBigDecimal(discount)));
+            o.setNetPaise(Money.fromDecimal(r.getBigDecimal(net)));
+            return o;
+        };
+    };
+
+    static final RowMapper<OrderItem> ORDER_ITEM = rs -> {
+        int id = rs.findColumn("order_item_id");
+        int itemId = rs.findColumn("item_id");
+        int name = rs.findColumn("name");
+        int category = rs.findColumn("category_name");
+        int qty = rs.findColumn("quantity");
+        int price = rs.findColumn("price");
+        return r -> {
+            OrderItem oi = new OrderItem(r.getInt(itemId), r.getString(name), r.getString(category),
+                    r.getInt(qty), Money.fromDecimal(r.getBigDecimal(price)));
+            oi.setOrderItemId(r.getInt(id));
+            return oi;
+        };
+    };
+
+    private OrderRepository() {}
+
+    /**
+     * One page of orders placed between from and to (inclusive), newest first, without items;
+     * after is the last order of the previous page, or null for the first page.
+     */
+    public static List<Order> findPage(LocalDate from, LocalDate to, Order after, int limit) throws SQLException {
+        String sql = ORDER_COLUMNS + " WHERE order_date >= ? AND order_date < ?"
+                + (after == null ? "" : " AND (order_date < ? OR (order_date = ? AND order_id < ?))")
+                + " ORDER BY order_date DESC, order_id DESC LIMIT ?";
+        try (Connection c = DBConnection.getReadConnection();
+             PreparedStatement ps = c.prepareStatement(sql)) {
+            int i = 1;
+            ps.setTimestamp(i++, Timestamp.valueOf(from.atStartOfDay()));
+            ps.setTimestamp(i++, Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+            if (after != null) {
+                Timestamp t = Timestamp.valueOf(after.getOrderTime());
+                ps.setTimestamp(i++, t);
+                ps.setTimestamp(i++, t);
+                ps.setInt(i++, after.getOrderId());
+            }
+            ps.setInt(i, limit);
+            return Queries.list(ps, ORDER);
+        }
+    }
+
+    /** The order with its lines, or null if there is no such order. */
+    public static Order findWithItems(int orderId) throws SQLException {
+        Order o = findWithItems(orderId, false);
+        // an order this terminal has just placed may not have reached the replica yet
+        return o != null || !DBConnection.hasReplicas() ? o : findWithItems(orderId, true);
+    }
+
+    private static Order findWithItems(int orderId, boolean primary) throws SQLException {
+        String itemsSql = "SELECT oi.order_item_id, oi.item_id, mi.name, c.category_name, oi.quantity, oi.price "
+                + "FROM order_items oi JOIN menu_items mi ON oi.item_id = mi.item_id JOIN categories c ON mi.category_id = c.category_id "
+                + "WHERE oi.order_id = ? ORDER BY oi.order_item_id";
+        try (Connection conn = primary ? DBConnection.getConnection() : DBConnection.getReadConnection();
+             PreparedStatement ps = conn.prepareStatement(ORDER_COLUMNS + " WHERE order_id = ?");
+             PreparedStatement psItems = conn.prepareStatement(itemsSql)) {
+            ps.setInt(1, orderId);
+            Order o = Queries.first(ps, ORDER);
+            if (o == null) return null;
+            psItems.setInt(1, orderId);
+            o.getItems().addAll(Queries.list(psItems, ORDER_ITEM));
+            return o;
+        }
+    }
+
+    /** Writes and commits one order in its own transaction; returns its id. */
+    public static int insert(Order order) throws SQLException {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int orderId = insert(conn, order, true);
+                conn.commit();
+                return orderId;
+            } catch (SQLException ex) {
+                conn.rollback();
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Inserts the order and its lines, takes the stock and updates the revenue rollups of the order's
+     * date and hour, inside the caller's transaction. With guardStock, fails with SQLState
+     * INSUFFICIENT_STOCK if any item no longer has enough stock; without it stock may go negative.
+     * The five statements come from the connection's statement cache after the first order.
+     */
+    public static int insert(Connection conn, Order order, boolean guardStock) throws SQLException {
+        String insertOrder = "INSERT INTO orders (order_date, total_amount, discount, net_amount) VALUES (?, ?, ?, ?)";
+        String insertItem = "INSERT INTO order_items (order_id, item_id, quantity, price) VALUES (?, ?, ?, ?)";
+        String updateStock = "UPDATE menu_items SET available_qty = available_qty - ? WHERE item_id = ? AND available_qty >= ?";
+        String takeStock = "UPDATE menu_items SET available_qty = available_qty - ? WHERE item_id = ?";
+        String upsertDaily = "INSERT INTO daily_sales (sales_date, orders, gross, discount, net) VALUES (?, 1, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE orders = orders + 1, gross = gross + VALUES(gross), discount = discount + VALUES(discount), net = net + VALUES(net)";
+        String upsertHourly = "INSERT INTO hourly_sales (sales_date, sales_hour, orders, gross, discount, net) VALUES (?, ?, 1, ?, ?, ?) "
+                + "ON DUPLICATE KEY UPDATE orders = orders + 1, gross = gross + VALUES(gross), discount = discount + VALUES(discount), net = net + VALUES(net)";
+
+        try (PreparedStatement psOrder = conn.prepareStatement(insertOrder, Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement psItem = conn.prepareStatement(insertItem);
+             PreparedStatement psUpdateStock = conn.prepareStatement(guardStock ? updateStock : takeStock);
+             PreparedStatement psDaily = conn.prepareStatement(upsertDaily);
+             PreparedStatement psHourly = conn.prepareStatement(upsertHourly)) {
+
+            psOrder.setTimestamp(1, Timestamp.valueOf(order.getOrderTime()));
+            psOrder.setBigDecimal(2, Money.toDecimal(order.getTotalPaise()));
+            psOrder.setBigDecimal(3, Money.toDecimal(order.getDiscountPaise()));
+            psOrder.setBigDecimal(4, Money.toDecimal(order.getNetPaise()));
+            psOrder.executeUpdate();
+            int orderId;
+            try (ResultSet keys = psOrder.getGeneratedKeys()) {
+                if (keys.next()) orderId = keys.getInt(1);
+                else throw new SQLException("Failed to create order.");
+            }
+
+            // stock rows are locked in item id order, and before the order lines' foreign key checks
+            // touch them, so concurrent orders for the same items queue up instead of deadlocking
+            List<OrderItem> byItem = new ArrayList<>(order.getItems());
+            byItem.sort(Comparator.comparingInt(OrderItem::getItemId));
+            for (OrderItem oi : byItem) {
+                psUpdateStock.setInt(1, oi.getQuantity());
+                psUpdateStock.setInt(2, oi.getItemId());
+                if (guardStock) psUpdateStock.setInt(3, oi.getQuantity());
+                psUpdateStock.addBatch();
+            }
+            int[] stockRes = psUpdateStock.executeBatch();
+            // unguarded, a missing item is left to the order lines' foreign key (a constraint violation)
+            for (int r : stockRes) {
+                if (r == 0 && guardStock) throw new SQLException("Stock update failed (insufficient stock). Transaction rolled back.", INSUFFICIENT_STOCK);
+            }
+
+            for (OrderItem oi : order.getItems()) {
+                psItem.setInt(1, orderId);
+                psItem.setInt(2, oi.getItemId());
+                psItem.setInt(3, oi.getQuantity());
+                psItem.setBigDecimal(4, Money.toDecimal(oi.getPricePaise()));
+                psItem.addBatch();
+            }
+            psItem.executeBatch();
+
+            // rollups last: the daily row is shared by every order, so keep its lock as short as possible
+            Date day = Date.valueOf(order.getOrderTime().toLocalDate());
+            psDaily.setDate(1, day);
+            psHourly.setDate(1, day);
+            psHourly.setInt(2, order.getOrderTime().getHour());
+            for (PreparedStatement ps : new PreparedStatement[]{psDaily, psHourly}) {
+                int i = ps == psDaily ? 2 : 3;
+                ps.setBigDecimal(i, Money.toDecimal(order.getTotalPaise()));
+                ps.setBigDecimal(i + 1, Money.toDecimal(order.getDiscountPaise()));
+                ps.setBigDecimal(i + 2, Money.toDecimal(order.getNetPaise()));
+                ps.executeUpdate();
+            }
+            return orderId;
+        }
+    }
+
+    /** Id of the order a journal entry was written as, or -1 if it has not been applied. */
+    public static int findJournaled(Connection conn, String journalId, long seq) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("SELECT order_id FROM journal_applied WHERE journal_id = ? AND seq = ?")) {
+            ps.setString(1, journalId);
+            ps.setLong(2, seq);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : -1;
+            }
+        }
+    }
+
+    public static void markJournaled(Connection conn, String journalId, long seq, String terminalId, int orderId) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO journal_applied (journal_id, seq, terminal_id, order_id) VALUES (?, ?, ?, ?)")) {
+            ps.setString(1, journalId);
+            ps.setLong(2, seq);
+            ps.setString(3, terminalId);
+            ps.setInt(4, orderId);
+            ps.executeUpdate();
+        }
+    }
+
+    /**
+     * Sets a rejected journal entry aside in journal_dead_letters; does nothing if an earlier run
+     * already did.
+     */
+    public static void deadLetter(Connection conn, String journalId, long seq, String terminalId, Order order,
+                                  String sqlState, String error, byte[] payload) throws SQLException {
+        try (PreparedStatement find = conn.prepareStatement("SELECT 1 FROM journal_dead_letters WHERE journal_id = ? AND seq = ?")) {
+            find.setString(1, journalId);
+            find.setLong(2, seq);
+            try (ResultSet rs = find.executeQuery()) {
+                if (rs.next()) return;
+            }
+        }
+        StringBuilder items = new StringBuilder();
+        for (OrderItem oi : order.getItems()) {
+            if (items.length() > 0) items.append(", ");
+            items.append(oi.getQuantity()).append(" x ").append(oi.getName()).append(" (#").append(oi.getItemId()).append(')');
+        }
+        try (PreparedStatement ps = conn.prepareStatement("INSERT INTO journal_dead_letters "
+                + "(journal_id, seq, terminal_id, order_time, net_amount, items, sql_state, error, payload) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+            ps.setString(1, journalId);
+            ps.setLong(2, seq);
+            ps.setString(3, terminalId);
+            ps.setTimestamp(4, Timestamp.valueOf(order.getOrderTime()));
+            ps.setBigDecimal(5, Money.toDecimal(order.getNetPaise()));
+            ps.setString(6, truncate(items.toString(), 2000));
+            ps.setString(7, sqlState);
+            ps.setString(8, truncate(error, 1000));
+            ps.setBytes(9, payload);
+            ps.executeUpdate();
+        }
+    }
+
+    private static String truncate(String s, int max) {
+        return s == null || s.length() <= max ? s : s.substring(0, max);
+    }
+}
@@ -0,0 +1,29 @@
+package repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/** Runs a prepared query through a RowMapper, binding the mapper once per ResultSet. */
+final class Queries {
+    private Queries() {}
+
+    static <T> List<T> list(PreparedStatement ps, RowMapper<T> mapper) throws SQLException {
+        List<T> out = new ArrayList<>();
+        try (ResultSet rs = ps.executeQuery()) {
+            if (!rs.next()) return out;
+            RowMapper.Row<T> row = mapper.bind(rs);
+            do out.add(row.map(rs)); while (rs.next());
+        }
+        return out;
+    }
+
+    /** The first row, or null if there is none. */
+    static <T> T first(PreparedStatement ps, RowMapper<T> mapper) throws SQLException {
+        try (ResultSet rs = ps.executeQuery()) {
+            return rs.next() ? mapper.bind(rs).map(rs) : null;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps result rows to model objects with plain getters and setters, no reflection.
+ * bind() runs once per ResultSet and resolves the column positions by label; the returned Row
+ * then reads every row by index.
+ */
+public interface RowMapper<T> {
+    Row<T> bind(ResultSet rs) throws SQLException;
+
+    interface Row<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+}
@@ -0,0 +1,547 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import controller.AccountController;
+import controller.AppConfig;
+import controller.ConnectionPool;
+import controller.DBConnection;
+import controller.ReplicaRouter;
+import controller.InventoryController;
+import controller.Json;
+import controller.KitchenStations;
+import controller.LatencyHistogram;
+import controller.Metrics;
+import controller.TicketBus;
+import controller.MenuController;
+import controller.OrderController;
+import controller.OrderJournal;
+import model.ConsolidatedSales;
+import model.MenuItem;
+import model.Money;
+import model.Order;
+import model.OrderItem;
+import model.SalesReport;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Headless HTTP/JSON ordering API on the JDK built-in server.
+ *
+ * GET    /api/categories
+ * GET    /api/menu[?category=name]        (streamed)
+ * GET    /api/menu/search?q=pan[&limit=20]
+ * GET    /api/menu/{itemId}
+ * GET    /api/inventory                   (streamed)
+ * POST   /api/inventory/restock           {"itemId":1,"qty":10}
+ * POST   /api/inventory/restock/bulk      {"1":10,"7":24,...}   (item id -> qty to add)
+ * GET    /api/carts/{session}
+ * POST   /api/carts/{session}/items       {"itemId":1,"qty":2}
+ * DELETE /api/carts/{session}
+ * POST   /api/carts/{session}/checkout    {"discount":0}   -> the placed order (orderId 0 and a journalSeq while only journaled)
+ * GET    /api/orders/{orderId}
+ * GET    /api/kitchen                     stations and ticket bus state
+ * GET    /api/kitchen/{station}           open tickets
+ * POST   /api/kitchen/{station}/{orderId}/done
+ * GET    /api/metrics                     latency histograms per operation, pool state
+ * GET    /api/accounts/today
+ * GET    /api/accounts/branches?from=yyyy-mm-dd&to=yyyy-mm-dd   every branch's revenue and the total (default: today)
+ * GET    /api/reports/sales?from=yyyy-mm-dd&to=yyyy-mm-dd   (default: today)
+ * POST   /api/accounts/rollups/rebuild
+ */
+public class ApiServer {
+    private final MenuController menuController = new MenuController();
+    private final OrderController orderController = new OrderController();
+    private final InventoryController inventoryController = new InventoryController();
+    private final AccountController accountController = new AccountController();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public ApiServer(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), AppConfig.getInt("server.backlog", 512));
+        executor = requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/", this::handle);
+    }
+
+    public void start() {
+        server.start();
+        System.out.println("API listening on port " + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /** One virtual thread per request when the JDK has them (21+), otherwise a bounded platform pool. */
+    private static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            return Executors.newFixedThreadPool(AppConfig.getInt("server.threads", 200));
+        }
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try {
+            route(ex);
+        } catch (ApiException e) {
+            sendError(ex, e.status, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            sendError(ex, 400, e.getMessage());
+        } catch (Exception e) {
+            e.printStackTrace();
+            sendError(ex, 500, "Internal error");
+        } finally {
+            ex.close();
+        }
+    }
+
+    private void route(HttpExchange ex) throws Exception {
+        String method = ex.getRequestMethod();
+        String[] p = ex.getRequestURI().getPath().replaceAll("/+$", "").split("/");
+        // p[0] is "", p[1] is "api"
+        String res = p.length > 2 ? p[2] : "";
+
+        if ("categories".equals(res) && p.length == 3 && "GET".equals(method)) {
+            StringBuilder sb = new StringBuilder("[");
+            List<String> cats = menuController.getCategories();
+            for (int i = 0; i < cats.size(); i++) {
+                if (i > 0) sb.append(',');
+                Json.appendQuoted(sb, cats.get(i));
+            }
+            send(ex, 200, sb.append(']').toString());
+        } else if ("menu".equals(res) && p.length == 3 && "GET".equals(method)) {
+            String category = query(ex).get("category");
+            streamMenu(ex, category == null ? menuController.getAllMenu() : menuController.getMenuByCategory(category));
+        } else if ("menu".equals(res) && p.length == 4 && "search".equals(p[3]) && "GET".equals(method)) {
+            Map<String, String> q = query(ex);
+            String limit = q.get("limit");
+            streamMenu(ex, menuController.search(q.getOrDefault("q", ""), limit == null ? 20 : intParam(limit, "limit")));
+        } else if ("menu".equals(res) && p.length == 4 && "GET".equals(method)) {
+            MenuItem m = menuController.findById(intParam(p[3], "itemId"));
+            if (m == null) throw new ApiException(404, "Item not found.");
+            StringBuilder sb = new StringBuilder();
+            appendItem(sb, m);
+            send(ex, 200, sb.toString());
+        } else if ("inventory".equals(res) && p.length == 3 && "GET".equals(method)) {
+            streamMenu(ex, inventoryController.getInventory());
+        } else if ("inventory".equals(res) && p.length == 4 && "restock".equals(p[3]) && "POST".equals(method)) {
+            Map<String, String> body = body(ex);
+            boolean ok = inventoryController.restock(intParam(body.get("itemId"), "itemId"), positiveParam(body.get("qty"), "qty"));
+            if (!ok) throw new ApiException(409, "Failed to restock.");
+            send(ex, 200, "{\"ok\":true}");
+        } else if ("inventory".equals(res) && p.length == 5 && "restock".equals(p[3]) && "bulk".equals(p[4]) && "POST".equals(method)) {
+            Map<Integer, Integer> additions = new LinkedHashMap<>();
+            for (Map.Entry<String, String> e : body(ex).entrySet()) {
+                additions.put(intParam(e.getKey(), "item id"), positiveParam(e.getValue(), "qty"));
+            }
+            Map<Integer, Integer> updated = inventoryController.restockAll(additions);
+            if (updated.isEmpty() && !additions.isEmpty()) throw new ApiException(409, "Failed to restock.");
+            StringBuilder sb = new StringBuilder("{");
+            for (Map.Entry<Integer, Integer> e : updated.entrySet()) {
+                if (sb.length() > 1) sb.append(',');
+                sb.append('"').append(e.getKey()).append("\":").append(e.getValue());
+            }
+            send(ex, 200, sb.append('}').toString());
+        } else if ("orders".equals(res) && p.length == 4 && "GET".equals(method)) {
+            Order order = orderController.findOrder(intParam(p[3], "orderId"));
+            if (order == null) throw new ApiException(404, "Order not found.");
+            StringBuilder sb = new StringBuilder(256);
+            appendOrder(sb, order);
+            send(ex, 200, sb.toString());
+        } else if ("metrics".equals(res) && p.length == 3 && "GET".equals(method)) {
+            sendMetrics(ex);
+        } else if ("kitchen".equals(res)) {
+            kitchen(ex, method, p);
+        } else if ("carts".equals(res) && p.length >= 4) {
+            cart(ex, method, p);
+        } else if ("accounts".equals(res) && p.length == 4 && "today".equals(p[3]) && "GET".equals(method)) {
+            Map<String, Object> s = accountController.getTodaySummary();
+            StringBuilder sb = new StringBuilder(64);
+            Money.append(sb.append("{\"revenue\":"), (long) s.getOrDefault("revenue", 0L)).append(",\"orders\":").append(s.getOrDefault("orders", 0));
+            Money.append(sb.append(",\"discount\":"), (long) s.getOrDefault("discount", 0L)).append('}');
+            send(ex, 200, sb.toString());
+        } else if ("accounts".equals(res) && p.length == 4 && "branches".equals(p[3]) && "GET".equals(method)) {
+            LocalDate[] range = range(ex);
+            sendConsolidatedSales(ex, accountController.getConsolidatedSales(range[0], range[1]));
+        } else if ("reports".equals(res) && p.length == 4 && "sales".equals(p[3]) && "GET".equals(method)) {
+            LocalDate[] range = range(ex);
+            sendSalesReport(ex, accountController.getSalesReport(range[0], range[1]));
+        } else if ("accounts".equals(res) && p.length == 5 && "rollups".equals(p[3]) && "rebuild".equals(p[4]) && "POST".equals(method)) {
+            int days = accountController.rebuildRollups();
+            if (days < 0) throw new ApiException(500, "Rollup rebuild failed.");
+            send(ex, 200, "{\"days\":" + days + "}");
+        } else {
+            throw new ApiException(404, "No such endpoint: " + method + " " + ex.getRequestURI().getPath());
+        }
+    }
+
+    private void cart(HttpExchange ex, String method, String[] p) throws Exception {
+        String session = p[3];
+        String action = p.length > 4 ? p[4] : "";
+        if (action.isEmpty() && "GET".equals(method)) {
+            sendCart(ex, session);
+        } else if (action.isEmpty() && "DELETE".equals(method)) {
+            orderController.clearCart(session);
+            sendCart(ex, session);
+        } else if ("items".equals(action) && "POST".equals(method)) {
+            Map<String, String> body = body(ex);
+            try {
+                orderController.addToCart(session, intParam(body.get("itemId"), "itemId"), intParam(body.get("qty"), "qty"));
+            } catch (IllegalArgumentException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new ApiException(409, e.getMessage());
+            }
+            sendCart(ex, session);
+        } else if ("checkout".equals(action) && "POST".equals(method)) {
+            String d = body(ex).get("discount");
+            long discount;
+            try {
+                discount = d == null ? 0 : Money.parse(d);
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new ApiException(400, "discount must be a number");
+            }
+            Order order;
+            try {
+                order = orderController.placeOrder(session, discount);
+            } catch (Exception e) {
+                throw new ApiException(checkoutStatus(e), e.getMessage());
+            }
+            StringBuilder sb = new StringBuilder(256);
+            appendOrder(sb, order);
+            send(ex, 201, sb.toString());
+        } else {
+            throw new ApiException(404, "No such endpoint: " + method + " " + ex.getRequestURI().getPath());
+        }
+    }
+
+    /**
+     * 409 when the cart cannot be checked out as it is (empty, or an item sold out), 503 when the
+     * database or the order journal failed and a retry may succeed, 500 for anything else.
+     */
+    private static int checkoutStatus(Exception e) {
+        if (e instanceof RuntimeException) return 500;
+        Throwable cause = e.getCause();
+        if (cause == null) return 409;
+        if (cause instanceof SQLException) {
+            return OrderController.INSUFFICIENT_STOCK.equals(((SQLException) cause).getSQLState()) ? 409 : 503;
+        }
+        return cause instanceof IOException ? 503 : 500;
+    }
+
+    private void kitchen(HttpExchange ex, String method, String[] p) throws Exception {
+        KitchenStations stations = KitchenStations.shared();
+        if (p.length == 3 && "GET".equals(method)) {
+            TicketBus bus = TicketBus.shared();
+            StringBuilder sb = new StringBuilder("{\"stations\":[");
+            List<String> names = stations.getStations();
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) sb.append(',');
+                Json.appendQuoted(sb, names.get(i));
+            }
+            sb.append("],\"published\":").append(bus.getPublished())
+              .append(",\"dropped\":").append(bus.getDropped())
+              .append(",\"droppedBy\":");
+            appendCounts(sb, bus.getDroppedByConsumer());
+            sb.append(",\"lag\":");
+            appendCounts(sb, bus.getLag());
+            send(ex, 200, sb.append('}').toString());
+        } else if (p.length == 4 && "GET".equals(method)) {
+            List<Order> open = stations.getOpenTickets(p[3]);
+            if (open == null) throw new ApiException(404, "No such station.");
+            StringBuilder sb = new StringBuilder("[");
+            for (int i = 0; i < open.size(); i++) {
+                if (i > 0) sb.append(',');
+                appendOrder(sb, open.get(i));
+            }
+            send(ex, 200, sb.append(']').toString());
+        } else if (p.length == 6 && "done".equals(p[5]) && "POST".equals(method)) {
+            if (!stations.done(p[3], intParam(p[4], "orderId"))) throw new ApiException(404, "No such open ticket.");
+            send(ex, 200, "{\"ok\":true}");
+        } else {
+            throw new ApiException(404, "No such endpoint: " + method + " " + ex.getRequestURI().getPath());
+        }
+    }
+
+    /** Latencies in microseconds. */
+    private static void sendMetrics(HttpExchange ex) throws IOException {
+        StringBuilder sb = new StringBuilder("{\"operations\":{");
+        boolean first = true;
+        for (Map.Entry<String, LatencyHistogram> e : Metrics.shared().snapshot().entrySet()) {
+            LatencyHistogram h = e.getValue();
+            if (!first) sb.append(',');
+            first = false;
+            Json.appendQuoted(sb, e.getKey());
+            sb.append(":{\"count\":").append(h.getCount())
+              .append(",\"errors\":").append(h.getErrors())
+              .append(",\"meanUs\":").append(h.getMean() / 1000)
+              .append(",\"p50Us\":").append(h.percentile(50) / 1000)
+              .append(",\"p99Us\":").append(h.percentile(99) / 1000)
+              .append(",\"maxUs\":").append(h.getMax() / 1000).append('}');
+        }
+        ConnectionPool.Stats p = DBConnection.getPoolStats();
+        sb.append("},\"pool\":{\"active\":").append(p.getActive())
+          .append(",\"idle\":").append(p.getIdle())
+          .append(",\"waiting\":").append(p.getWaiting())
+          .append(",\"maxSize\":").append(p.getMaxSize())
+          .append(",\"timeouts\":").append(p.getTimeouts())
+          .append(",\"leaks\":").append(p.getLeaks())
+          .append(",\"statementHits\":").append(p.getStatementHits())
+          .append(",\"statementMisses\":").append(p.getStatementMisses()).append('}');
+        ReplicaRouter replicas = DBConnection.getReplicas();
+        if (replicas != null) {
+            sb.append(",\"replicas\":{\"replicaReads\":").append(replicas.getReplicaReads())
+              .append(",\"primaryReads\":").append(replicas.getPrimaryReads()).append(",\"nodes\":[");
+            List<ReplicaRouter.Status> nodes = replicas.getStatus();
+            for (int i = 0; i < nodes.size(); i++) {
+                ReplicaRouter.Status r = nodes.get(i);
+                if (i > 0) sb.append(',');
+                sb.append("{\"name\":");
+                Json.appendQuoted(sb, r.getName());
+                sb.append(",\"usable\":").append(r.isUsable())
+                  .append(",\"lagMs\":").append(r.getLagMs())
+                  .append(",\"active\":").append(r.getPool().getActive())
+                  .append(",\"error\":");
+                Json.appendQuoted(sb, r.getError());
+                sb.append('}');
+            }
+            sb.append("]}");
+        }
+        OrderJournal journal = OrderJournal.shared();
+        if (journal != null) sb.append(",\"journal\":{\"pending\":").append(journal.getPending()).append('}');
+        sb.append('}');
+        send(ex, 200, sb.toString());
+    }
+
+    /** from and to query parameters (yyyy-mm-dd); both default to today, to defaults to from. */
+    private static LocalDate[] range(HttpExchange ex) throws ApiException {
+        Map<String, String> q = query(ex);
+        try {
+            LocalDate from = q.containsKey("from") ? LocalDate.parse(q.get("from")) : LocalDate.now();
+            LocalDate to = q.containsKey("to") ? LocalDate.parse(q.get("to")) : from;
+            return new LocalDate[]{from, to};
+        } catch (DateTimeParseException e) {
+            throw new ApiException(400, "from and to must be yyyy-mm-dd");
+        }
+    }
+
+    private static void sendConsolidatedSales(HttpExchange ex, ConsolidatedSales s) throws IOException {
+        StringBuilder sb = new StringBuilder(256);
+        sb.append("{\"from\":\"").append(s.getFrom()).append("\",\"to\":\"").append(s.getTo())
+          .append("\",\"complete\":").append(s.isComplete()).append(",\"orders\":").append(s.getOrders());
+        Money.append(sb.append(",\"gross\":"), s.getGrossPaise());
+        Money.append(sb.append(",\"discount\":"), s.getDiscountPaise());
+        Money.append(sb.append(",\"net\":"), s.getNetPaise());
+        sb.append(",\"branches\":[");
+        for (int i = 0; i < s.getBranches().size(); i++) {
+            ConsolidatedSales.BranchSales b = s.getBranches().get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"branch\":");
+            Json.appendQuoted(sb, b.getBranchId());
+            sb.append(",\"orders\":").append(b.getOrders());
+            Money.append(sb.append(",\"gross\":"), b.getGrossPaise());
+            Money.append(sb.append(",\"discount\":"), b.getDiscountPaise());
+            Money.append(sb.append(",\"net\":"), b.getNetPaise());
+            sb.append(",\"error\":");
+            Json.appendQuoted(sb, b.getError());
+            sb.append('}');
+        }
+        send(ex, 200, sb.append("]}").toString());
+    }
+
+    private static void sendSalesReport(HttpExchange ex, SalesReport r) throws IOException {
+        StringBuilder sb = new StringBuilder(4096);
+        sb.append("{\"from\":\"").append(r.getFrom()).append("\",\"to\":\"").append(r.getTo())
+          .append("\",\"orders\":").append(r.getOrders()).append(",\"lines\":").append(r.getLines());
+        Money.append(sb.append(",\"gross\":"), r.getGrossPaise());
+        Money.append(sb.append(",\"discount\":"), r.getDiscountPaise());
+        Money.append(sb.append(",\"net\":"), r.getNetPaise());
+        Money.append(sb.append(",\"averageTicket\":"), r.getAverageTicketPaise());
+        sb.append(",\"discountedOrders\":").append(r.getDiscountedOrders());
+        Money.append(sb.append(",\"averageDiscountedTicket\":"), r.getAverageDiscountedTicketPaise());
+        Money.append(sb.append(",\"averageFullPriceTicket\":"), r.getAverageFullPriceTicketPaise());
+        sb.append(",\"items\":[");
+        for (int i = 0; i < r.getByItem().size(); i++) {
+            SalesReport.ItemSales s = r.getByItem().get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"itemId\":").append(s.getItemId()).append(",\"name\":");
+            Json.appendQuoted(sb, s.getName());
+            sb.append(",\"category\":");
+            Json.appendQuoted(sb, s.getCategoryName());
+            Money.append(sb.append(",\"qty\":").append(s.getQuantity()).append(",\"revenue\":"), s.getRevenuePaise()).append('}');
+        }
+        sb.append("],\"categories\":[");
+        for (int i = 0; i < r.getByCategory().size(); i++) {
+            SalesReport.CategorySales s = r.getByCategory().get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"name\":");
+            Json.appendQuoted(sb, s.getName());
+            Money.append(sb.append(",\"qty\":").append(s.getQuantity()).append(",\"revenue\":"), s.getRevenuePaise()).append('}');
+        }
+        sb.append("],\"hours\":[");
+        for (int h = 0; h < 24; h++) {
+            if (h > 0) sb.append(',');
+            Money.append(sb.append("{\"hour\":").append(h).append(",\"orders\":").append(r.getOrdersByHour()[h]).append(",\"net\":"),
+                    r.getNetByHourPaise()[h]).append('}');
+        }
+        send(ex, 200, sb.append("]}").toString());
+    }
+
+    private void sendCart(HttpExchange ex, String session) throws IOException {
+        StringBuilder sb = new StringBuilder("{\"session\":");
+        Json.appendQuoted(sb, session);
+        sb.append(",\"items\":[");
+        List<OrderItem> items = orderController.getCart(session);
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem oi = items.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"itemId\":").append(oi.getItemId()).append(",\"name\":");
+            Json.appendQuoted(sb, oi.getName());
+            Money.append(sb.append(",\"qty\":").append(oi.getQuantity()).append(",\"price\":"), oi.getPricePaise());
+            Money.append(sb.append(",\"total\":"), oi.getTotalPaise()).append('}');
+        }
+        Money.append(sb.append("],\"subtotal\":"), orderController.getSubtotalPaise(session)).append('}');
+        send(ex, 200, sb.toString());
+    }
+
+    /** Writes the array element by element with chunked encoding instead of building one large string. */
+    private void streamMenu(HttpExchange ex, List<MenuItem> items) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(200, 0);
+        try (Writer w = new BufferedWriter(new OutputStreamWriter(ex.getResponseBody(), StandardCharsets.UTF_8), 8192)) {
+            StringBuilder sb = new StringBuilder(256);
+            w.write('[');
+            for (int i = 0; i < items.size(); i++) {
+                sb.setLength(0);
+                if (i > 0) sb.append(',');
+                appendItem(sb, items.get(i));
+                w.append(sb);
+            }
+            w.write(']');
+        }
+    }
+
+    private static void appendItem(StringBuilder sb, MenuItem m) {
+        sb.append("{\"itemId\":").append(m.getItemId()).append(",\"name\":");
+        Json.appendQuoted(sb, m.getName());
+        sb.append(",\"categoryId\":").append(m.getCategoryId()).append(",\"category\":");
+        Json.appendQuoted(sb, m.getCategoryName());
+        Money.append(sb.append(",\"price\":"), m.getPricePaise())
+          .append(",\"available\":").append(m.getAvailableQty())
+          .append(",\"description\":");
+        Json.appendQuoted(sb, m.getDescription());
+        sb.append('}');
+    }
+
+    private static void appendOrder(StringBuilder sb, Order o) {
+        sb.append("{\"orderId\":").append(o.getOrderId());
+        if (o.getJournalSeq() > 0) sb.append(",\"journalSeq\":").append(o.getJournalSeq());
+        sb.append(",\"time\":");
+        Json.appendQuoted(sb, o.getOrderTime().toString());
+        sb.append(",\"items\":[");
+        List<OrderItem> items = o.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            OrderItem oi = items.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"itemId\":").append(oi.getItemId()).append(",\"name\":");
+            Json.appendQuoted(sb, oi.getName());
+            Money.append(sb.append(",\"qty\":").append(oi.getQuantity()).append(",\"price\":"), oi.getPricePaise());
+            Money.append(sb.append(",\"total\":"), oi.getTotalPaise()).append('}');
+        }
+        Money.append(sb.append("],\"subtotal\":"), o.getTotalPaise());
+        Money.append(sb.append(",\"discount\":"), o.getDiscountPaise());
+        Money.append(sb.append(",\"net\":"), o.getNetPaise()).append('}');
+    }
+
+    private static Map<String, String> body(HttpExchange ex) throws IOException {
+        try (InputStream in = ex.getRequestBody()) {
+            return Json.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> query(HttpExchange ex) {
+        Map<String, String> out = new HashMap<>();
+        String q = ex.getRequestURI().getRawQuery();
+        if (q == null) return out;
+        for (String pair : q.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq <= 0) continue;
+            out.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                    URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+        }
+        return out;
+    }
+
+    private static int intParam(String v, String name) {
+        try {
+            return Integer.parseInt(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be an integer");
+        }
+    }
+
+    private static void appendCounts(StringBuilder sb, Map<String, Long> counts) {
+        sb.append('{');
+        boolean first = true;
+        for (Map.Entry<String, Long> e : counts.entrySet()) {
+            if (!first) sb.append(',');
+            first = false;
+            Json.appendQuoted(sb, e.getKey());
+            sb.append(':').append(e.getValue());
+        }
+        sb.append('}');
+    }
+
+    private static int positiveParam(String v, String name) {
+        int n = intParam(v, name);
+        if (n <= 0) throw new IllegalArgumentException(name + " must be > 0");
+        return n;
+    }
+
+    private static void send(HttpExchange ex, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream os = ex.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+
+    private static void sendError(HttpExchange ex, int status, String message) {
+        try {
+            send(ex, status, "{\"error\":" + Json.quote(message) + "}");
+        } catch (IOException ignored) {
+            // client went away, or the response was already started
+        }
+    }
+
+    private static final class ApiException extends Exception {
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CatalogTransferTest {
+    private final CatalogTransfer transfer = new CatalogTransfer();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+    }
+
+    private static String column(String column, int itemId) throws Exception {
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement("SELECT " + column + " FROM menu_items WHERE item_id = ?")) {
+            ps.setInt(1, itemId);
+            try (ResultSet rs = ps.executeQuery()) {
+                rs.next();
+                return rs.getString(1);
+            }
+        }
+    }
+
+    @Test
+    void csvFollowsRfc4180() throws Exception {
+        int chai = TestDatabase.addItem("Chai", 2000, 1);
+        int samosa = TestDatabase.addItem("Samosa", 1500, 1);
+        String csv = "item_id,name,category,price,available_qty,description\r\n"
+                + chai + ",\"Chai, Masala\",Test,20.00,5,\"The \"\"house\"\" blend\"\r\n"
+                + samosa + ",Samosa,Test,15.00,7,\"Two lines:\r\nsecond\"\r\n"
+                + ",Lassi,Test,not a price,1,\r\n";
+
+        CatalogTransfer.ImportResult result = transfer.importMenu(new StringReader(csv), CatalogTransfer.Format.CSV);
+
+        assertEquals(3, result.getRead());
+        assertEquals(2, result.getImported());
+        assertEquals("line 5: price must be a number", result.getErrors().get(0)); // the quoted newline is line 4
+        assertEquals("Chai, Masala", column("name", chai));
+        assertEquals("The \"house\" blend", column("description", chai));
+        assertEquals("5", column("available_qty", chai));
+        assertEquals("Two lines:\r\nsecond", column("description", samosa));
+        assertEquals("7", column("available_qty", samosa));
+    }
+
+    @Test
+    void jsonLinesStockImportRejectsUnknownItemsByLine() throws Exception {
+        int chai = TestDatabase.addItem("Chai", 2000, 1);
+        int samosa = TestDatabase.addItem("Samosa", 1500, 1);
+        String json = "{\"item_id\":\"" + chai + "\",\"available_qty\":\"12\"}\n"
+                + "\n"
+                + "{\"item_id\":\"" + (samosa + 1000) + "\",\"available_qty\":\"3\"}\n"
+                + "{\"item_id\":\"" + samosa + "\",\"available_qty\":\"-1\"}\n"
+                + "{not json\n"
+                + "{\"item_id\":\"" + samosa + "\",\"available_qty\":\"4\"}\n";
+
+        CatalogTransfer.ImportResult result = transfer.importStock(new StringReader(json), CatalogTransfer.Format.JSON);
+
+        assertEquals(5, result.getRead());
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getRejected());
+        assertEquals("line 4: available_qty must not be negative", result.getErrors().get(0));
+        assertEquals("line 3: no item with item_id " + (samosa + 1000), result.getErrors().get(2));
+        assertEquals("12", column("available_qty", chai));
+        assertEquals("4", column("available_qty", samosa));
+    }
+}
@@ -0,0 +1,96 @@
+package controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectionPoolTest {
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Class.forName("org.h2.Driver");
+        pool = new ConnectionPool("jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1", "sa", "sa", 1, 0, 1000, 600_000, 30_000, 2, 0, false, 8);
+        try (Connection c = pool.getConnection(); Statement st = c.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS t (id INT)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    @Test
+    void releaseRestoresSessionStateChangedByTheBorrower() throws Exception {
+        int isolation;
+        try (Connection c = pool.getConnection()) {
+            isolation = c.getTransactionIsolation();
+            c.setAutoCommit(false);
+            c.setReadOnly(true);
+            c.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        }
+        try (Connection c = pool.getConnection()) {
+            assertFalse(c.isReadOnly());
+            assertEquals(isolation, c.getTransactionIsolation());
+            assertTrue(c.getAutoCommit());
+        }
+    }
+
+    @Test
+    void recycledStatementGetsItsDefaultLimitsBack() throws Exception {
+        int fetchSize;
+        int maxRows;
+        try (Connection c = pool.getConnection(); PreparedStatement ps = c.prepareStatement("SELECT id FROM t")) {
+            fetchSize = ps.getFetchSize();
+            maxRows = ps.getMaxRows();
+            ps.setFetchSize(fetchSize + 7);
+            ps.setMaxRows(3);
+        }
+        try (Connection c = pool.getConnection(); PreparedStatement ps = c.prepareStatement("SELECT id FROM t")) {
+            assertEquals(1, pool.getStats().getStatementHits());
+            assertEquals(fetchSize, ps.getFetchSize());
+            assertEquals(maxRows, ps.getMaxRows());
+        }
+    }
+
+    @Test
+    void minIdleRefillNeverTakesThePoolPastMaxSize() throws Exception {
+        // the leak threshold only sets the housekeeping period (1s); nothing is held that long
+        try (ConnectionPool small = new ConnectionPool("jdbc:h2:mem:pool;DB_CLOSE_DELAY=-1", "sa", "sa", 3, 3, 1000, 600_000, 30_000, 2, 2_000, false, 8)) {
+            List<Connection> held = new ArrayList<>();
+            for (int i = 0; i < 2; i++) held.add(small.getConnection());
+            Thread.sleep(1500); // past the first housekeeping run
+            ConnectionPool.Stats stats = small.getStats();
+            assertTrue(stats.getActive() + stats.getIdle() <= 3, stats.getActive() + " active, " + stats.getIdle() + " idle");
+            for (Connection c : held) c.close();
+            held.clear();
+
+            for (int i = 0; i < 3; i++) held.add(small.getConnection());
+            assertEquals(3, small.getStats().getCreated());
+            for (Connection c : held) c.close();
+        }
+    }
+
+    @Test
+    void handleIsDeadAfterClose() throws Exception {
+        Connection c = pool.getConnection();
+        c.close();
+        assertThrows(SQLException.class, c::createStatement);
+        try (Connection next = pool.getConnection()) {
+            assertFalse(next.isClosed());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InventoryControllerTest {
+    private final InventoryController inventory = new InventoryController();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+    }
+
+    @Test
+    void nonPositiveQuantitiesAreRejected() throws Exception {
+        int id = TestDatabase.addItem("Tea", 1000, 5);
+        assertThrows(IllegalArgumentException.class, () -> inventory.restock(id, 0));
+        assertThrows(IllegalArgumentException.class, () -> inventory.restock(id, -3));
+        assertEquals(5, TestDatabase.count("SELECT available_qty FROM menu_items WHERE item_id = " + id));
+    }
+
+    @Test
+    void restocksBatchesOfAnySizeAndSkipsUnknownItems() throws Exception {
+        Map<Integer, Integer> additions = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) additions.put(TestDatabase.addItem("Item " + i, 1000, i), 5);
+        additions.put(-1, 5);
+
+        Map<Integer, Integer> updated = inventory.restockAll(additions);
+
+        assertEquals(10, updated.size());
+        int i = 0;
+        for (Map.Entry<Integer, Integer> e : updated.entrySet()) {
+            assertEquals(i + 5, e.getValue());
+            assertEquals(i + 5, TestDatabase.count("SELECT available_qty FROM menu_items WHERE item_id = " + e.getKey()));
+            i++;
+        }
+    }
+
+    @Test
+    void closeWritesEverythingQueued() throws Exception {
+        int id = TestDatabase.addItem("Tea", 1000, 0);
+        InventoryLogWriter writer = new InventoryLogWriter(2, 60_000, 100);
+        for (int i = 0; i < 7; i++) writer.append(id, i, i + 1);
+
+        writer.close();
+
+        assertEquals(7, TestDatabase.count("SELECT COUNT(*) FROM inventory_logs WHERE item_id = " + id));
+        assertEquals(0, writer.getPending());
+    }
+}
@@ -0,0 +1,64 @@
+package controller;
+
+import model.MenuItem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MenuCatalogCacheTest {
+    private final MenuCatalogCache cache = new MenuCatalogCache(60_000, 60_000, 1_000, 100, Collections::emptyMap, true);
+
+    private static List<MenuItem> menu(long pricePaise) {
+        List<MenuItem> out = new ArrayList<>();
+        out.add(new MenuItem(1, "Masala Chai", 8, pricePaise, 10, "tea"));
+        return out;
+    }
+
+    @Test
+    void loadsAreCachedUntilInvalidated() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        cache.getAll(() -> { loads.incrementAndGet(); return menu(2000); });
+        cache.getAll(() -> { loads.incrementAndGet(); return menu(2000); });
+        assertEquals(1, loads.get());
+        cache.invalidateAll();
+        cache.getAll(() -> { loads.incrementAndGet(); return menu(2000); });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void loadOvertakenByInvalidateAllIsNotCached() throws Exception {
+        // the price changes while the first load is in flight
+        List<MenuItem> first = cache.getAll(() -> {
+            List<MenuItem> old = menu(2000);
+            cache.invalidateAll();
+            return old;
+        });
+        assertEquals(2000, first.get(0).getPricePaise());
+        List<MenuItem> next = cache.getAll(() -> menu(2500));
+        assertEquals(2500, next.get(0).getPricePaise());
+        assertEquals(2500, cache.findItem(1, () -> menu(9999).get(0)).getPricePaise());
+    }
+
+    @Test
+    void categoryAndItemLoadsOvertakenByInvalidationAreNotCached() throws Exception {
+        cache.getByCategory("Beverages", () -> {
+            List<MenuItem> old = menu(2000);
+            cache.invalidateItem(1);
+            return old;
+        });
+        assertEquals(2500, cache.getByCategory("Beverages", () -> menu(2500)).get(0).getPricePaise());
+
+        cache.invalidateAll();
+        cache.findItem(1, () -> {
+            MenuItem old = menu(2000).get(0);
+            cache.invalidateAll();
+            return old;
+        });
+        assertEquals(3000, cache.findItem(1, () -> menu(3000).get(0)).getPricePaise());
+    }
+}
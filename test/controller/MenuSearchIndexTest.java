@@ -0,0 +1,92 @@
+package controller;
+
+import model.MenuItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MenuSearchIndexTest {
+    private final MenuSearchIndex index = new MenuSearchIndex();
+
+    private static MenuItem item(int id, String name, String category, String description) {
+        MenuItem m = new MenuItem(id, name, 1, 10000, 10, description);
+        m.setCategoryName(category);
+        return m;
+    }
+
+    @BeforeEach
+    void setUp() {
+        index.sync(Arrays.asList(
+                item(1, "Paneer Tikka", "Starters", "Grilled cottage cheese"),
+                item(2, "Pani Puri", "Chaat", null),
+                item(3, "Butter Naan", "Breads", "Tandoor bread"),
+                item(4, "Masala Chai", "Beverages", "Spiced tea with paneer-free milk")));
+    }
+
+    @Test
+    void prefixMatchesRankNameHitsFirst() {
+        // both names start with "pan" (ties go by name); the description mention of paneer ranks last
+        assertEquals(Arrays.asList(1, 2, 4), index.search("pan", 10));
+        assertEquals(Arrays.asList(1, 4), index.search("paneer", 10));
+        assertEquals(Collections.singletonList(1), index.search("PANEER tik", 10));
+        assertEquals(Collections.singletonList(1), index.search("pan", 1));
+    }
+
+    @Test
+    void everyWordMustMatch() {
+        assertEquals(Collections.singletonList(3), index.search("bread butter", 10));
+        assertTrue(index.search("naan chai", 10).isEmpty());
+        assertTrue(index.search("  ", 10).isEmpty());
+    }
+
+    @Test
+    void typosMatchWhenNothingMatchesAsAPrefix() {
+        // "pani" is one edit away, "paneer" two
+        assertEquals(Arrays.asList(2, 1, 4), index.search("panir", 10));
+        assertEquals(Collections.singletonList(4), index.search("masla", 10));
+        assertTrue(index.search("xyzzy", 10).isEmpty());
+    }
+
+    @Test
+    void syncReindexesOnlyWhatChanged() {
+        int changed = index.sync(Arrays.asList(
+                item(1, "Paneer Tikka", "Starters", "Grilled cottage cheese"),
+                item(2, "Gol Gappe", "Chaat", null),
+                item(3, "Butter Naan", "Breads", "Tandoor bread")));
+
+        assertEquals(2, changed); // 2 renamed, 4 removed
+        assertEquals(3, index.size());
+        assertEquals(Collections.singletonList(2), index.search("gappe", 10));
+        assertEquals(Collections.singletonList(1), index.search("pan", 10));
+        assertTrue(index.search("masala", 10).isEmpty());
+        assertEquals(0, index.sync(Arrays.asList(
+                item(1, "Paneer Tikka", "Starters", "Grilled cottage cheese"),
+                item(2, "Gol Gappe", "Chaat", null),
+                item(3, "Butter Naan", "Breads", "Tandoor bread"))));
+    }
+
+    @Test
+    void putAndRemoveUpdateTheIndex() {
+        index.put(item(5, "Paneer Butter Masala", "Mains", null));
+        assertEquals(Arrays.asList(5, 1, 4), index.search("paneer", 10));
+
+        index.remove(1);
+        index.remove(99);
+        assertEquals(Arrays.asList(5, 4), index.search("paneer", 10));
+        assertTrue(index.search("tikka", 10).isEmpty());
+        assertTrue(index.search("tika", 10).isEmpty()); // no stale trigrams either
+    }
+
+    @Test
+    void prefixDistanceIsBounded() {
+        assertEquals(0, MenuSearchIndex.prefixDistance("pan", "paneer", 1));
+        assertEquals(1, MenuSearchIndex.prefixDistance("paner", "paneer", 2));
+        assertEquals(2, MenuSearchIndex.prefixDistance("panir", "paneer", 2));
+        assertEquals(2, MenuSearchIndex.prefixDistance("xyz", "paneer", 1)); // max + 1
+    }
+}
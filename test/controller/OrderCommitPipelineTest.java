@@ -0,0 +1,67 @@
+package controller;
+
+import model.Order;
+import model.OrderItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import repository.OrderRepository;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderCommitPipelineTest {
+    private int itemId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        itemId = TestDatabase.addItem("Masala Chai", 2000, 5);
+    }
+
+    private Order order(int qty) {
+        Order o = new Order();
+        o.setOrderTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        o.getItems().add(new OrderItem(itemId, "Masala Chai", "Test", qty, 2000));
+        o.setTotalPaise(2000L * qty);
+        o.setNetPaise(2000L * qty);
+        return o;
+    }
+
+    @Test
+    void failingOrderDoesNotTakeDownItsBatch() throws Exception {
+        OrderCommitPipeline pipeline = new OrderCommitPipeline(16, 16, 200, 1000, 5000);
+        CompletableFuture<Integer> ok = CompletableFuture.supplyAsync(() -> commit(pipeline, order(2)));
+        CompletableFuture<Integer> tooMany = CompletableFuture.supplyAsync(() -> commit(pipeline, order(10)));
+        assertTrue(ok.get(10, TimeUnit.SECONDS) > 0);
+        assertEquals(-1, (int) tooMany.get(10, TimeUnit.SECONDS));
+        assertEquals(1, TestDatabase.count("SELECT COUNT(*) FROM orders"));
+        assertEquals(3, TestDatabase.count("SELECT available_qty FROM menu_items"));
+    }
+
+    @Test
+    void orderNotStartedWithinTheCommitTimeoutIsWithdrawn() throws Exception {
+        // the committer lingers longer than the caller will wait
+        OrderCommitPipeline pipeline = new OrderCommitPipeline(16, 16, 1000, 1000, 100);
+        SQLException ex = assertThrows(SQLException.class, () -> pipeline.commit(order(1)));
+        assertTrue(ex.getMessage().contains("has not been placed"), ex.getMessage());
+        Thread.sleep(1500); // the batch has run by now
+        assertEquals(0, TestDatabase.count("SELECT COUNT(*) FROM orders"));
+        assertEquals(5, TestDatabase.count("SELECT available_qty FROM menu_items"));
+    }
+
+    private static int commit(OrderCommitPipeline pipeline, Order o) {
+        try {
+            return pipeline.commit(o);
+        } catch (SQLException ex) {
+            if (OrderRepository.INSUFFICIENT_STOCK.equals(ex.getSQLState())) return -1;
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package controller;
+
+import model.Order;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import repository.MenuRepository;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderControllerTest {
+    @TempDir
+    Path dir;
+
+    private OrderJournal journal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        journal = new OrderJournal(dir.resolve("orders.journal"), 1 << 16, "till-1", 16, 50, false);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        journal.close();
+        setMenuOnline(true);
+    }
+
+    /** Takes the menu table away (or brings it back), so every menu load fails as if the database were down. */
+    private static void setMenuOnline(boolean online) throws Exception {
+        try (Connection c = DBConnection.getConnection(); Statement st = c.createStatement()) {
+            boolean offline = TestDatabase.count("SELECT COUNT(*) FROM information_schema.tables WHERE table_name = 'menu_items_offline'") > 0;
+            if (online && offline) st.execute("ALTER TABLE menu_items_offline RENAME TO menu_items");
+            if (!online && !offline) st.execute("ALTER TABLE menu_items RENAME TO menu_items_offline");
+        }
+    }
+
+    @Test
+    void journaledCheckoutKeepsWorkingOnTheExpiredMenuWhileTheDatabaseIsDown() throws Exception {
+        int chai = TestDatabase.addItem("Masala Chai", 2000, 50);
+        int samosa = TestDatabase.addItem("Samosa", 1500, 50);
+        MenuCatalogCache cache = new MenuCatalogCache(50, 50, 1_000, 100, MenuRepository::findStock, true);
+        OrderController orders = new OrderController(new CartSessions(60_000), new MenuController(cache), journal);
+        orders.addToCart("s1", chai, 1);
+        orders.placeOrder("s1", 0);
+
+        Thread.sleep(100); // past the ttl of everything cached
+        setMenuOnline(false);
+        orders.addToCart("s1", chai, 2);
+        orders.addToCart("s1", samosa, 1); // not tracked by the ledger yet, so its details are looked up too
+        Order order = orders.placeOrder("s1", 0);
+
+        assertEquals(2 * 2000 + 1500, order.getNetPaise());
+        assertTrue(order.getJournalSeq() > 0);
+        assertEquals(2, journal.getPending());
+    }
+}
@@ -0,0 +1,192 @@
+package controller;
+
+import model.Order;
+import model.OrderItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderJournalTest {
+    @TempDir
+    Path dir;
+
+    private int itemId;
+    private int recordSize;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        TestDatabase.reset();
+        itemId = TestDatabase.addItem("Masala Chai", 2000, 100);
+        Path scratch = dir.resolve("scratch.journal");
+        OrderJournal j = journal(scratch, 1 << 16, false);
+        j.append(order(itemId));
+        j.close();
+        recordSize = 8 + readInt(scratch, OrderJournal.HEADER);
+    }
+
+    private static Order order(int itemId) {
+        Order o = new Order();
+        o.setOrderTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        o.getItems().add(new OrderItem(itemId, "Masala Chai", "Test", 1, 2000));
+        o.setTotalPaise(2000);
+        o.setNetPaise(2000);
+        return o;
+    }
+
+    private static OrderJournal journal(Path file, long size, boolean replay) throws IOException {
+        return new OrderJournal(file, size, "till-1", 16, 50, replay);
+    }
+
+    private static void awaitReplayed(OrderJournal j) throws InterruptedException {
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (j.getPending() > 0 && System.nanoTime() < deadline) Thread.sleep(10);
+        assertEquals(0, j.getPending());
+    }
+
+    @Test
+    void refusesToStartWithoutATerminalId() {
+        assertThrows(IllegalArgumentException.class, () -> new OrderJournal(dir.resolve("a.journal"), 1 << 16, "", 16, 50, false));
+        assertThrows(IllegalArgumentException.class, () -> new OrderJournal(dir.resolve("b.journal"), 1 << 16, null, 16, 50, false));
+    }
+
+    @Test
+    void truncatedRecordEndsRecovery() throws Exception {
+        Path file = dir.resolve("orders.journal");
+        OrderJournal j = journal(file, 1 << 16, false);
+        for (int i = 0; i < 3; i++) j.append(order(itemId));
+        j.close();
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(OrderJournal.HEADER + 2 * recordSize + recordSize / 2);
+        }
+
+        OrderJournal reopened = journal(file, 0, false);
+        assertEquals(2, reopened.getPending());
+    }
+
+    @Test
+    void checksumMismatchEndsRecovery() throws Exception {
+        Path file = dir.resolve("orders.journal");
+        OrderJournal j = journal(file, 1 << 16, false);
+        for (int i = 0; i < 3; i++) j.append(order(itemId));
+        j.close();
+        int pos = OrderJournal.HEADER + recordSize + 8 + 20; // inside the second record's payload
+        writeInt(file, pos, ~readInt(file, pos));
+
+        OrderJournal reopened = journal(file, 1 << 16, false);
+        assertEquals(1, reopened.getPending()); // the third record is not trusted either
+        assertEquals(2, reopened.append(order(itemId)));
+    }
+
+    @Test
+    void ringWrapsOnceOrdersAreAppliedAndRecoversAcrossTheWrap() throws Exception {
+        Path file = dir.resolve("orders.journal");
+        long size = OrderJournal.HEADER + 3 * recordSize + recordSize / 2;
+        OrderJournal first = journal(file, size, true);
+        first.append(order(itemId));
+        first.append(order(itemId));
+        awaitReplayed(first);
+        first.close();
+
+        OrderJournal offline = journal(file, size, false); // the database is "down"
+        assertEquals(3, offline.append(order(itemId)));
+        assertEquals(4, offline.append(order(itemId))); // wraps over the applied first order
+        assertEquals(5, offline.append(order(itemId)));
+        // the next one would overwrite order 3, which the database has not taken yet
+        IOException full = assertThrows(IOException.class, () -> offline.append(order(itemId)));
+        assertTrue(full.getMessage().contains("full"), full.getMessage());
+        offline.close();
+
+        assertEquals(3, journal(file, size, false).getPending());
+        OrderJournal online = journal(file, size, true);
+        awaitReplayed(online);
+        online.close();
+        assertEquals(5, TestDatabase.count("SELECT COUNT(*) FROM orders"));
+        assertEquals(5, TestDatabase.count("SELECT MAX(seq) FROM journal_applied"));
+    }
+
+    @Test
+    void replayAfterALostAppliedSeqWriteDoesNotDuplicateOrders() throws Exception {
+        Path file = dir.resolve("orders.journal");
+        OrderJournal j = journal(file, 1 << 16, true);
+        for (int i = 0; i < 3; i++) j.append(order(itemId));
+        awaitReplayed(j);
+        j.close();
+        // as if the crash came before the header update reached the disk
+        writeLong(file, OrderJournal.APPLIED_SEQ, 0);
+        writeLong(file, OrderJournal.APPLIED_OFFSET, OrderJournal.HEADER);
+
+        OrderJournal reopened = journal(file, 1 << 16, true);
+        assertEquals(4, reopened.append(order(itemId)));
+        awaitReplayed(reopened);
+        reopened.close();
+        assertEquals(4, TestDatabase.count("SELECT COUNT(*) FROM orders"));
+        assertEquals(4, TestDatabase.count("SELECT COUNT(*) FROM journal_applied"));
+    }
+
+    @Test
+    void rejectedOrderIsDeadLetteredAndTheRestCarryOn() throws Exception {
+        RevenueCounter counter = RevenueCounter.shared();
+        counter.seed(LocalDate.now(), 0, 0, 0, counter.version());
+        Path file = dir.resolve("orders.journal");
+        OrderJournal offline = journal(file, 1 << 16, false);
+        offline.append(order(itemId));
+        offline.append(order(itemId + 1000)); // no such item: the insert fails its foreign key
+        offline.append(order(itemId));
+        offline.close();
+        assertEquals(0, counter.getOrders()); // not in the database, so not in today's totals yet
+
+        OrderJournal j = journal(file, 1 << 16, true); // all three go in one batch
+        awaitReplayed(j);
+        j.close();
+        assertEquals(2, TestDatabase.count("SELECT COUNT(*) FROM orders"));
+        assertEquals(1, TestDatabase.count("SELECT COUNT(*) FROM journal_dead_letters WHERE seq = 2 AND sql_state LIKE '23%'"));
+        assertEquals(2, counter.getOrders());
+        assertEquals(4000, counter.getRevenue());
+    }
+
+    @Test
+    void journalsOfTerminalsSharingAnIdDoNotCollide() throws Exception {
+        OrderJournal a = journal(dir.resolve("a.journal"), 1 << 16, true);
+        OrderJournal b = journal(dir.resolve("b.journal"), 1 << 16, true);
+        assertEquals(1, a.append(order(itemId)));
+        assertEquals(1, b.append(order(itemId)));
+        awaitReplayed(a);
+        awaitReplayed(b);
+        a.close();
+        b.close();
+        assertEquals(2, TestDatabase.count("SELECT COUNT(*) FROM orders"));
+    }
+
+    private static int readInt(Path file, long pos) throws IOException {
+        ByteBuffer b = ByteBuffer.allocate(4);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ch.read(b, pos);
+        }
+        return b.getInt(0);
+    }
+
+    private static void writeInt(Path file, long pos, int value) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(4).putInt(0, value), pos);
+        }
+    }
+
+    private static void writeLong(Path file, long pos, long value) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(8).putLong(0, value), pos);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StockLedgerTest {
+    private final StockLedger ledger = new StockLedger(0);
+
+    @Test
+    void untrackedItemsCannotBeReserved() {
+        assertFalse(ledger.reserve(1, 1));
+        assertEquals(-1, ledger.available(1));
+        assertEquals(-1, ledger.stock(1));
+    }
+
+    @Test
+    void reservationsHoldStockUntilReleasedOrCommitted() {
+        ledger.track(1, 5);
+        assertTrue(ledger.reserve(1, 3));
+        assertEquals(2, ledger.available(1));
+        assertFalse(ledger.reserve(1, 3));
+        assertEquals(2, ledger.available(1)); // a failed reserve holds nothing
+
+        ledger.release(1, 1);
+        assertEquals(3, ledger.available(1));
+
+        ledger.commit(1, 2);
+        assertEquals(3, ledger.stock(1));
+        assertEquals(3, ledger.available(1));
+    }
+
+    @Test
+    void trackDoesNotOverwriteAnItemAlreadyTracked() {
+        ledger.track(1, 5);
+        ledger.reserve(1, 2);
+        ledger.track(1, 100);
+        assertEquals(5, ledger.stock(1));
+        assertEquals(3, ledger.available(1));
+    }
+
+    @Test
+    void reconcileReplacesStockAndKeepsHolds() {
+        ledger.track(1, 5);
+        ledger.reserve(1, 2);
+        assertTrue(ledger.reconcile(1, 10));
+        assertFalse(ledger.reconcile(1, 10));
+        assertEquals(10, ledger.stock(1));
+        assertEquals(8, ledger.available(1));
+    }
+
+    @Test
+    void releaseNeverTakesHoldsBelowZero() {
+        ledger.track(1, 5);
+        ledger.reserve(1, 1);
+        ledger.release(1, 3);
+        assertEquals(5, ledger.available(1));
+    }
+
+    @Test
+    void concurrentReservationsNeverOversell() throws Exception {
+        ledger.track(1, 1000);
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread th = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                for (int i = 0; i < 500; i++) if (ledger.reserve(1, 1)) granted.incrementAndGet();
+            });
+            threads.add(th);
+            th.start();
+        }
+        start.countDown();
+        for (Thread th : threads) th.join();
+        assertEquals(1000, granted.get());
+        assertEquals(0, ledger.available(1));
+    }
+
+    @Test
+    void reconcileLeavesAnItemAloneWhileItsCommitIsInFlight() throws Exception {
+        TestDatabase.reset();
+        int id = TestDatabase.addItem("Tea", 1000, 10);
+        ledger.track(id, 10);
+        ledger.reserve(id, 2);
+
+        ledger.beginCommit(id);
+        try (Connection c = DBConnection.getConnection(); Statement st = c.createStatement()) {
+            st.executeUpdate("UPDATE menu_items SET available_qty = 8 WHERE item_id = " + id); // the order's write
+        }
+        ledger.reconcileAll(); // must not take the 8 and then have commit subtract again
+        assertEquals(10, ledger.stock(id));
+        ledger.commit(id, 2);
+        assertEquals(8, ledger.stock(id));
+        assertEquals(8, ledger.available(id));
+
+        ledger.beginCommit(id);
+        ledger.abandonCommit(id);
+        try (Connection c = DBConnection.getConnection(); Statement st = c.createStatement()) {
+            st.executeUpdate("UPDATE menu_items SET available_qty = 5 WHERE item_id = " + id); // changed elsewhere
+        }
+        ledger.reconcileAll();
+        assertEquals(5, ledger.stock(id));
+    }
+}
@@ -0,0 +1,49 @@
+package controller;
+
+import bench.BenchDatabase;
+import model.Money;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/** The embedded test database (see pom.xml): schema from db/schema.sql, emptied between tests. */
+final class TestDatabase {
+    private TestDatabase() {}
+
+    static void reset() throws Exception {
+        BenchDatabase.createSchema();
+        try (Connection c = DBConnection.getConnection(); Statement st = c.createStatement()) {
+            for (String table : new String[]{"journal_applied", "journal_dead_letters", "order_items", "orders", "daily_sales", "hourly_sales",
+                    "inventory_logs", "menu_items", "categories"}) {
+                st.execute("DELETE FROM " + table);
+            }
+            st.execute("INSERT INTO categories (category_name) VALUES ('Test')");
+        }
+        MenuCatalogCache.shared().invalidateAll();
+    }
+
+    /** Adds a menu item in the test category; returns its id. */
+    static int addItem(String name, int pricePaise, int stock) throws Exception {
+        try (Connection c = DBConnection.getConnection();
+             PreparedStatement ps = c.prepareStatement("INSERT INTO menu_items (name, category_id, price, available_qty) "
+                     + "SELECT ?, category_id, ?, ? FROM categories WHERE category_name = 'Test'", Statement.RETURN_GENERATED_KEYS)) {
+            ps.setString(1, name);
+            ps.setBigDecimal(2, Money.toDecimal(pricePaise));
+            ps.setInt(3, stock);
+            ps.executeUpdate();
+            try (ResultSet keys = ps.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+
+    static int count(String sql) throws Exception {
+        try (Connection c = DBConnection.getConnection(); Statement st = c.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package controller;
+
+import model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TicketBusTest {
+
+    private static Order order(int id) {
+        Order o = new Order();
+        o.setOrderId(id);
+        return o;
+    }
+
+    @Test
+    void everyConsumerSeesEveryTicketInOrder() throws Exception {
+        int n = 10_000;
+        TicketBus bus = new TicketBus(n);
+        List<Integer> fast = new CopyOnWriteArrayList<>();
+        List<Integer> slow = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(2);
+        bus.subscribe("fast", (o, seq) -> {
+            fast.add(o.getOrderId());
+            if (o.getOrderId() == n - 1) done.countDown();
+        });
+        bus.subscribe("slow", (o, seq) -> {
+            if (o.getOrderId() % 1000 == 0) Thread.sleep(1);
+            slow.add(o.getOrderId());
+            if (o.getOrderId() == n - 1) done.countDown();
+        });
+
+        for (int i = 0; i < n; i++) assertTrue(bus.publish(order(i)));
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(n, fast.size());
+        assertEquals(n, slow.size());
+        for (int i = 0; i < n; i++) {
+            assertEquals(i, fast.get(i));
+            assertEquals(i, slow.get(i));
+        }
+        assertEquals(0, bus.getDropped());
+    }
+
+    @Test
+    void idleConsumerWakesOnPublish() throws Exception {
+        TicketBus bus = new TicketBus(16);
+        CountDownLatch received = new CountDownLatch(1);
+        bus.subscribe("idle", (o, seq) -> received.countDown());
+        Thread.sleep(50); // long past the spin phase, so the consumer is blocked
+
+        assertTrue(bus.publish(order(1)));
+
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void stuckConsumerCostsNoOtherConsumerItsTickets() throws Exception {
+        TicketBus bus = new TicketBus(4);
+        int n = 10 * bus.getCapacity();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> healthy = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        bus.subscribe("stuck", (o, seq) -> release.await());
+        bus.subscribe("healthy", (o, seq) -> {
+            healthy.add(o.getOrderId());
+            if (o.getOrderId() == n - 1) done.countDown();
+        });
+
+        long t0 = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            assertTrue(bus.publish(order(i)));
+            // let the healthy consumer keep up; the stuck one never will
+            long deadline = System.nanoTime() + 5_000_000_000L;
+            while (healthy.size() <= i - bus.getCapacity() / 2 && System.nanoTime() < deadline) Thread.yield();
+        }
+        assertTrue(System.nanoTime() - t0 < TimeUnit.SECONDS.toNanos(5)); // never waited on the stuck consumer
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(n, healthy.size());
+        for (int i = 0; i < n; i++) assertEquals(i, healthy.get(i));
+        assertEquals(0L, bus.getDroppedByConsumer().get("healthy"));
+        release.countDown();
+    }
+
+    @Test
+    void lappedConsumerResumesAtTheOldestTicketAndCountsWhatItMissed() throws Exception {
+        TicketBus bus = new TicketBus(4);
+        int n = 3 * bus.getCapacity();
+        CountDownLatch printing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> seen = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        bus.subscribe("printer", (o, seq) -> {
+            if (o.getOrderId() == 0) {
+                printing.countDown();
+                release.await();
+            }
+            seen.add(o.getOrderId());
+            if (o.getOrderId() == n - 1) done.countDown();
+        });
+        assertTrue(bus.publish(order(0)));
+        assertTrue(printing.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i < n; i++) assertTrue(bus.publish(order(i)));
+
+        release.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        int missed = n - bus.getCapacity() - 1; // everything between ticket 0 and the last ring-full
+        assertEquals(missed, bus.getDroppedByConsumer().get("printer"));
+        assertEquals(missed, bus.getDropped());
+        assertEquals(n - missed, seen.size());
+        assertEquals(0, seen.get(0));
+        for (int i = 1; i < seen.size(); i++) assertEquals(n - bus.getCapacity() + i - 1, seen.get(i));
+    }
+}
@@ -0,0 +1,58 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MenuSnapshotTest {
+
+    private static MenuItem item(int id, String name, long pricePaise, int stock) {
+        MenuItem m = new MenuItem(id, name, 1, pricePaise, stock, null);
+        m.setCategoryName("Mains");
+        return m;
+    }
+
+    @Test
+    void looksUpItemsByIdWhateverTheInputOrder() {
+        MenuSnapshot s = MenuSnapshot.of(Arrays.asList(
+                item(30, "Dal", 15000, 3), item(10, "Paneer Tikka", 25050, 7), item(20, "Naan", 4000, 0)));
+
+        assertEquals(3, s.size());
+        assertEquals(10, s.itemId(0));
+        assertEquals(20, s.itemId(1));
+        assertEquals(30, s.itemId(2));
+
+        int i = s.indexOf(10);
+        assertEquals("Paneer Tikka", s.name(i));
+        assertEquals("Mains", s.categoryName(i));
+        assertEquals(25050, s.pricePaise(i));
+        assertEquals(7, s.stock(i));
+        assertEquals(4000, s.priceOf(20));
+    }
+
+    @Test
+    void unknownItemsAreNotFound() {
+        MenuSnapshot s = MenuSnapshot.of(Arrays.asList(item(10, "Tea", 1000, 1), item(20, "Coffee", 1500, 1)));
+        assertEquals(-1, s.indexOf(5));
+        assertEquals(-1, s.indexOf(15));
+        assertEquals(-1, s.indexOf(25));
+        assertEquals(-1, s.priceOf(15));
+
+        MenuSnapshot empty = MenuSnapshot.of(Collections.emptyList());
+        assertEquals(0, empty.size());
+        assertEquals(-1, empty.indexOf(10));
+    }
+
+    @Test
+    void laterChangesToTheItemsDoNotShowThrough() {
+        MenuItem tea = item(10, "Tea", 1000, 1);
+        MenuSnapshot s = MenuSnapshot.of(Collections.singletonList(tea));
+        tea.setPricePaise(9999);
+        tea.setAvailableQty(50);
+        assertEquals(1000, s.priceOf(10));
+        assertEquals(1, s.stock(0));
+    }
+}
@@ -0,0 +1,43 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void decimalsRoundTripExactly() {
+        assertEquals(123450, Money.fromDecimal(new BigDecimal("1234.50")));
+        assertEquals(new BigDecimal("1234.50"), Money.toDecimal(123450));
+        assertEquals(1, Money.fromDecimal(new BigDecimal("0.005"))); // half-up
+        assertEquals(0, Money.fromDecimal(null));
+    }
+
+    @Test
+    void parsesUserInput() {
+        assertEquals(2000, Money.parse("20"));
+        assertEquals(2050, Money.parse(" 20.5 "));
+        assertEquals(2050, Money.parse("₹ 20.50"));
+        assertThrows(NumberFormatException.class, () -> Money.parse("twenty"));
+    }
+
+    @Test
+    void formatsWithTwoDecimals() {
+        assertEquals("₹1234.50", Money.format(123450));
+        assertEquals("₹0.05", Money.format(5));
+        assertEquals("₹-3.07", Money.format(-307));
+        assertEquals("x=12.00", Money.append(new StringBuilder("x="), 1200).toString());
+    }
+
+    @Test
+    void sumsStayExact() {
+        // 0.10 added ten thousand times drifts as a double but not in paise
+        long total = 0;
+        for (int i = 0; i < 10_000; i++) total += Money.parse("0.10");
+        assertEquals("₹1000.00", Money.format(total));
+    }
+}
@@ -0,0 +1,68 @@
+package view;
+
+import controller.AppConfig;
+
+import javax.swing.SwingUtilities;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs database work off the event dispatch thread and hands results back on it.
+ * Requests are keyed (usually one key per panel): a newer request for the same key cancels
+ * the older one, and a superseded result is never delivered.
+ * All methods must be called on the EDT.
+ */
+class AsyncLoader {
+    private final ExecutorService executor;
+    private final Map<String, Future<?>> inFlight = new HashMap<>();
+    private final Map<String, Long> generations = new HashMap<>();
+
+    AsyncLoader(int threads) {
+        AtomicInteger n = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "ui-loader-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    AsyncLoader() {
+        this(AppConfig.getInt("ui.loaderThreads", 4));
+    }
+
+    <T> void load(String key, Callable<T> task, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        long gen = generations.merge(key, 1L, Long::sum);
+        Future<?> previous = inFlight.remove(key);
+        // not interrupting: a running JDBC call is left to finish, its result is just dropped
+        if (previous != null) previous.cancel(false);
+
+        Future<?> f = executor.submit(() -> {
+            T result;
+            try {
+                result = task.call();
+            } catch (Exception ex) {
+                SwingUtilities.invokeLater(() -> { if (isCurrent(key, gen)) onError.accept(ex); });
+                return;
+            }
+            SwingUtilities.invokeLater(() -> { if (isCurrent(key, gen)) onSuccess.accept(result); });
+        });
+        inFlight.put(key, f);
+    }
+
+    boolean isLoading(String key) {
+        Future<?> f = inFlight.get(key);
+        return f != null && !f.isDone();
+    }
+
+    private boolean isCurrent(String key, long gen) {
+        if (generations.getOrDefault(key, 0L) != gen) return false;
+        inFlight.remove(key);
+        return true;
+    }
+}
@@ -0,0 +1,70 @@
+package view;
+
+import model.Money;
+import model.Order;
+import model.OrderItem;
+
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Plain-text bill layout. Column widths, the header and the rule are fixed once, and each line
+ * is padded into a StringBuilder instead of going through String.format.
+ */
+public final class BillFormatter {
+    private static final int NAME_WIDTH = 30;
+    private static final int QTY_WIDTH = 5;
+    private static final int TOTAL_WIDTH = 10;
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String TITLE = "The Palate — Bill\n\n";
+    private static final String HEADER;
+    private static final String RULE = "-----------------------------------------------\n";
+
+    static {
+        StringBuilder sb = new StringBuilder();
+        padRight(sb, "Item", NAME_WIDTH);
+        sb.append(' ');
+        padLeft(sb, "Qty", QTY_WIDTH);
+        sb.append(' ');
+        padLeft(sb, "Total", TOTAL_WIDTH);
+        HEADER = sb.append('\n').toString();
+    }
+
+    private BillFormatter() {}
+
+    public static String format(Order order) {
+        StringBuilder sb = new StringBuilder(TITLE.length() + HEADER.length() + RULE.length() + 48 * (order.getItems().size() + 6));
+        sb.append(TITLE);
+        if (order.getOrderId() == 0 && order.getJournalSeq() > 0) {
+            sb.append("Order ID: pending (journal #").append(order.getJournalSeq()).append(")\n");
+        } else {
+            sb.append("Order ID: ").append(order.getOrderId()).append('\n');
+        }
+        sb.append("Date: ").append(DATE.format(order.getOrderTime())).append("\n\n");
+        sb.append(HEADER).append(RULE);
+        StringBuilder num = new StringBuilder(16);
+        for (OrderItem oi : order.getItems()) {
+            padRight(sb, oi.getName(), NAME_WIDTH);
+            sb.append(' ');
+            num.setLength(0);
+            padLeft(sb, num.append(oi.getQuantity()), QTY_WIDTH);
+            sb.append(' ');
+            num.setLength(0);
+            padLeft(sb, Money.append(num, oi.getTotalPaise()), TOTAL_WIDTH);
+            sb.append('\n');
+        }
+        Money.append(sb.append("\nSubtotal: ₹"), order.getTotalPaise()).append('\n');
+        Money.append(sb.append("Discount: ₹"), order.getDiscountPaise()).append('\n');
+        Money.append(sb.append("Net: ₹"), order.getNetPaise()).append('\n');
+        return sb.toString();
+    }
+
+    private static void padRight(StringBuilder sb, CharSequence s, int width) {
+        sb.append(s);
+        for (int i = s.length(); i < width; i++) sb.append(' ');
+    }
+
+    private static void padLeft(StringBuilder sb, CharSequence s, int width) {
+        for (int i = s.length(); i < width; i++) sb.append(' ');
+        sb.append(s);
+    }
+}
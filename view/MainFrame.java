@@ -1,623 +1,1122 @@
-package view;
-
-import controller.AccountController;
-import controller.InventoryController;
-import controller.MenuController;
-import controller.OrderController;
-import model.MenuItem;
-import model.OrderItem;
-
-import javax.swing.*;
-import javax.swing.border.EmptyBorder;
-import javax.swing.table.DefaultTableModel;
-import java.awt.*;
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
-import java.util.List;
-import java.util.Map;
-
-/**
- * MainFrame - complete UI with colored backgrounds and modern fonts.
- * All panels are inner classes to keep a single-file view implementation.
- */
-public class MainFrame extends JFrame {
-    private final MenuController menuController = new MenuController();
-    private final OrderController orderController = new OrderController();
-    private final InventoryController inventoryController = new InventoryController();
-    private final AccountController accountController = new AccountController();
-
-    private final CardLayout cardLayout = new CardLayout();
-    private final JPanel cards = new JPanel(cardLayout);
-
-    // panels
-    private WelcomePanel welcomePanel;
-    private AdminPanel adminPanel;
-    private AccountsPanel accountsPanel;
-    private InventoryPanel inventoryPanel;
-    private OrdersPanel ordersPanel;
-    private CustomerMenuPanel customerMenuPanel;
-    private CategoryPanel categoryPanel;
-    private CartPanel cartPanel;
-    private BillPanel billPanel;
-    private ThankYouPanel thankYouPanel;
-
-    public MainFrame() {
-        setTitle("🍽️ Restaurant Management");
-        setSize(1100, 720);
-        setLocationRelativeTo(null);
-        setDefaultCloseOperation(EXIT_ON_CLOSE);
-
-        // create panels
-        welcomePanel = new WelcomePanel();
-        adminPanel = new AdminPanel();
-        accountsPanel = new AccountsPanel();
-        inventoryPanel = new InventoryPanel();
-        ordersPanel = new OrdersPanel();
-        customerMenuPanel = new CustomerMenuPanel();
-        categoryPanel = new CategoryPanel();
-        cartPanel = new CartPanel();
-        billPanel = new BillPanel();
-        thankYouPanel = new ThankYouPanel();
-
-        // add to cards
-        cards.add(welcomePanel, "WELCOME!");
-        cards.add(adminPanel, "admin");
-        cards.add(accountsPanel, "accounts");
-        cards.add(inventoryPanel, "inventory");
-        cards.add(ordersPanel, "orders");
-        cards.add(customerMenuPanel, "customer");
-        cards.add(categoryPanel, "category");
-        cards.add(cartPanel, "cart");
-        cards.add(billPanel, "bill");
-        cards.add(thankYouPanel, "thankyou");
-
-        add(cards);
-        showCard("WELCOME!");
-    }
-
-    public void showCard(String name) {
-        if ("inventory".equals(name)) inventoryPanel.refresh();
-        if ("orders".equals(name)) ordersPanel.refresh();
-        if ("accounts".equals(name)) accountsPanel.refresh();
-        if ("category".equals(name)) categoryPanel.refresh();
-        if ("cart".equals(name)) cartPanel.refresh();
-        cardLayout.show(cards, name);
-    }
-
-    /* ----------------- Shared UI helpers ----------------- */
-    private static void styleButton(JButton b) {
-        b.setBackground(new Color(25, 118, 210));
-        b.setForeground(Color.WHITE);
-        b.setFont(new Font("Segoe UI", Font.BOLD, 14));
-        b.setFocusPainted(false);
-        b.setBorder(BorderFactory.createEmptyBorder(8, 15, 8, 15));
-        b.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
-    }
-
-    private static JLabel titleLabel(String text) {
-        JLabel lbl = new JLabel(text, SwingConstants.CENTER);
-        lbl.setFont(new Font("Segoe UI", Font.BOLD, 26));
-        lbl.setForeground(Color.WHITE);
-        lbl.setBorder(new EmptyBorder(10, 0, 20, 0));
-        return lbl;
-    }
-
-    /* ----------------- Panels ----------------- */
-
-    // Welcome
-    class WelcomePanel extends JPanel {
-        public WelcomePanel() {
-            setLayout(new BorderLayout());
-            // gradient background via custom painting
-            setBackground(new Color(48, 63, 159));
-
-            JLabel title = titleLabel("✨ Welcome! ✨");
-            add(title, BorderLayout.NORTH);
-
-            JPanel center = new JPanel();
-            center.setOpaque(false);
-            center.setLayout(new GridLayout(2, 1, 0, 10));
-
-            JLabel msg = new JLabel(
-                    "<html><div style='text-align:center;font-size:16px;color:white;'>"
-                            + "Choose your role to get started.<br>Admin can manage menu, orders & accounts.<br>"
-                            + "Customers can view menu & place orders.</div></html>", SwingConstants.CENTER);
-            msg.setFont(new Font("Segoe UI", Font.PLAIN, 16));
-            center.add(msg);
-
-            JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 40, 20));
-            btnPanel.setOpaque(false);
-            JButton admin = new JButton("Admin");
-            JButton customer = new JButton("Customer");
-            styleButton(admin);
-            styleButton(customer);
-            admin.setBackground(new Color(244, 81, 30));
-            customer.setBackground(new Color(0, 150, 136));
-            btnPanel.add(admin);
-            btnPanel.add(customer);
-            center.add(btnPanel);
-
-            add(center, BorderLayout.CENTER);
-
-            admin.addActionListener(e -> showCard("admin"));
-            customer.addActionListener(e -> showCard("customer"));
-        }
-
-        // optional paint for subtle gradient card effect (not necessary)
-        @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            // no custom paint needed here because we set background color
-        }
-    }
-
-    // Admin Dashboard
-    class AdminPanel extends JPanel {
-        public AdminPanel() {
-            setLayout(new BorderLayout());
-            setBackground(new Color(33, 150, 243));
-            add(titleLabel("👩‍💼 Admin Dashboard"), BorderLayout.NORTH);
-
-            JPanel center = new JPanel(new FlowLayout(FlowLayout.CENTER, 40, 80));
-            center.setOpaque(false);
-
-            JButton accounts = new JButton("Accounts");
-            JButton inventory = new JButton("Inventory");
-            JButton orders = new JButton("Orders");
-            styleButton(accounts);
-            styleButton(inventory);
-            styleButton(orders);
-
-            accounts.setPreferredSize(new Dimension(200, 70));
-            inventory.setPreferredSize(new Dimension(200, 70));
-            orders.setPreferredSize(new Dimension(200, 70));
-
-            center.add(accounts);
-            center.add(inventory);
-            center.add(orders);
-            add(center, BorderLayout.CENTER);
-
-            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            bottom.setOpaque(false);
-            JButton back = new JButton("← Back");
-            styleButton(back);
-            back.setBackground(new Color(96, 125, 139));
-            back.addActionListener(e -> showCard("welcome"));
-            bottom.add(back);
-            add(bottom, BorderLayout.SOUTH);
-
-            accounts.addActionListener(e -> showCard("accounts"));
-            inventory.addActionListener(e -> showCard("inventory"));
-            orders.addActionListener(e -> showCard("orders"));
-        }
-    }
-
-    // Accounts panel
-    class AccountsPanel extends JPanel {
-        private final JLabel revenueLbl = new JLabel("Revenue: ₹0.00", SwingConstants.CENTER);
-        private final JLabel ordersLbl = new JLabel("Orders today: 0", SwingConstants.CENTER);
-
-        public AccountsPanel() {
-            setLayout(new BorderLayout());
-            setBackground(new Color(0, 121, 107));
-
-            add(titleLabel("📊 Accounts & Financial Summary"), BorderLayout.NORTH);
-            revenueLbl.setFont(new Font("Segoe UI", Font.BOLD, 20));
-            revenueLbl.setForeground(Color.WHITE);
-            ordersLbl.setFont(new Font("Segoe UI", Font.BOLD, 20));
-            ordersLbl.setForeground(Color.WHITE);
-
-            JPanel center = new JPanel(new GridLayout(2, 1, 10, 10));
-            center.setOpaque(false);
-            center.add(revenueLbl);
-            center.add(ordersLbl);
-            add(center, BorderLayout.CENTER);
-
-            JButton back = new JButton("← Back");
-            styleButton(back);
-            back.setBackground(new Color(96, 125, 139));
-            back.addActionListener(e -> showCard("admin"));
-
-            JPanel bottom = new JPanel();
-            bottom.setOpaque(false);
-            bottom.add(back);
-            add(bottom, BorderLayout.SOUTH);
-        }
-
-        public void refresh() {
-            Map<String, Object> s = accountController.getTodaySummary();
-            double revenue = (double) s.getOrDefault("revenue", 0.0);
-            int orders = (int) s.getOrDefault("orders", 0);
-            revenueLbl.setText(String.format("Revenue today: ₹%.2f", revenue));
-            ordersLbl.setText("Orders today: " + orders);
-        }
-    }
-
-    // Inventory panel
-    class InventoryPanel extends JPanel {
-        private final DefaultTableModel model = new DefaultTableModel(new String[]{"Item ID", "Name", "Category", "Price", "Available"}, 0);
-        private final JTable table = new JTable(model);
-
-        public InventoryPanel() {
-            setLayout(new BorderLayout());
-            setBorder(new EmptyBorder(10, 10, 10, 10));
-            setBackground(new Color(46, 125, 50)); // green
-
-            JLabel header = titleLabel("📦 Inventory Management");
-            add(header, BorderLayout.NORTH);
-
-            table.setRowHeight(26);
-            add(new JScrollPane(table), BorderLayout.CENTER);
-
-            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            bottom.setOpaque(false);
-            JButton restock = new JButton("Restock Selected");
-            JButton back = new JButton("← Back");
-            styleButton(restock);
-            styleButton(back);
-            restock.setBackground(new Color(244, 67, 54));
-            back.setBackground(new Color(96, 125, 139));
-            bottom.add(restock);
-            bottom.add(back);
-            add(bottom, BorderLayout.SOUTH);
-
-            restock.addActionListener(e -> {
-                int r = table.getSelectedRow();
-                if (r == -1) {
-                    JOptionPane.showMessageDialog(this, "Select an item to restock.");
-                    return;
-                }
-                int itemId = (int) model.getValueAt(r, 0);
-                String qtyS = JOptionPane.showInputDialog(this, "Enter qty to add:", "10");
-                try {
-                    int q = Integer.parseInt(qtyS);
-                    boolean ok = inventoryController.restock(itemId, q);
-                    if (ok) {
-                        JOptionPane.showMessageDialog(this, "Restocked successfully.");
-                        refresh();
-                    } else {
-                        JOptionPane.showMessageDialog(this, "Failed to restock (check DB).");
-                    }
-                } catch (NumberFormatException ex) {
-                    JOptionPane.showMessageDialog(this, "Invalid number.");
-                }
-            });
-
-            back.addActionListener(e -> showCard("admin"));
-            refresh();
-        }
-
-        public void refresh() {
-            model.setRowCount(0);
-            List<MenuItem> all = menuController.getAllMenu();
-            for (MenuItem m : all) {
-                model.addRow(new Object[]{m.getItemId(), m.getName(), m.getCategoryName(), String.format("₹%.2f", m.getPrice()), m.getAvailableQty()});
-            }
-        }
-    }
-
-    // Orders (admin) panel
-    class OrdersPanel extends JPanel {
-        private final DefaultTableModel model = new DefaultTableModel(new String[]{"Order ID", "Total", "Discount", "Net"}, 0);
-        private final JTable table = new JTable(model);
-
-        public OrdersPanel() {
-            setLayout(new BorderLayout());
-            setBackground(new Color(255, 167, 38)); // amber
-            add(titleLabel("🧾 Today's Orders"), BorderLayout.NORTH);
-
-            table.setRowHeight(26);
-            add(new JScrollPane(table), BorderLayout.CENTER);
-
-            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            bottom.setOpaque(false);
-            JButton back = new JButton("← Back");
-            styleButton(back);
-            back.setBackground(new Color(96, 125, 139));
-            bottom.add(back);
-            add(bottom, BorderLayout.SOUTH);
-
-            back.addActionListener(e -> showCard("admin"));
-            refresh();
-        }
-
-        public void refresh() {
-            model.setRowCount(0);
-            String sql = "SELECT order_id, total_amount, discount, net_amount FROM orders WHERE DATE(order_date)=CURDATE() ORDER BY order_date DESC";
-            try (Connection conn = controller.DBConnection.getConnection();
-                 PreparedStatement ps = conn.prepareStatement(sql);
-                 ResultSet rs = ps.executeQuery()) {
-                while (rs.next()) {
-                    model.addRow(new Object[]{
-                            rs.getInt("order_id"),
-                            String.format("₹%.2f", rs.getDouble("total_amount")),
-                            String.format("₹%.2f", rs.getDouble("discount")),
-                            String.format("₹%.2f", rs.getDouble("net_amount"))
-                    });
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                JOptionPane.showMessageDialog(this, "Failed to load orders: " + ex.getMessage());
-            }
-        }
-    }
-
-    // Customer menu (category selection)
-    class CustomerMenuPanel extends JPanel {
-        public CustomerMenuPanel() {
-            setLayout(new BorderLayout());
-            setBackground(new Color(103, 58, 183)); // purple
-            add(titleLabel("🍽️ Menu Categories"), BorderLayout.NORTH);
-
-            JPanel center = new JPanel(new FlowLayout(FlowLayout.CENTER, 14, 14));
-            center.setOpaque(false);
-
-            List<String> categories = menuController.getCategories();
-            if (categories.isEmpty()) {
-                center.add(new JLabel("No categories found (DB empty)."));
-            } else {
-                for (String cat : categories) {
-                    JButton b = new JButton(cat);
-                    styleButton(b);
-                    b.setPreferredSize(new Dimension(160, 60));
-                    b.addActionListener(e -> {
-                        categoryPanel.setCategory(cat);
-                        showCard("category");
-                    });
-                    center.add(b);
-                }
-            }
-
-            add(new JScrollPane(center), BorderLayout.CENTER);
-
-            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            bottom.setOpaque(false);
-            JButton back = new JButton("← Back");
-            styleButton(back);
-            back.setBackground(new Color(96, 125, 139));
-            back.addActionListener(e -> showCard("welcome"));
-            bottom.add(back);
-            add(bottom, BorderLayout.SOUTH);
-        }
-    }
-
-    // Category items listing
-    class CategoryPanel extends JPanel {
-        private final DefaultTableModel model = new DefaultTableModel(new String[]{"ItemID", "Name", "Price", "Available", "Qty to add"}, 0);
-        private final JTable table = new JTable(model);
-        private String currentCategory;
-
-        public CategoryPanel() {
-            setLayout(new BorderLayout());
-            setBackground(new Color(3, 169, 244)); // light blue
-            add(titleLabel("📚 Category Items"), BorderLayout.NORTH);
-
-            table.setRowHeight(26);
-            add(new JScrollPane(table), BorderLayout.CENTER);
-
-            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-            bottom.setOpaque(false);
-            JButton addToCart = new JButton("Add Selected to Cart");
-            JButton viewCart = new JButton("View Cart");
-            JButton back = new JButton("← Back");
-            styleButton(addToCart);
-            styleButton(viewCart);
-            styleButton(back);
-            addToCart.setBackground(new Color(76, 175, 80));
-            viewCart.setBackground(new Color(244, 67, 54));
-            back.setBackground(new Color(96, 125, 139));
-
-            bottom.add(back);
-            bottom.add(viewCart);
-            bottom.add(addToCart);
-            add(bottom, BorderLayout.SOUTH);
-
-            back.addActionListener(e -> showCard("customer"));
-            viewCart.addActionListener(e -> {
-                cartPanel.refresh();
-                showCard("cart");
-            });
-
-            addToCart.addActionListener(e -> {
-                int r = table.getSelectedRow();
-                if (r == -1) {
-                    JOptionPane.showMessageDialog(this, "Select an item.");
-                    return;
-                }
-                int itemId = (int) model.getValueAt(r, 0);
-                int qty = 1;
-                try {
-                    Object v = model.getValueAt(r, 4);
-                    qty = Integer.parseInt(String.valueOf(v));
-                } catch (Exception ex) {
-                    qty = 1;
-                }
-                try {
-                    orderController.addToCart(itemId, qty);
-                    JOptionPane.showMessageDialog(this, "Added to cart.");
-                    refresh();
-                } catch (Exception ex) {
-                    JOptionPane.showMessageDialog(this, ex.getMessage());
-                }
-            });
-        }
-
-        public void setCategory(String cat) {
-            this.currentCategory = cat;
-            refresh();
-        }
-
-        public void refresh() {
-            model.setRowCount(0);
-            if (currentCategory == null) return;
-            List<MenuItem> list = menuController.getMenuByCategory(currentCategory);
-            for (MenuItem m : list) {
-                model.addRow(new Object[]{m.getItemId(), m.getName(), String.format("₹%.2f", m.getPrice()), m.getAvailableQty(), 1});
-            }
-        }
-    }
-
-    // Cart panel
-    class CartPanel extends JPanel {
-        private final DefaultTableModel model = new DefaultTableModel(new String[]{"Name", "Qty", "Price", "Total"}, 0);
-        private final JTextField discountField = new JTextField("0", 6);
-        private final JLabel subtotalLabel = new JLabel("₹0.00");
-
-        public CartPanel() {
-            setLayout(new BorderLayout());
-            setBackground(new Color(121, 85, 72)); // brown
-            add(titleLabel("🛒 Cart"), BorderLayout.NORTH);
-
-            JTable t = new JTable(model);
-            t.setRowHeight(26);
-            add(new JScrollPane(t), BorderLayout.CENTER);
-
-            JPanel right = new JPanel();
-            right.setOpaque(false);
-            right.setLayout(new BoxLayout(right, BoxLayout.Y_AXIS));
-            right.setBorder(new EmptyBorder(10, 10, 10, 10));
-
-            JLabel subLbl = new JLabel("Subtotal:");
-            subLbl.setForeground(Color.WHITE);
-            subLbl.setFont(new Font("Segoe UI", Font.PLAIN, 14));
-            subtotalLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
-            subtotalLabel.setForeground(Color.WHITE);
-
-            right.add(subLbl);
-            right.add(subtotalLabel);
-            right.add(Box.createVerticalStrut(10));
-
-            JPanel disc = new JPanel(new FlowLayout(FlowLayout.LEFT));
-            disc.setOpaque(false);
-            disc.add(new JLabel("Discount (₹): "));
-            disc.add(discountField);
-            right.add(disc);
-            right.add(Box.createVerticalStrut(12));
-
-            JButton generate = new JButton("Generate Bill");
-            styleButton(generate);
-            generate.setBackground(new Color(0, 188, 212));
-            generate.addActionListener(e -> {
-                double discVal = 0;
-                try {
-                    discVal = Double.parseDouble(discountField.getText());
-                } catch (Exception ex) {
-                    discVal = 0;
-                }
-                try {
-                    int orderId = orderController.placeOrder(discVal);
-                    JOptionPane.showMessageDialog(this, "Order placed (ID: " + orderId + ")");
-                    billPanel.renderFromOrder(orderId);
-                    showCard("bill");
-                } catch (Exception ex) {
-                    JOptionPane.showMessageDialog(this, ex.getMessage());
-                }
-            });
-
-            JButton back = new JButton("← Back");
-            styleButton(back);
-            back.setBackground(new Color(96, 125, 139));
-            back.addActionListener(e -> showCard("customer"));
-
-            right.add(generate);
-            right.add(Box.createVerticalStrut(8));
-            right.add(back);
-
-            add(right, BorderLayout.EAST);
-            refresh();
-        }
-
-        public void refresh() {
-            model.setRowCount(0);
-            for (OrderItem oi : orderController.getCart()) {
-                model.addRow(new Object[]{oi.getName(), oi.getQuantity(), String.format("₹%.2f", oi.getPrice()), String.format("₹%.2f", oi.getTotal())});
-            }
-            subtotalLabel.setText(String.format("₹%.2f", orderController.getSubtotal()));
-        }
-    }
-
-    // Bill panel
-    class BillPanel extends JPanel {
-        private final JTextArea area = new JTextArea();
-
-        public BillPanel() {
-            setLayout(new BorderLayout());
-            setBackground(new Color(96, 125, 139));
-            add(titleLabel("🧾 Bill"), BorderLayout.NORTH);
-
-            area.setFont(new Font("Monospaced", Font.PLAIN, 14));
-            area.setEditable(false);
-            add(new JScrollPane(area), BorderLayout.CENTER);
-
-            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT));
-            bottom.setOpaque(false);
-            JButton done = new JButton("Done");
-            styleButton(done);
-            done.setBackground(new Color(233, 30, 99));
-            done.addActionListener(e -> showCard("thankyou"));
-            bottom.add(done);
-            add(bottom, BorderLayout.SOUTH);
-        }
-
-        public void renderFromOrder(int orderId) {
-            StringBuilder sb = new StringBuilder();
-            sb.append("The Palate — Bill\n\n");
-            try (Connection conn = controller.DBConnection.getConnection();
-                 PreparedStatement ps = conn.prepareStatement("SELECT * FROM orders WHERE order_id = ?");
-                 PreparedStatement psItems = conn.prepareStatement("SELECT oi.*, mi.name FROM order_items oi JOIN menu_items mi ON oi.item_id = mi.item_id WHERE oi.order_id = ?")) {
-                ps.setInt(1, orderId);
-                try (ResultSet rs = ps.executeQuery()) {
-                    if (rs.next()) {
-                        sb.append("Order ID: ").append(orderId).append("\n");
-                        sb.append("Date: ").append(rs.getTimestamp("order_date")).append("\n\n");
-                        psItems.setInt(1, orderId);
-                        try (ResultSet r2 = psItems.executeQuery()) {
-                            sb.append(String.format("%-30s %5s %10s\n", "Item", "Qty", "Total"));
-                            sb.append("-----------------------------------------------\n");
-                            double subtotal = 0;
-                            while (r2.next()) {
-                                String iname = r2.getString("name");
-                                int q = r2.getInt("quantity");
-                                double price = r2.getDouble("price");
-                                sb.append(String.format("%-30s %5d %10.2f\n", iname, q, price * q));
-                                subtotal += price * q;
-                            }
-                            sb.append("\nSubtotal: ₹").append(String.format("%.2f", subtotal)).append("\n");
-                            sb.append("Discount: ₹").append(String.format("%.2f", rs.getDouble("discount"))).append("\n");
-                            sb.append("Net: ₹").append(String.format("%.2f", rs.getDouble("net_amount"))).append("\n");
-                        }
-                    } else {
-                        sb.append("Order not found.\n");
-                    }
-                }
-            } catch (Exception ex) {
-                ex.printStackTrace();
-                sb.append("\nError fetching order.\n");
-            }
-            area.setText(sb.toString());
-        }
-    }
-
-    // Thank you
-    class ThankYouPanel extends JPanel {
-        public ThankYouPanel() {
-            setLayout(new BorderLayout());
-            setBackground(new Color(255, 204, 128));
-            JLabel t = new JLabel("🎉 Thank You for Visiting The Palate!", SwingConstants.CENTER);
-            t.setFont(new Font("Segoe UI", Font.BOLD, 28));
-            t.setForeground(new Color(85, 65, 0));
-            add(t, BorderLayout.CENTER);
-
-            JButton home = new JButton("Back to Home");
-            styleButton(home);
-            home.setBackground(new Color(233, 30, 99));
-            home.addActionListener(e -> showCard("welcome"));
-
-            JPanel p = new JPanel();
-            p.setOpaque(false);
-            p.add(home);
-            add(p, BorderLayout.SOUTH);
-        }
-    }
-}
+package view;
+
+import controller.AccountController;
+import controller.AppConfig;
+import controller.CatalogTransfer;
+import controller.ChangeEvents;
+import controller.ConnectionPool;
+import controller.DBConnection;
+import controller.ReplicaRouter;
+import controller.ShardRouter;
+import controller.InventoryController;
+import controller.LatencyHistogram;
+import controller.MenuController;
+import controller.Metrics;
+import controller.OrderController;
+import model.ConsolidatedSales;
+import model.MenuItem;
+import model.Money;
+import model.Order;
+import model.OrderItem;
+import model.SalesReport;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.File;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * MainFrame - complete UI with colored backgrounds and modern fonts.
+ * All panels are inner classes to keep a single-file view implementation.
+ */
+public class MainFrame extends JFrame {
+    private final MenuController menuController = new MenuController();
+    private final OrderController orderController = new OrderController();
+    private final InventoryController inventoryController = new InventoryController();
+    private final CatalogTransfer transfer = new CatalogTransfer();
+    private final AccountController accountController = new AccountController();
+    private final AsyncLoader loader = new AsyncLoader();
+
+    private final CardLayout cardLayout = new CardLayout();
+    private final JPanel cards = new JPanel(cardLayout);
+
+    // panels are built the first time their card is shown
+    private final Map<String, Supplier<JPanel>> factories = new HashMap<>();
+    private final Map<String, JPanel> built = new HashMap<>();
+
+    public MainFrame() {
+        setTitle("🍽️ Restaurant Management");
+        setSize(1100, 720);
+        setLocationRelativeTo(null);
+        setDefaultCloseOperation(EXIT_ON_CLOSE);
+
+        factories.put("welcome", WelcomePanel::new);
+        factories.put("admin", AdminPanel::new);
+        factories.put("accounts", AccountsPanel::new);
+        factories.put("inventory", InventoryPanel::new);
+        factories.put("orders", OrdersPanel::new);
+        factories.put("metrics", MetricsPanel::new);
+        factories.put("reports", ReportsPanel::new);
+        factories.put("customer", CustomerMenuPanel::new);
+        factories.put("category", CategoryPanel::new);
+        factories.put("cart", CartPanel::new);
+        factories.put("bill", BillPanel::new);
+        factories.put("thankyou", ThankYouPanel::new);
+
+        add(cards);
+        showCard("welcome");
+        if (AppConfig.getBoolean("ui.warmUp", true)) warmUp();
+    }
+
+    /** Tables stay current through ChangeEvents; only the accounts summary (served from memory) refreshes on show. */
+    public void showCard(String name) {
+        JPanel p = card(name);
+        if (p instanceof AccountsPanel) ((AccountsPanel) p).refresh();
+        cardLayout.show(cards, name);
+    }
+
+    private JPanel card(String name) {
+        JPanel p = built.get(name);
+        if (p == null) {
+            Supplier<JPanel> factory = factories.get(name);
+            if (factory == null) throw new IllegalArgumentException("No such card: " + name);
+            long t0 = System.nanoTime();
+            p = factory.get();
+            Metrics.shared().histogram("ui.buildCard").record(System.nanoTime() - t0);
+            built.put(name, p);
+            cards.add(p, name);
+        }
+        return p;
+    }
+
+    private CategoryPanel categoryPanel() { return (CategoryPanel) card("category"); }
+
+    private BillPanel billPanel() { return (BillPanel) card("bill"); }
+
+    /**
+     * Loads the categories, the menu catalog and today's summary into the shared caches in
+     * parallel while the welcome screen is up, so the first customer and accounts screens open
+     * without waiting on the database. Never blocks the EDT; the timings go to the log and to the
+     * startup.warmUp histogram.
+     */
+    private void warmUp() {
+        ExecutorService pool = Executors.newFixedThreadPool(3, r -> {
+            Thread t = new Thread(r, "ui-warm-up");
+            t.setDaemon(true);
+            return t;
+        });
+        long t0 = System.nanoTime();
+        Map<String, Long> took = new ConcurrentHashMap<>();
+        Map<String, Runnable> tasks = new LinkedHashMap<>();
+        tasks.put("categories", menuController::getCategories);
+        tasks.put("menu", menuController::getSnapshot);
+        tasks.put("today", accountController::getTodaySummary);
+        CompletableFuture<?>[] all = new CompletableFuture<?>[tasks.size()];
+        int i = 0;
+        for (Map.Entry<String, Runnable> e : tasks.entrySet()) {
+            all[i++] = CompletableFuture.runAsync(() -> {
+                long s = System.nanoTime();
+                e.getValue().run();
+                took.put(e.getKey(), (System.nanoTime() - s) / 1_000_000);
+            }, pool);
+        }
+        pool.shutdown();
+        CompletableFuture.allOf(all).whenComplete((v, ex) -> {
+            long nanos = System.nanoTime() - t0;
+            Metrics.shared().histogram("startup.warmUp").record(nanos);
+            StringBuilder sb = new StringBuilder("Warm-up done in ").append(nanos / 1_000_000).append(" ms (");
+            for (String name : tasks.keySet()) {
+                if (sb.charAt(sb.length() - 1) != '(') sb.append(", ");
+                sb.append(name).append(' ').append(took.containsKey(name) ? took.get(name) + " ms" : "failed");
+            }
+            System.out.println(sb.append(')'));
+            if (ex != null) ex.printStackTrace();
+        });
+    }
+
+    /* ----------------- Shared UI helpers ----------------- */
+    private static void styleButton(JButton b) {
+        b.setBackground(new Color(25, 118, 210));
+        b.setForeground(Color.WHITE);
+        b.setFont(new Font("Segoe UI", Font.BOLD, 14));
+        b.setFocusPainted(false);
+        b.setBorder(BorderFactory.createEmptyBorder(8, 15, 8, 15));
+        b.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+    }
+
+    private static JLabel statusLabel() {
+        JLabel lbl = new JLabel(" ");
+        lbl.setFont(new Font("Segoe UI", Font.ITALIC, 13));
+        lbl.setForeground(Color.WHITE);
+        return lbl;
+    }
+
+    /**
+     * Runs task off the EDT (superseding any earlier task with the same key) while the panel
+     * shows a loading state, then hands the result to onDone on the EDT.
+     */
+    private <T> void loadAsync(String key, JPanel panel, JLabel status, Callable<T> task, Consumer<T> onDone) {
+        status.setText("Loading…");
+        panel.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        loader.load(key, task, result -> {
+            status.setText(" ");
+            panel.setCursor(Cursor.getDefaultCursor());
+            onDone.accept(result);
+        }, ex -> {
+            status.setText(" ");
+            panel.setCursor(Cursor.getDefaultCursor());
+            ex.printStackTrace();
+            JOptionPane.showMessageDialog(panel, ex.getMessage());
+        });
+    }
+
+    /** Delivers a controller event to the listener on the EDT. */
+    private static <T> void onEvent(Class<T> type, Consumer<T> listener) {
+        ChangeEvents.shared().addListener(type, e -> SwingUtilities.invokeLater(() -> listener.accept(e)));
+    }
+
+    /** Updates the stock cell of the rows whose item id (column 0) changed. */
+    private static void applyStock(DefaultTableModel model, int column, Map<Integer, Integer> stock) {
+        for (int r = 0; r < model.getRowCount(); r++) {
+            Integer qty = stock.get((Integer) model.getValueAt(r, 0));
+            if (qty != null && !qty.equals(model.getValueAt(r, column))) model.setValueAt(qty, r, column);
+        }
+    }
+
+    private static JLabel titleLabel(String text) {
+        JLabel lbl = new JLabel(text, SwingConstants.CENTER);
+        lbl.setFont(new Font("Segoe UI", Font.BOLD, 26));
+        lbl.setForeground(Color.WHITE);
+        lbl.setBorder(new EmptyBorder(10, 0, 20, 0));
+        return lbl;
+    }
+
+    /* ----------------- Panels ----------------- */
+
+    // Welcome
+    class WelcomePanel extends JPanel {
+        public WelcomePanel() {
+            setLayout(new BorderLayout());
+            // gradient background via custom painting
+            setBackground(new Color(48, 63, 159));
+
+            JLabel title = titleLabel("✨ Welcome! ✨");
+            add(title, BorderLayout.NORTH);
+
+            JPanel center = new JPanel();
+            center.setOpaque(false);
+            center.setLayout(new GridLayout(2, 1, 0, 10));
+
+            JLabel msg = new JLabel(
+                    "<html><div style='text-align:center;font-size:16px;color:white;'>"
+                            + "Choose your role to get started.<br>Admin can manage menu, orders & accounts.<br>"
+                            + "Customers can view menu & place orders.</div></html>", SwingConstants.CENTER);
+            msg.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+            center.add(msg);
+
+            JPanel btnPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 40, 20));
+            btnPanel.setOpaque(false);
+            JButton admin = new JButton("Admin");
+            JButton customer = new JButton("Customer");
+            styleButton(admin);
+            styleButton(customer);
+            admin.setBackground(new Color(244, 81, 30));
+            customer.setBackground(new Color(0, 150, 136));
+            btnPanel.add(admin);
+            btnPanel.add(customer);
+            center.add(btnPanel);
+
+            add(center, BorderLayout.CENTER);
+
+            admin.addActionListener(e -> showCard("admin"));
+            customer.addActionListener(e -> showCard("customer"));
+        }
+
+        // optional paint for subtle gradient card effect (not necessary)
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            // no custom paint needed here because we set background color
+        }
+    }
+
+    // Admin Dashboard
+    class AdminPanel extends JPanel {
+        public AdminPanel() {
+            setLayout(new BorderLayout());
+            setBackground(new Color(33, 150, 243));
+            add(titleLabel("👩‍💼 Admin Dashboard"), BorderLayout.NORTH);
+
+            JPanel center = new JPanel(new FlowLayout(FlowLayout.CENTER, 40, 80));
+            center.setOpaque(false);
+
+            JButton accounts = new JButton("Accounts");
+            JButton inventory = new JButton("Inventory");
+            JButton orders = new JButton("Orders");
+            JButton metrics = new JButton("Metrics");
+            JButton reports = new JButton("Reports");
+            styleButton(accounts);
+            styleButton(inventory);
+            styleButton(orders);
+            styleButton(metrics);
+            styleButton(reports);
+
+            accounts.setPreferredSize(new Dimension(200, 70));
+            inventory.setPreferredSize(new Dimension(200, 70));
+            orders.setPreferredSize(new Dimension(200, 70));
+            metrics.setPreferredSize(new Dimension(200, 70));
+            reports.setPreferredSize(new Dimension(200, 70));
+
+            center.add(accounts);
+            center.add(inventory);
+            center.add(orders);
+            center.add(metrics);
+            center.add(reports);
+            add(center, BorderLayout.CENTER);
+
+            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            bottom.setOpaque(false);
+            JButton back = new JButton("← Back");
+            styleButton(back);
+            back.setBackground(new Color(96, 125, 139));
+            back.addActionListener(e -> showCard("welcome"));
+            bottom.add(back);
+            add(bottom, BorderLayout.SOUTH);
+
+            accounts.addActionListener(e -> showCard("accounts"));
+            inventory.addActionListener(e -> showCard("inventory"));
+            orders.addActionListener(e -> showCard("orders"));
+            metrics.addActionListener(e -> showCard("metrics"));
+            reports.addActionListener(e -> showCard("reports"));
+        }
+    }
+
+    // Sales reports (admin) panel: any date range, computed on demand
+    class ReportsPanel extends JPanel {
+        private final DefaultTableModel items = new DefaultTableModel(new String[]{"ItemID", "Item", "Category", "Qty", "Revenue"}, 0);
+        private final DefaultTableModel categories = new DefaultTableModel(new String[]{"Category", "Qty", "Revenue", "Share %"}, 0);
+        private final DefaultTableModel hours = new DefaultTableModel(new String[]{"Hour", "Orders", "Net", "Avg ticket"}, 0);
+        private final JLabel summary = new JLabel(" ");
+        private final JLabel status = statusLabel();
+        private final JTextField fromField = new JTextField(LocalDate.now().withDayOfMonth(1).toString(), 9);
+        private final JTextField toField = new JTextField(LocalDate.now().toString(), 9);
+
+        public ReportsPanel() {
+            setLayout(new BorderLayout());
+            setBackground(new Color(121, 85, 72)); // brown
+
+            JPanel top = new JPanel(new BorderLayout());
+            top.setOpaque(false);
+            top.add(titleLabel("📈 Sales Reports"), BorderLayout.NORTH);
+            summary.setFont(new Font("Segoe UI", Font.PLAIN, 15));
+            summary.setForeground(Color.WHITE);
+            summary.setBorder(new EmptyBorder(0, 12, 8, 12));
+            top.add(summary, BorderLayout.SOUTH);
+            add(top, BorderLayout.NORTH);
+
+            JTabbedPane tabs = new JTabbedPane();
+            tabs.addTab("By item", new JScrollPane(new JTable(items)));
+            tabs.addTab("By category", new JScrollPane(new JTable(categories)));
+            tabs.addTab("By hour", new JScrollPane(new JTable(hours)));
+            add(tabs, BorderLayout.CENTER);
+
+            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            bottom.setOpaque(false);
+            JButton back = new JButton("← Back");
+            JButton run = new JButton("Run");
+            styleButton(back);
+            styleButton(run);
+            back.setBackground(new Color(96, 125, 139));
+            bottom.add(back);
+            bottom.add(new JLabel("From:"));
+            bottom.add(fromField);
+            bottom.add(new JLabel("To:"));
+            bottom.add(toField);
+            bottom.add(run);
+            bottom.add(status);
+            add(bottom, BorderLayout.SOUTH);
+
+            back.addActionListener(e -> showCard("admin"));
+            run.addActionListener(e -> refresh());
+        }
+
+        public void refresh() {
+            LocalDate from, to;
+            try {
+                from = LocalDate.parse(fromField.getText().trim());
+                to = LocalDate.parse(toField.getText().trim());
+            } catch (DateTimeParseException ex) {
+                JOptionPane.showMessageDialog(this, "Dates must be yyyy-mm-dd.");
+                return;
+            }
+            if (to.isBefore(from)) {
+                JOptionPane.showMessageDialog(this, "'To' is before 'From'.");
+                return;
+            }
+            loadAsync("reports", this, status, () -> accountController.getSalesReport(from, to), this::render);
+        }
+
+        private void render(SalesReport r) {
+            summary.setText("<html>" + r.getOrders() + " orders · net " + Money.format(r.getNetPaise())
+                    + " · gross " + Money.format(r.getGrossPaise()) + " · avg ticket " + Money.format(r.getAverageTicketPaise())
+                    + "<br>Discounts: " + Money.format(r.getDiscountPaise()) + " (" + percent(r.getDiscountRateBp()) + "% of gross) on "
+                    + r.getDiscountedOrders() + " orders · avg ticket " + Money.format(r.getAverageDiscountedTicketPaise())
+                    + " with discount, " + Money.format(r.getAverageFullPriceTicketPaise()) + " without</html>");
+            items.setRowCount(0);
+            for (SalesReport.ItemSales s : r.getByItem()) {
+                items.addRow(new Object[]{s.getItemId(), s.getName(), s.getCategoryName(), s.getQuantity(), Money.format(s.getRevenuePaise())});
+            }
+            long lineTotal = 0;
+            for (SalesReport.CategorySales s : r.getByCategory()) lineTotal += s.getRevenuePaise();
+            categories.setRowCount(0);
+            for (SalesReport.CategorySales s : r.getByCategory()) {
+                long bp = lineTotal == 0 ? 0 : s.getRevenuePaise() * 10_000 / lineTotal;
+                categories.addRow(new Object[]{s.getName(), s.getQuantity(), Money.format(s.getRevenuePaise()), percent(bp)});
+            }
+            hours.setRowCount(0);
+            long[] orders = r.getOrdersByHour();
+            long[] net = r.getNetByHourPaise();
+            for (int h = 0; h < 24; h++) {
+                if (orders[h] == 0) continue;
+                hours.addRow(new Object[]{String.format("%02d:00", h), orders[h], Money.format(net[h]), Money.format(net[h] / orders[h])});
+            }
+        }
+
+        /** Basis points as a percentage with two decimals. */
+        private String percent(long bp) {
+            return (bp / 100) + "." + (bp % 100 < 10 ? "0" : "") + (bp % 100);
+        }
+    }
+
+    // Metrics (admin) panel: in-memory histograms, refreshed on a timer while visible
+    class MetricsPanel extends JPanel {
+        private final DefaultTableModel model = new DefaultTableModel(
+                new String[]{"Operation", "Count", "Errors", "Error %", "p50 (ms)", "p99 (ms)", "Max (ms)"}, 0);
+        private final JLabel poolLabel = statusLabel();
+        private final Timer timer = new Timer(AppConfig.getInt("ui.metrics.refreshMs", 1000), e -> refresh());
+
+        public MetricsPanel() {
+            setLayout(new BorderLayout());
+            setBackground(new Color(69, 90, 100));
+            add(titleLabel("⏱ Metrics"), BorderLayout.NORTH);
+
+            JTable table = new JTable(model);
+            table.setRowHeight(24);
+            add(new JScrollPane(table), BorderLayout.CENTER);
+
+            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            bottom.setOpaque(false);
+            JButton back = new JButton("← Back");
+            styleButton(back);
+            back.setBackground(new Color(96, 125, 139));
+            back.addActionListener(e -> showCard("admin"));
+            bottom.add(back);
+            bottom.add(poolLabel);
+            add(bottom, BorderLayout.SOUTH);
+
+            addHierarchyListener(e -> {
+                if (isShowing()) {
+                    refresh();
+                    timer.start();
+                } else {
+                    timer.stop();
+                }
+            });
+        }
+
+        /** Rewrites the cells in place; rows are only added for operations seen for the first time. */
+        void refresh() {
+            int r = 0;
+            StringBuilder sb = new StringBuilder(16);
+            for (Map.Entry<String, LatencyHistogram> e : Metrics.shared().snapshot().entrySet()) {
+                LatencyHistogram h = e.getValue();
+                long count = h.getCount();
+                Object[] row = {e.getKey(), count, h.getErrors(),
+                        count == 0 ? "0" : errorPercent(h.getErrors(), count),
+                        millis(sb, h.percentile(50)), millis(sb, h.percentile(99)), millis(sb, h.getMax())};
+                if (r == model.getRowCount()) {
+                    model.addRow(row);
+                } else {
+                    for (int c = 0; c < row.length; c++) {
+                        if (!row[c].equals(model.getValueAt(r, c))) model.setValueAt(row[c], r, c);
+                    }
+                }
+                r++;
+            }
+            ConnectionPool.Stats p = DBConnection.getPoolStats();
+            poolLabel.setText("Pool: " + p.getActive() + " active, " + p.getIdle() + " idle, " + p.getWaiting()
+                    + " waiting of " + p.getMaxSize() + "; " + p.getTimeouts() + " timeouts, " + p.getLeaks() + " leaks"
+                    + replicaSummary());
+        }
+
+        /** "; replicas 1/2 usable, max lag 300 ms", or empty without replicas. */
+        private String replicaSummary() {
+            ReplicaRouter replicas = DBConnection.getReplicas();
+            if (replicas == null) return "";
+            int usable = 0;
+            long lag = 0;
+            List<ReplicaRouter.Status> nodes = replicas.getStatus();
+            for (ReplicaRouter.Status r : nodes) {
+                if (!r.isUsable()) continue;
+                usable++;
+                lag = Math.max(lag, r.getLagMs());
+            }
+            return "; replicas " + usable + "/" + nodes.size() + " usable, max lag " + lag + " ms";
+        }
+
+        private String millis(StringBuilder sb, long nanos) {
+            sb.setLength(0);
+            return Metrics.appendMillis(sb, nanos).toString();
+        }
+
+        /** Error rate as a percentage with one decimal. */
+        private String errorPercent(long errors, long count) {
+            long perMille = Math.round(errors * 1000.0 / count);
+            return (perMille / 10) + "." + (perMille % 10);
+        }
+    }
+
+    // Accounts panel
+    class AccountsPanel extends JPanel {
+        private final JLabel revenueLbl = new JLabel("Revenue: ₹0.00", SwingConstants.CENTER);
+        private final JLabel ordersLbl = new JLabel("Orders today: 0", SwingConstants.CENTER);
+        private final JLabel branchesLbl = new JLabel(" ", SwingConstants.CENTER);
+        private final boolean multiBranch = ShardRouter.shared().getBranches().size() > 1;
+        private final JLabel status = statusLabel();
+
+        public AccountsPanel() {
+            setLayout(new BorderLayout());
+            setBackground(new Color(0, 121, 107));
+
+            add(titleLabel("📊 Accounts & Financial Summary"), BorderLayout.NORTH);
+            revenueLbl.setFont(new Font("Segoe UI", Font.BOLD, 20));
+            revenueLbl.setForeground(Color.WHITE);
+            ordersLbl.setFont(new Font("Segoe UI", Font.BOLD, 20));
+            ordersLbl.setForeground(Color.WHITE);
+
+            branchesLbl.setFont(new Font("Segoe UI", Font.PLAIN, 16));
+            branchesLbl.setForeground(Color.WHITE);
+
+            JPanel center = new JPanel(new GridLayout(multiBranch ? 3 : 2, 1, 10, 10));
+            center.setOpaque(false);
+            center.add(revenueLbl);
+            center.add(ordersLbl);
+            if (multiBranch) center.add(branchesLbl);
+            add(center, BorderLayout.CENTER);
+
+            JButton back = new JButton("← Back");
+            styleButton(back);
+            back.setBackground(new Color(96, 125, 139));
+            back.addActionListener(e -> showCard("admin"));
+
+            JPanel bottom = new JPanel();
+            bottom.setOpaque(false);
+            bottom.add(back);
+            bottom.add(status);
+            add(bottom, BorderLayout.SOUTH);
+
+            onEvent(ChangeEvents.OrderPlaced.class, e -> { if (isShowing()) refresh(); });
+        }
+
+        public void refresh() {
+            loadAsync("accounts", this, status, accountController::getTodaySummary, s -> {
+                long revenue = (long) s.getOrDefault("revenue", 0L);
+                int orders = (int) s.getOrDefault("orders", 0);
+                revenueLbl.setText("Revenue today: " + Money.format(revenue));
+                ordersLbl.setText("Orders today: " + orders);
+            });
+            if (!multiBranch) return;
+            LocalDate today = LocalDate.now();
+            loadAsync("accounts-branches", this, status, () -> accountController.getConsolidatedSales(today, today), s -> {
+                int missing = 0;
+                for (ConsolidatedSales.BranchSales b : s.getBranches()) if (b.getError() != null) missing++;
+                branchesLbl.setText("All " + s.getBranches().size() + " branches: " + Money.format(s.getNetPaise())
+                        + ", " + s.getOrders() + " orders" + (missing == 0 ? "" : " (" + missing + " unavailable)"));
+            });
+        }
+    }
+
+    // Inventory panel
+    class InventoryPanel extends JPanel {
+        private final DefaultTableModel model = new DefaultTableModel(new String[]{"Item ID", "Name", "Category", "Price", "Available"}, 0);
+        private final JTable table = new JTable(model);
+        private final JLabel status = statusLabel();
+
+        public InventoryPanel() {
+            setLayout(new BorderLayout());
+            setBorder(new EmptyBorder(10, 10, 10, 10));
+            setBackground(new Color(46, 125, 50)); // green
+
+            JLabel header = titleLabel("📦 Inventory Management");
+            add(header, BorderLayout.NORTH);
+
+            table.setRowHeight(26);
+            add(new JScrollPane(table), BorderLayout.CENTER);
+
+            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            bottom.setOpaque(false);
+            JButton restock = new JButton("Restock Selected");
+            table.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+            JButton importBtn = new JButton("Import…");
+            JButton exportBtn = new JButton("Export…");
+            JButton reload = new JButton("Refresh");
+            JButton back = new JButton("← Back");
+            styleButton(reload);
+            styleButton(restock);
+            styleButton(importBtn);
+            styleButton(exportBtn);
+            styleButton(back);
+            restock.setBackground(new Color(244, 67, 54));
+            importBtn.setBackground(new Color(21, 101, 192));
+            exportBtn.setBackground(new Color(21, 101, 192));
+            back.setBackground(new Color(96, 125, 139));
+            bottom.add(restock);
+            bottom.add(importBtn);
+            bottom.add(exportBtn);
+            bottom.add(reload);
+            bottom.add(back);
+            bottom.add(status);
+            add(bottom, BorderLayout.SOUTH);
+
+            restock.addActionListener(e -> {
+                int[] selected = table.getSelectedRows();
+                if (selected.length == 0) {
+                    JOptionPane.showMessageDialog(this, "Select an item to restock.");
+                    return;
+                }
+                String qtyS = JOptionPane.showInputDialog(this,
+                        selected.length == 1 ? "Enter qty to add:" : "Enter qty to add to each of the " + selected.length + " items:", "10");
+                int q;
+                try {
+                    q = Integer.parseInt(qtyS);
+                } catch (NumberFormatException ex) {
+                    JOptionPane.showMessageDialog(this, "Invalid number.");
+                    return;
+                }
+                if (q <= 0) {
+                    JOptionPane.showMessageDialog(this, "Quantity to add must be > 0.");
+                    return;
+                }
+                Map<Integer, Integer> additions = new LinkedHashMap<>();
+                for (int r : selected) additions.put((int) model.getValueAt(r, 0), q);
+                restock.setEnabled(false);
+                loadAsync("restock", this, status, () -> inventoryController.restockAll(additions), updated -> {
+                    restock.setEnabled(true);
+                    if (!updated.isEmpty()) {
+                        JOptionPane.showMessageDialog(this, "Restocked successfully.");
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Failed to restock (check DB).");
+                    }
+                });
+            });
+
+            importBtn.addActionListener(e -> {
+                String kind = chooseKind("Import");
+                if (kind == null) return;
+                JFileChooser fc = new JFileChooser();
+                if (fc.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) return;
+                File file = fc.getSelectedFile();
+                CatalogTransfer.Format format = CatalogTransfer.Format.forFile(file.getName());
+                loadAsync("transfer", this, status, () -> {
+                    try (Reader in = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                        switch (kind) {
+                            case "Categories": return transfer.importCategories(in, format);
+                            case "Stock": return transfer.importStock(in, format);
+                            default: return transfer.importMenu(in, format);
+                        }
+                    }
+                }, result -> {
+                    StringBuilder msg = new StringBuilder("Imported ").append(result.getImported())
+                            .append(" of ").append(result.getRead()).append(" row(s).");
+                    if (result.getRejected() > 0) {
+                        msg.append("\nRejected ").append(result.getRejected()).append(':');
+                        List<String> errors = result.getErrors();
+                        for (int i = 0; i < errors.size() && i < 10; i++) msg.append('\n').append(errors.get(i));
+                    }
+                    JOptionPane.showMessageDialog(this, msg.toString());
+                });
+            });
+
+            exportBtn.addActionListener(e -> {
+                String kind = chooseKind("Export");
+                if (kind == null) return;
+                JFileChooser fc = new JFileChooser();
+                fc.setSelectedFile(new File(kind.toLowerCase() + ".csv"));
+                if (fc.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) return;
+                File file = fc.getSelectedFile();
+                CatalogTransfer.Format format = CatalogTransfer.Format.forFile(file.getName());
+                loadAsync("transfer", this, status, () -> {
+                    try (Writer out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+                        switch (kind) {
+                            case "Categories": return transfer.exportCategories(out, format);
+                            case "Stock": return transfer.exportStock(out, format);
+                            default: return transfer.exportMenu(out, format);
+                        }
+                    }
+                }, rows -> JOptionPane.showMessageDialog(this, "Exported " + rows + " row(s) to " + file.getName() + "."));
+            });
+
+            reload.addActionListener(e -> refresh());
+            back.addActionListener(e -> showCard("admin"));
+            onEvent(ChangeEvents.StockChanged.class, e -> applyStock(model, 4, e.getStock()));
+            onEvent(ChangeEvents.CatalogChanged.class, e -> refresh());
+            refresh();
+        }
+
+        private String chooseKind(String action) {
+            String[] kinds = {"Menu", "Stock", "Categories"};
+            return (String) JOptionPane.showInputDialog(this, action + " which data? (.csv or .jsonl)", action,
+                    JOptionPane.QUESTION_MESSAGE, null, kinds, kinds[0]);
+        }
+
+        public void refresh() {
+            loadAsync("inventory", this, status, menuController::getAllMenu, all -> {
+                model.setRowCount(0);
+                for (MenuItem m : all) {
+                    model.addRow(new Object[]{m.getItemId(), m.getName(), m.getCategoryName(), Money.format(m.getPricePaise()), m.getAvailableQty()});
+                }
+            });
+        }
+    }
+
+    // Orders (admin) panel
+    class OrdersPanel extends JPanel {
+        private final OrdersTableModel model = new OrdersTableModel(orderController, loader);
+        private final JTable table = new JTable(model);
+        private final JLabel status = statusLabel();
+        private final JTextField fromField = new JTextField(LocalDate.now().toString(), 9);
+        private final JTextField toField = new JTextField(LocalDate.now().toString(), 9);
+
+        public OrdersPanel() {
+            setLayout(new BorderLayout());
+            setBackground(new Color(255, 167, 38)); // amber
+            add(titleLabel("🧾 Orders"), BorderLayout.NORTH);
+
+            table.setRowHeight(26);
+            add(new JScrollPane(table), BorderLayout.CENTER);
+
+            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            bottom.setOpaque(false);
+            JButton back = new JButton("← Back");
+            JButton apply = new JButton("Show");
+            JButton reprint = new JButton("Reprint Bill");
+            styleButton(back);
+            styleButton(apply);
+            styleButton(reprint);
+            back.setBackground(new Color(96, 125, 139));
+            bottom.add(back);
+            bottom.add(new JLabel("From:"));
+            bottom.add(fromField);
+            bottom.add(new JLabel("To:"));
+            bottom.add(toField);
+            bottom.add(apply);
+            bottom.add(reprint);
+            bottom.add(status);
+            add(bottom, BorderLayout.SOUTH);
+
+            model.setStatusListener(status::setText);
+            onEvent(ChangeEvents.OrderPlaced.class, e -> model.insertOrder(e.getOrder()));
+            back.addActionListener(e -> showCard("admin"));
+            apply.addActionListener(e -> refresh());
+            reprint.addActionListener(e -> {
+                int row = table.getSelectedRow();
+                if (row < 0) {
+                    JOptionPane.showMessageDialog(this, "Select an order to reprint.");
+                    return;
+                }
+                billPanel().renderFromOrder((int) model.getValueAt(row, 0));
+                showCard("bill");
+            });
+            refresh();
+        }
+
+        public void refresh() {
+            LocalDate from, to;
+            try {
+                from = LocalDate.parse(fromField.getText().trim());
+                to = LocalDate.parse(toField.getText().trim());
+            } catch (DateTimeParseException ex) {
+                JOptionPane.showMessageDialog(this, "Dates must be yyyy-mm-dd.");
+                return;
+            }
+            model.reset(from, to);
+        }
+    }
+
+    // Customer menu (category selection)
+    class CustomerMenuPanel extends JPanel {
+        private final JPanel center = new JPanel(new FlowLayout(FlowLayout.CENTER, 14, 14));
+        private final JButton search = new JButton("🔍 Search");
+        private final JLabel status = statusLabel();
+
+        public CustomerMenuPanel() {
+            setLayout(new BorderLayout());
+            setBackground(new Color(103, 58, 183)); // purple
+            add(titleLabel("🍽️ Menu Categories"), BorderLayout.NORTH);
+
+            center.setOpaque(false);
+            styleButton(search);
+            search.setBackground(new Color(0, 150, 136));
+            search.setPreferredSize(new Dimension(160, 60));
+            search.addActionListener(e -> {
+                categoryPanel().startSearch();
+                showCard("category");
+            });
+            center.add(search);
+            add(new JScrollPane(center), BorderLayout.CENTER);
+
+            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            bottom.setOpaque(false);
+            JButton back = new JButton("← Back");
+            styleButton(back);
+            back.setBackground(new Color(96, 125, 139));
+            back.addActionListener(e -> showCard("welcome"));
+            bottom.add(back);
+            bottom.add(status);
+            add(bottom, BorderLayout.SOUTH);
+
+            onEvent(ChangeEvents.CatalogChanged.class, e -> refresh());
+            refresh();
+        }
+
+        /** Rebuilds the category buttons; usually served from the catalog cache filled by the warm-up. */
+        public void refresh() {
+            loadAsync("customer", this, status, menuController::getCategories, categories -> {
+                center.removeAll();
+                center.add(search);
+                if (categories.isEmpty()) {
+                    center.add(new JLabel("No categories found (DB empty)."));
+                } else {
+                    for (String cat : categories) {
+                        JButton b = new JButton(cat);
+                        styleButton(b);
+                        b.setPreferredSize(new Dimension(160, 60));
+                        b.addActionListener(e -> {
+                            categoryPanel().setCategory(cat);
+                            showCard("category");
+                        });
+                        center.add(b);
+                    }
+                }
+                center.revalidate();
+                center.repaint();
+            });
+        }
+    }
+
+    // Category items listing, or search results while the search field has text
+    class CategoryPanel extends JPanel {
+        private final DefaultTableModel model = new DefaultTableModel(new String[]{"ItemID", "Name", "Price", "Available", "Qty to add"}, 0);
+        private final JTable table = new JTable(model);
+        private final JLabel status = statusLabel();
+        private final JTextField searchField = new JTextField(24);
+        private final Timer searchDelay = new Timer(AppConfig.getInt("ui.search.debounceMs", 120), e -> refresh());
+        private String currentCategory;
+
+        public CategoryPanel() {
+            setLayout(new BorderLayout());
+            setBackground(new Color(3, 169, 244)); // light blue
+
+            JPanel top = new JPanel(new BorderLayout());
+            top.setOpaque(false);
+            top.add(titleLabel("📚 Category Items"), BorderLayout.NORTH);
+            JPanel searchRow = new JPanel(new FlowLayout(FlowLayout.CENTER));
+            searchRow.setOpaque(false);
+            JLabel searchLbl = new JLabel("Search:");
+            searchLbl.setForeground(Color.WHITE);
+            searchRow.add(searchLbl);
+            searchRow.add(searchField);
+            top.add(searchRow, BorderLayout.SOUTH);
+            add(top, BorderLayout.NORTH);
+
+            // type-ahead: search once typing pauses, not on every keystroke
+            searchDelay.setRepeats(false);
+            searchField.getDocument().addDocumentListener(new DocumentListener() {
+                @Override public void insertUpdate(DocumentEvent e) { searchDelay.restart(); }
+                @Override public void removeUpdate(DocumentEvent e) { searchDelay.restart(); }
+                @Override public void changedUpdate(DocumentEvent e) { searchDelay.restart(); }
+            });
+
+            table.setRowHeight(26);
+            add(new JScrollPane(table), BorderLayout.CENTER);
+
+            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            bottom.setOpaque(false);
+            JButton addToCart = new JButton("Add Selected to Cart");
+            JButton viewCart = new JButton("View Cart");
+            JButton back = new JButton("← Back");
+            styleButton(addToCart);
+            styleButton(viewCart);
+            styleButton(back);
+            addToCart.setBackground(new Color(76, 175, 80));
+            viewCart.setBackground(new Color(244, 67, 54));
+            back.setBackground(new Color(96, 125, 139));
+
+            bottom.add(status);
+            bottom.add(back);
+            bottom.add(viewCart);
+            bottom.add(addToCart);
+            add(bottom, BorderLayout.SOUTH);
+
+            back.addActionListener(e -> showCard("customer"));
+            viewCart.addActionListener(e -> showCard("cart"));
+
+            addToCart.addActionListener(e -> {
+                int r = table.getSelectedRow();
+                if (r == -1) {
+                    JOptionPane.showMessageDialog(this, "Select an item.");
+                    return;
+                }
+                int itemId = (int) model.getValueAt(r, 0);
+                int qty = 1;
+                try {
+                    Object v = model.getValueAt(r, 4);
+                    qty = Integer.parseInt(String.valueOf(v));
+                } catch (Exception ex) {
+                    qty = 1;
+                }
+                int q = qty;
+                loadAsync("addToCart", this, status, () -> {
+                    orderController.addToCart(itemId, q);
+                    return true;
+                }, ok -> JOptionPane.showMessageDialog(this, "Added to cart."));
+            });
+
+            onEvent(ChangeEvents.StockChanged.class, e -> applyStock(model, 3, e.getStock()));
+            onEvent(ChangeEvents.CatalogChanged.class, e -> refresh());
+        }
+
+        public void setCategory(String cat) {
+            this.currentCategory = cat;
+            searchField.setText("");
+            searchDelay.stop();
+            refresh();
+        }
+
+        /** Clears the listing and puts the cursor in the search field. */
+        public void startSearch() {
+            currentCategory = null;
+            searchField.setText("");
+            searchDelay.stop();
+            model.setRowCount(0);
+            SwingUtilities.invokeLater(searchField::requestFocusInWindow);
+        }
+
+        public void refresh() {
+            String query = searchField.getText().trim();
+            String cat = currentCategory;
+            if (query.isEmpty() && cat == null) {
+                model.setRowCount(0);
+                return;
+            }
+            Callable<List<MenuItem>> task = query.isEmpty()
+                    ? () -> menuController.getMenuByCategory(cat)
+                    : () -> menuController.search(query, AppConfig.getInt("ui.search.limit", 50));
+            loadAsync("category", this, status, task, list -> {
+                model.setRowCount(0);
+                for (MenuItem m : list) {
+                    model.addRow(new Object[]{m.getItemId(), m.getName(), Money.format(m.getPricePaise()), m.getAvailableQty(), 1});
+                }
+            });
+        }
+    }
+
+    // Cart panel
+    class CartPanel extends JPanel {
+        private final DefaultTableModel model = new DefaultTableModel(new String[]{"Name", "Qty", "Price", "Total"}, 0);
+        /** Item id of each table row. */
+        private final List<Integer> rowItems = new ArrayList<>();
+        private final JTextField discountField = new JTextField("0", 6);
+        private final JLabel subtotalLabel = new JLabel("₹0.00");
+        private final JLabel status = statusLabel();
+
+        public CartPanel() {
+            setLayout(new BorderLayout());
+            setBackground(new Color(121, 85, 72)); // brown
+            add(titleLabel("🛒 Cart"), BorderLayout.NORTH);
+
+            JTable t = new JTable(model);
+            t.setRowHeight(26);
+            add(new JScrollPane(t), BorderLayout.CENTER);
+
+            JPanel right = new JPanel();
+            right.setOpaque(false);
+            right.setLayout(new BoxLayout(right, BoxLayout.Y_AXIS));
+            right.setBorder(new EmptyBorder(10, 10, 10, 10));
+
+            JLabel subLbl = new JLabel("Subtotal:");
+            subLbl.setForeground(Color.WHITE);
+            subLbl.setFont(new Font("Segoe UI", Font.PLAIN, 14));
+            subtotalLabel.setFont(new Font("Segoe UI", Font.BOLD, 16));
+            subtotalLabel.setForeground(Color.WHITE);
+
+            right.add(subLbl);
+            right.add(subtotalLabel);
+            right.add(Box.createVerticalStrut(10));
+
+            JPanel disc = new JPanel(new FlowLayout(FlowLayout.LEFT));
+            disc.setOpaque(false);
+            disc.add(new JLabel("Discount (₹): "));
+            disc.add(discountField);
+            right.add(disc);
+            right.add(Box.createVerticalStrut(12));
+
+            JButton generate = new JButton("Generate Bill");
+            styleButton(generate);
+            generate.setBackground(new Color(0, 188, 212));
+            generate.addActionListener(e -> {
+                long discVal = 0;
+                try {
+                    discVal = Money.parse(discountField.getText());
+                } catch (Exception ex) {
+                    discVal = 0;
+                }
+                long discount = discVal;
+                generate.setEnabled(false);
+                loader.load("placeOrder", () -> orderController.placeOrder(discount), order -> {
+                    generate.setEnabled(true);
+                    status.setText(" ");
+                    JOptionPane.showMessageDialog(this, order.getOrderId() == 0 && order.getJournalSeq() > 0
+                            ? "Order accepted (journal #" + order.getJournalSeq() + ")"
+                            : "Order placed (ID: " + order.getOrderId() + ")");
+                    billPanel().render(order);
+                    showCard("bill");
+                }, ex -> {
+                    generate.setEnabled(true);
+                    status.setText(" ");
+                    JOptionPane.showMessageDialog(this, ex.getMessage());
+                });
+                status.setText("Placing order…");
+            });
+
+            JButton back = new JButton("← Back");
+            styleButton(back);
+            back.setBackground(new Color(96, 125, 139));
+            back.addActionListener(e -> showCard("customer"));
+
+            right.add(generate);
+            right.add(Box.createVerticalStrut(8));
+            right.add(back);
+            right.add(Box.createVerticalStrut(8));
+            right.add(status);
+
+            add(right, BorderLayout.EAST);
+            onEvent(ChangeEvents.CartChanged.class, this::onCartChanged);
+            refresh();
+        }
+
+        public void refresh() {
+            model.setRowCount(0);
+            rowItems.clear();
+            for (OrderItem oi : orderController.getCart()) applyLine(oi);
+            subtotalLabel.setText(Money.format(orderController.getSubtotalPaise()));
+        }
+
+        private void onCartChanged(ChangeEvents.CartChanged e) {
+            if (!OrderController.DEFAULT_SESSION.equals(e.getSessionId())) return;
+            if (e.getLine() == null) {
+                model.setRowCount(0);
+                rowItems.clear();
+            } else {
+                applyLine(e.getLine());
+            }
+            subtotalLabel.setText(Money.format(e.getSubtotalPaise()));
+        }
+
+        /** Updates the line's row in place, or appends it if the item is new to the cart. */
+        private void applyLine(OrderItem oi) {
+            int r = rowItems.indexOf(oi.getItemId());
+            if (r < 0) {
+                rowItems.add(oi.getItemId());
+                model.addRow(new Object[]{oi.getName(), oi.getQuantity(), Money.format(oi.getPricePaise()), Money.format(oi.getTotalPaise())});
+            } else {
+                model.setValueAt(oi.getQuantity(), r, 1);
+                model.setValueAt(Money.format(oi.getTotalPaise()), r, 3);
+            }
+        }
+    }
+
+    // Bill panel
+    class BillPanel extends JPanel {
+        private final JTextArea area = new JTextArea();
+        private final JLabel status = statusLabel();
+
+        public BillPanel() {
+            setLayout(new BorderLayout());
+            setBackground(new Color(96, 125, 139));
+            add(titleLabel("🧾 Bill"), BorderLayout.NORTH);
+
+            area.setFont(new Font("Monospaced", Font.PLAIN, 14));
+            area.setEditable(false);
+            add(new JScrollPane(area), BorderLayout.CENTER);
+
+            JPanel bottom = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            bottom.setOpaque(false);
+            JButton done = new JButton("Done");
+            styleButton(done);
+            done.setBackground(new Color(233, 30, 99));
+            done.addActionListener(e -> showCard("thankyou"));
+            bottom.add(status);
+            bottom.add(done);
+            add(bottom, BorderLayout.SOUTH);
+        }
+
+        /** Shows the bill for an order just placed; no database access. */
+        public void render(Order order) {
+            area.setText(BillFormatter.format(order));
+            area.setCaretPosition(0);
+        }
+
+        /** Reprints a past bill, reading the order back from the database. */
+        public void renderFromOrder(int orderId) {
+            area.setText("");
+            loadAsync("bill", this, status, () -> orderController.findOrder(orderId), order -> {
+                if (order == null) area.setText("Order not found.\n");
+                else render(order);
+            });
+        }
+    }
+
+    // Thank you
+    class ThankYouPanel extends JPanel {
+        public ThankYouPanel() {
+            setLayout(new BorderLayout());
+            setBackground(new Color(255, 204, 128));
+            JLabel t = new JLabel("🎉 Thank You for Visiting The Palate!", SwingConstants.CENTER);
+            t.setFont(new Font("Segoe UI", Font.BOLD, 28));
+            t.setForeground(new Color(85, 65, 0));
+            add(t, BorderLayout.CENTER);
+
+            JButton home = new JButton("Back to Home");
+            styleButton(home);
+            home.setBackground(new Color(233, 30, 99));
+            home.addActionListener(e -> showCard("welcome"));
+
+            JPanel p = new JPanel();
+            p.setOpaque(false);
+            p.add(home);
+            add(p, BorderLayout.SOUTH);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package view;
+
+import controller.AppConfig;
+import controller.OrderController;
+import model.Money;
+import model.Order;
+
+import javax.swing.table.AbstractTableModel;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Orders table that loads lazily: pages of orders are fetched by keyset as the table asks for
+ * rows near the end of what has been loaded, so opening the panel costs one page regardless of
+ * history size. Cell text is formatted once per row when its page arrives. Orders placed while the
+ * table is open are inserted at the top by insertOrder.
+ * Must be used on the EDT.
+ */
+class OrdersTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = {"Order ID", "Time", "Total", "Discount", "Net"};
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final OrderController orderController;
+    private final AsyncLoader loader;
+    private final int pageSize = AppConfig.getInt("ui.orders.pageSize", 200);
+    private final List<Object[]> rows = new ArrayList<>();
+    /** Ids inserted live, so a page loaded concurrently does not list them twice. */
+    private final Set<Integer> inserted = new HashSet<>();
+    private Order last;
+    private boolean exhausted;
+    private boolean loading;
+    private LocalDate from = LocalDate.now();
+    private LocalDate to = LocalDate.now();
+    private Consumer<String> statusListener = s -> {};
+
+    OrdersTableModel(OrderController orderController, AsyncLoader loader) {
+        this.orderController = orderController;
+        this.loader = loader;
+    }
+
+    void setStatusListener(Consumer<String> statusListener) { this.statusListener = statusListener; }
+
+    /** Clears the table and starts loading the given date range (inclusive). */
+    void reset(LocalDate from, LocalDate to) {
+        this.from = from;
+        this.to = to;
+        rows.clear();
+        inserted.clear();
+        last = null;
+        exhausted = false;
+        loading = false;
+        fireTableDataChanged();
+        loadMore();
+    }
+
+    void loadMore() {
+        if (loading || exhausted) return;
+        loading = true;
+        statusListener.accept("Loading…");
+        LocalDate f = from, t = to;
+        Order after = last;
+        loader.load("orders-page", () -> orderController.getOrders(f, t, after, pageSize), page -> {
+            loading = false;
+            if (page.size() < pageSize) exhausted = true;
+            if (!page.isEmpty()) {
+                int first = rows.size();
+                for (Order o : page) {
+                    if (!inserted.contains(o.getOrderId())) rows.add(row(o));
+                }
+                last = page.get(page.size() - 1);
+                if (rows.size() > first) fireTableRowsInserted(first, rows.size() - 1);
+            }
+            statusListener.accept(rows.size() + (exhausted ? " orders" : "+ orders"));
+        }, ex -> {
+            loading = false;
+            ex.printStackTrace();
+            statusListener.accept("Failed to load orders: " + ex.getMessage());
+        });
+    }
+
+    /** Adds a just-placed order as the first row if it falls in the displayed range. */
+    void insertOrder(Order o) {
+        LocalDate day = o.getOrderTime().toLocalDate();
+        if (day.isBefore(from) || day.isAfter(to) || !inserted.add(o.getOrderId())) return;
+        rows.add(0, row(o));
+        fireTableRowsInserted(0, 0);
+    }
+
+    private static Object[] row(Order o) {
+        return new Object[]{o.getOrderId(), o.getOrderTime().format(TIME),
+                Money.format(o.getTotalPaise()), Money.format(o.getDiscountPaise()), Money.format(o.getNetPaise())};
+    }
+
+    @Override public int getRowCount() { return rows.size(); }
+    @Override public int getColumnCount() { return COLUMNS.length; }
+    @Override public String getColumnName(int column) { return COLUMNS[column]; }
+    @Override public boolean isCellEditable(int row, int column) { return false; }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        // the table only asks for visible rows, so this fires when the user scrolls near the end
+        if (row >= rows.size() - pageSize / 4) loadMore();
+        return rows.get(row)[column];
+    }
+}